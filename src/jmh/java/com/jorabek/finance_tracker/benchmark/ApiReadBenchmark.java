@@ -0,0 +1,123 @@
+package com.jorabek.finance_tracker.benchmark;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jorabek.finance_tracker.dto.TransactionDTO;
+import com.jorabek.finance_tracker.entity.Transaction;
+import com.jorabek.finance_tracker.entity.User;
+import com.jorabek.finance_tracker.repository.TransactionRepository;
+import com.jorabek.finance_tracker.repository.UserRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// API o'qish yo'li: managed entity'lar (read-write tranzaksiya, dirty checking snapshot'lari bilan)
+// va read-only tranzaksiyadagi DTO proyeksiyasi. Ikkalasi ham bir xil JSON'ni bo'sh oqimga yozadi.
+// Ajratmalarni ko'rish uchun: -Pbenchmarks -Djmh.include="ApiReadBenchmark -prof gc"
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ApiReadBenchmark {
+
+    @Param({ "1000", "100000" })
+    private int transactions;
+
+    private BenchmarkDatabase database;
+    private TransactionRepository transactionRepository;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+    private JsonFactory jsonFactory;
+    private User user;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = BenchmarkDatabase.start(transactions);
+        transactionRepository = database.getBean(TransactionRepository.class);
+        PlatformTransactionManager transactionManager = database.getBean(PlatformTransactionManager.class);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        jsonFactory = database.getBean(ObjectMapper.class).getFactory();
+        user = database.getBean(UserRepository.class).findById(database.getUserId()).orElseThrow();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    @Benchmark
+    public void managedEntities() {
+        readWrite.executeWithoutResult(status -> {
+            List<Transaction> rows = transactionRepository.findAllByUserOrderByDateDesc(user);
+            try (JsonGenerator json = open()) {
+                json.writeStartArray();
+                for (Transaction t : rows) {
+                    writeRow(json, t.getId(), t.getDate().toString(), t.getDescription(), t.getType().name(),
+                            t.getCategory(), t.getAmount().toString());
+                }
+                json.writeEndArray();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    @Benchmark
+    public void dtoProjection() {
+        readOnly.executeWithoutResult(status -> {
+            try (Stream<TransactionDTO> rows = transactionRepository.streamAllByUser(user);
+                    JsonGenerator json = open()) {
+                json.writeStartArray();
+                for (TransactionDTO t : (Iterable<TransactionDTO>) rows::iterator) {
+                    writeRow(json, t.getId(), t.getDate().toString(), t.getDescription(), t.getType().name(),
+                            t.getCategory(), t.getAmount().toString());
+                }
+                json.writeEndArray();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private JsonGenerator open() throws IOException {
+        return jsonFactory.createGenerator(OutputStream.nullOutputStream(), JsonEncoding.UTF8);
+    }
+
+    private static void writeRow(JsonGenerator json, Long id, String date, String description, String type,
+            String category, String amount) throws IOException {
+        json.writeStartObject();
+        json.writeNumberField("id", id);
+        json.writeStringField("date", date);
+        json.writeStringField("description", description);
+        json.writeStringField("type", type);
+        json.writeStringField("category", category);
+        json.writeFieldName("amount");
+        json.writeNumber(amount);
+        json.writeEndObject();
+    }
+}
@@ -0,0 +1,182 @@
+package com.jorabek.finance_tracker.benchmark;
+
+import com.jorabek.finance_tracker.FinanceTrackerApplication;
+import com.jorabek.finance_tracker.entity.TransactionType;
+import com.jorabek.finance_tracker.security.AuthenticatedUser;
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Benchmarklar uchun to'liq Spring konteksti + in-process H2 bazasi va sintetik ma'lumotlar.
+// Bitta foydalanuvchi, oxirgi bir yil bo'ylab tarqalgan N ta tranzaksiya va bir nechta limit.
+final class BenchmarkDatabase implements AutoCloseable {
+
+    static final String[] CATEGORIES = { "Oziq-ovqat", "Transport", "Kommunal", "Kiyim", "Sog'liq",
+            "Ta'lim", "Ko'ngilochar", "Boshqa" };
+
+    // Tavsiflar: o'zbekcha so'zlar (apostrofli variantlar bilan) + "Qarz to'landi: ..." (DebtService yozadi)
+    static final String[] DESCRIPTIONS = { "Bozordan oziq-ovqat", "Non va sut", "Taksi", "Metro kartasi",
+            "Benzin", "Elektr energiyasi", "Gaz to'lovi", "Internet oylik", "Qarz to'landi: Anvar",
+            "Qarz toʻlandi: Dilnoza", "Dorixona", "Shifokor ko'rigi", "Kitoblar", "O'quv kursi", "Kino chiptasi",
+            "Restoranda tushlik", "Oylik maosh", "Mukofot puli", "Ijara to'lovi", "Telefon balansi",
+            "Kiyim-kechak", "Poyabzal do'koni", "Sovg'a", "Korzinka supermarket" };
+
+    private static final int SEED_BATCH_SIZE = 10_000;
+    // Seed - bitta valyuta (UZS = asosiy), shuning uchun base_amount = amount
+    private static final String INSERT_TRANSACTION = "INSERT INTO transactions "
+            + "(user_id, date, description, type, category, amount, currency, base_amount) "
+            + "VALUES (?, ?, ?, ?, ?, ?, 'UZS', ?)";
+
+    private final ConfigurableApplicationContext context;
+    private final Long userId;
+
+    private BenchmarkDatabase(ConfigurableApplicationContext context, Long userId) {
+        this.context = context;
+        this.userId = userId;
+    }
+
+    static BenchmarkDatabase start(int transactionCount) {
+        return start(transactionCount, new String[0]);
+    }
+
+    // properties - benchmark parametriga bog'liq qo'shimcha sozlamalar ("key=value")
+    static BenchmarkDatabase start(int transactionCount, String... properties) {
+        // JMH worker oqimida devtools restart kerak emas
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        // Buyruq qatori argumentlari: application.properties'dagi PostgreSQL URL'idan ustun turadi
+        // (builder.properties() esa eng past ustuvorlikdagi default'lar)
+        String[] args = new String[properties.length + 1];
+        args[0] = "--spring.datasource.url=jdbc:h2:mem:bench" + transactionCount
+                + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+        for (int i = 0; i < properties.length; i++) {
+            args[i + 1] = "--" + properties[i];
+        }
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(FinanceTrackerApplication.class)
+                .profiles("bench")
+                .run(args);
+
+        Long userId = seed(context.getBean(JdbcTemplate.class), transactionCount);
+        authenticate(userId);
+        return new BenchmarkDatabase(context, userId);
+    }
+
+    // PostgreSQL'ga xos o'lchovlar uchun (tsvector/pg_trgm - H2 da yo'q). Bazani muhit o'zgaruvchilari beradi
+    // (JMH fork qilingan JVM ham ko'radi): BENCH_POSTGRES_URL, BENCH_POSTGRES_USER, BENCH_POSTGRES_PASSWORD.
+    // Baza faqat benchmark uchun bo'lishi kerak: sxema Flyway clean + migrate bilan qaytadan yaratiladi.
+    static BenchmarkDatabase startPostgres(int transactionCount) {
+        String url = System.getenv("BENCH_POSTGRES_URL");
+        if (url == null || url.isBlank()) {
+            throw new IllegalStateException("BENCH_POSTGRES_URL is not set (e.g. "
+                    + "jdbc:postgresql://localhost:5432/finance_bench?reWriteBatchedInserts=true)");
+        }
+        String username = envOrDefault("BENCH_POSTGRES_USER", "postgres");
+        String password = envOrDefault("BENCH_POSTGRES_PASSWORD", "");
+        // Sxema kontekstdan oldin: ishga tushishda o'qiladigan jadvallar (fx_rates_state, job_checkpoints)
+        // tayyor bo'lsin
+        Flyway flyway = Flyway.configure()
+                .dataSource(url, username, password)
+                .cleanDisabled(false)
+                .load();
+        flyway.clean();
+        flyway.migrate();
+
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        // Buyruq qatori argumentlari bench profilidagi H2 sozlamalaridan ustun turadi
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(FinanceTrackerApplication.class)
+                .profiles("bench")
+                .run("--spring.datasource.url=" + url,
+                        "--spring.datasource.driver-class-name=org.postgresql.Driver",
+                        "--spring.datasource.username=" + username,
+                        "--spring.datasource.password=" + password,
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect",
+                        "--spring.jpa.hibernate.ddl-auto=none",
+                        // bench-schema.sql - H2 uchun; PostgreSQL'da bu jadvallarni Flyway yaratadi
+                        "--spring.sql.init.mode=never",
+                        "--spring.flyway.enabled=false");
+
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        Long userId = seed(jdbc, transactionCount);
+        // Yangi to'ldirilgan jadval: planner statistikasi va visibility map
+        jdbc.execute("VACUUM ANALYZE transactions");
+        authenticate(userId);
+        return new BenchmarkDatabase(context, userId);
+    }
+
+    private static String envOrDefault(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value != null ? value : defaultValue;
+    }
+
+    <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    Long getUserId() {
+        return userId;
+    }
+
+    @Override
+    public void close() {
+        SecurityContextHolder.clearContext();
+        context.close();
+    }
+
+    private static Long seed(JdbcTemplate jdbc, int transactionCount) {
+        jdbc.update("INSERT INTO users (username, password, role, base_currency) "
+                + "VALUES ('bench', 'bench', 'ROLE_USER', 'UZS')");
+        Long userId = jdbc.queryForObject("SELECT id FROM users WHERE username = 'bench'", Long.class);
+
+        // Qat'iy seed: har bir ishga tushirishda bir xil ma'lumotlar
+        Random random = new Random(42);
+        // Alohida generator: tavsiflar boshqa maydonlarning (sana, tur, summa) ketma-ketligini o'zgartirmaydi
+        Random descriptions = new Random(7);
+        LocalDate today = LocalDate.now();
+        List<Object[]> batch = new ArrayList<>(SEED_BATCH_SIZE);
+        for (int i = 0; i < transactionCount; i++) {
+            TransactionType type = random.nextInt(10) < 3 ? TransactionType.INCOME : TransactionType.EXPENSE;
+            LocalDate date = today.minusDays(random.nextInt(365));
+            String description = DESCRIPTIONS[descriptions.nextInt(DESCRIPTIONS.length)] + " #" + i;
+            String category = CATEGORIES[random.nextInt(CATEGORIES.length)];
+            long amount = 100L + random.nextInt(50_000_000);
+            batch.add(new Object[] { userId, date, description, type.getCode(), category, amount, amount });
+            if (batch.size() == SEED_BATCH_SIZE) {
+                jdbc.batchUpdate(INSERT_TRANSACTION, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbc.batchUpdate(INSERT_TRANSACTION, batch);
+        }
+        // Kunlik yig'ma (V5 migratsiyasidagi backfill bilan bir xil)
+        jdbc.update("INSERT INTO daily_category_totals (user_id, \"day\", category, type, total_amount, tx_count) "
+                + "SELECT t.user_id, t.\"date\", t.category, t.type, SUM(t.base_amount), COUNT(*) FROM transactions t "
+                + "GROUP BY t.user_id, t.\"date\", t.category, t.type");
+
+        for (int i = 0; i < 6; i++) {
+            jdbc.update("INSERT INTO category_limits (user_id, category, limit_amount, currency, base_limit_amount) "
+                    + "VALUES (?, ?, ?, 'UZS', ?)", userId, CATEGORIES[i], 1_000_000_00L * (i + 1),
+                    1_000_000_00L * (i + 1));
+        }
+        return userId;
+    }
+
+    // Servislar joriy foydalanuvchini SecurityContext'dan oladi; MODE_GLOBAL bilan
+    // JMH worker oqimlari ham shu autentifikatsiyani ko'radi
+    private static void authenticate(Long userId) {
+        SecurityContextHolder.setStrategyName(SecurityContextHolder.MODE_GLOBAL);
+        List<GrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+        AuthenticatedUser principal = new AuthenticatedUser(userId, "bench", "bench", authorities);
+        SecurityContextHolder.getContext()
+                .setAuthentication(new UsernamePasswordAuthenticationToken(principal, null, authorities));
+    }
+}
@@ -0,0 +1,61 @@
+package com.jorabek.finance_tracker.benchmark;
+
+import com.jorabek.finance_tracker.dto.BudgetStatusDTO;
+import com.jorabek.finance_tracker.service.TransactionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Budjet holatlari (limitlar JOIN kunlik yig'ma, SUM ... GROUP BY) seed qilingan H2 bazasida.
+// Sarflangan summa tranzaksiyalardan emas, kunlik yig'madan o'qiladi: vaqt tranzaksiyalar soniga
+// qarab o'smasligi kerak (1k, 100k va 1M natijalari taqqoslanadi).
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BudgetStatusBenchmark {
+
+    @Param({ "1000", "100000", "1000000" })
+    private int transactions;
+
+    private BenchmarkDatabase database;
+    private TransactionService transactionService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = BenchmarkDatabase.start(transactions);
+        transactionService = database.getBean(TransactionService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    // Barcha limitlar (seed: 6 ta) bitta so'rovda
+    @Benchmark
+    public List<BudgetStatusDTO> budgetStatuses() {
+        return transactionService.getBudgetStatuses();
+    }
+
+    // Bitta kategoriya limiti
+    @Benchmark
+    public double[] categoryBudgetStatus() {
+        return transactionService.getCategoryBudgetStatus(BenchmarkDatabase.CATEGORIES[0]);
+    }
+}
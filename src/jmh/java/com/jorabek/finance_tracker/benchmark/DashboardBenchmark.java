@@ -0,0 +1,61 @@
+package com.jorabek.finance_tracker.benchmark;
+
+import com.jorabek.finance_tracker.service.TransactionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// TransactionService'ning DB bilan ishlaydigan yo'llari: kategoriyalar bo'yicha xarajat (kunlik yig'madan),
+// oqimli CSV eksport (budjet holatlari - BudgetStatusBenchmark). Har bir dataset alohida fork va bazada.
+// Vaqt qatori (generate_series) faqat PostgreSQL'da ishlaydi, shuning uchun H2 benchmarkida yo'q.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DashboardBenchmark {
+
+    @Param({ "1000", "100000", "1000000" })
+    private int transactions;
+
+    private BenchmarkDatabase database;
+    private TransactionService transactionService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = BenchmarkDatabase.start(transactions);
+        transactionService = database.getBean(TransactionService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    @Benchmark
+    public List<Object[]> expenseByCategory() {
+        return transactionService.getExpenseByCategoryData();
+    }
+
+    // Yozuvchi hech narsani saqlamaydi: faqat o'qish + formatlash narxi o'lchanadi
+    @Benchmark
+    public void csvExport() throws IOException {
+        transactionService.writeCsvExport(Writer.nullWriter());
+    }
+}
@@ -0,0 +1,81 @@
+package com.jorabek.finance_tracker.benchmark;
+
+import com.jorabek.finance_tracker.dto.DashboardAggregates;
+import com.jorabek.finance_tracker.dto.DataVersion;
+import com.jorabek.finance_tracker.service.AggregateCache;
+import com.jorabek.finance_tracker.service.DashboardService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Bir vaqtda N ta foydalanuvchi dashboardni ochadi (har biri alohida virtual oqimda, Tomcat kabi):
+// bitta invocation = N ta loadSnapshot chaqiruvi tugashi. SampleTime - p50/p99 ham chiqadi.
+// fanOut=false - avvalgi ketma-ket yo'l (bitta oqim, bitta tranzaksiya ketma-ket) bilan solishtirish.
+// Aggregatlar CTE/generate_series PostgreSQL'ga xos, shuning uchun kesh oldindan to'ldiriladi:
+// parallel bo'ladigan qism - tranzaksiyalar sahifasi va qarzlar ro'yxati
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DashboardConcurrencyBenchmark {
+
+    // Benchmark davomida ma'lumot o'zgarmaydi: kesh qiymati va so'rovlar bir xil versiyada
+    private static final DataVersion VERSION = new DataVersion("bench", 0L);
+
+    @Param({ "10", "100", "1000" })
+    private int users;
+
+    @Param({ "true", "false" })
+    private boolean fanOut;
+
+    private BenchmarkDatabase database;
+    private DashboardService dashboardService;
+    private AggregateCache aggregateCache;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = BenchmarkDatabase.start(100_000, "app.dashboard.fan-out.enabled=" + fanOut);
+        dashboardService = database.getBean(DashboardService.class);
+        aggregateCache = database.getBean(AggregateCache.class);
+    }
+
+    // Kesh TTL'i iteratsiya davomida tugamasligi uchun har safar qayta qo'yiladi
+    @Setup(Level.Iteration)
+    public void warmAggregates() {
+        aggregateCache.put(database.getUserId(), VERSION, new DashboardAggregates(LocalDate.now().minusDays(6),
+                0L, 0L, 0L, List.of(), List.of(), List.of()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    @Benchmark
+    public void concurrentDashboards() throws InterruptedException {
+        List<Thread> threads = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            threads.add(Thread.ofVirtual().start(() -> dashboardService.loadSnapshot("date", "desc", null, VERSION)));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+}
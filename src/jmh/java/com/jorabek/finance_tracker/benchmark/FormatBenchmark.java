@@ -0,0 +1,95 @@
+package com.jorabek.finance_tracker.benchmark;
+
+import com.jorabek.finance_tracker.entity.Money;
+import com.jorabek.finance_tracker.service.MoneyFormatter;
+import com.jorabek.finance_tracker.service.TransactionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Dashboard kartalaridagi summalarni formatlash (har sahifa ochilishida 8 marta).
+// legacy* - avvalgi String.format varianti, append* - MoneyFormatter qayta ishlatiladigan buferga
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FormatBenchmark {
+
+    private static final int MASK = 1023;
+
+    // formatSmart/formatFull repozitoriylarga murojaat qilmaydi
+    private final TransactionService transactionService = new TransactionService(null, null, null, null, null, null, null);
+
+    private final StringBuilder buffer = new StringBuilder(32);
+
+    private Money[] amounts;
+    private int index;
+
+    // Turli kattaliklar: oddiy, "mln" va "mlrd" shoxlari
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        amounts = new Money[MASK + 1];
+        for (int i = 0; i < amounts.length; i++) {
+            long scale = switch (i % 3) {
+                case 0 -> 100_000_00L;
+                case 1 -> 100_000_000_00L;
+                default -> 100_000_000_000_00L;
+            };
+            amounts[i] = Money.ofMinor((long) (random.nextDouble() * scale));
+        }
+    }
+
+    @Benchmark
+    public String formatSmart() {
+        return transactionService.formatSmart(amounts[index++ & MASK]);
+    }
+
+    @Benchmark
+    public String formatFull() {
+        return transactionService.formatFull(amounts[index++ & MASK]);
+    }
+
+    @Benchmark
+    public StringBuilder appendSmart() {
+        buffer.setLength(0);
+        return MoneyFormatter.appendSmart(buffer, amounts[index++ & MASK].getMinorUnits());
+    }
+
+    @Benchmark
+    public StringBuilder appendFull() {
+        buffer.setLength(0);
+        return MoneyFormatter.appendFull(buffer, amounts[index++ & MASK].getMinorUnits());
+    }
+
+    @Benchmark
+    public String legacyFormatSmart() {
+        Money amount = amounts[index++ & MASK];
+        long abs = Math.abs(amount.getMinorUnits());
+        BigDecimal value = amount.toDecimal();
+        if (abs >= 100_000_000_000L) {
+            return String.format("%.1f mlrd", value.movePointLeft(9));
+        } else if (abs >= 100_000_000L) {
+            return String.format("%.1f mln", value.movePointLeft(6));
+        }
+        return String.format("%,.2f", value).replace(",", " ");
+    }
+
+    @Benchmark
+    public String legacyFormatFull() {
+        return String.format("%,.2f", amounts[index++ & MASK].toDecimal()).replace(",", " ");
+    }
+}
@@ -0,0 +1,94 @@
+package com.jorabek.finance_tracker.benchmark;
+
+import com.jorabek.finance_tracker.dto.ImportResult;
+import com.jorabek.finance_tracker.service.TransactionImportService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// 1M qatorli CSV import (eksport formatida: ID, qo'shtirnoqli matnlar, valyuta) - natija qator/sekund.
+// Ledger va kunlik yig'malar ON CONFLICT DO UPDATE bilan yoziladi (H2 da yo'q), shuning uchun PostgreSQL kerak:
+// BENCH_POSTGRES_URL=jdbc:postgresql://localhost:5432/finance_bench?reWriteBatchedInserts=true \
+//   mvn -Pbenchmarks verify -Djmh.include=ImportBenchmark
+// Har iteratsiya bo'sh jadvalga import qiladi (oldingi iteratsiya qatorlari indekslarni kattalashtirmasin)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ImportBenchmark {
+
+    private static final int ROWS = 1_000_000;
+
+    private BenchmarkDatabase database;
+    private TransactionImportService importService;
+    private JdbcTemplate jdbcTemplate;
+    private byte[] file;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = BenchmarkDatabase.startPostgres(0);
+        importService = database.getBean(TransactionImportService.class);
+        jdbcTemplate = database.getBean(JdbcTemplate.class);
+        file = buildFile();
+    }
+
+    @Setup(Level.Iteration)
+    public void clear() {
+        jdbcTemplate.execute("TRUNCATE transactions, daily_category_totals");
+        jdbcTemplate.update("DELETE FROM user_ledgers");
+        jdbcTemplate.execute("VACUUM ANALYZE transactions");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public ImportResult importCsv() throws IOException {
+        ImportResult result = importService.importCsv(new ByteArrayInputStream(file));
+        if (result.getImportedCount() != ROWS) {
+            throw new IllegalStateException("Imported " + result.getImportedCount() + " of " + ROWS + " rows");
+        }
+        return result;
+    }
+
+    // Qat'iy seed; bir yil bo'ylab, tavsif va kategoriyalar BenchmarkDatabase bilan bir xil
+    private static byte[] buildFile() {
+        Random random = new Random(42);
+        LocalDate today = LocalDate.now();
+        StringBuilder csv = new StringBuilder(ROWS * 72);
+        csv.append("ID,Date,Description,Type,Category,Amount,Currency\n");
+        for (int i = 0; i < ROWS; i++) {
+            String description = BenchmarkDatabase.DESCRIPTIONS[random.nextInt(BenchmarkDatabase.DESCRIPTIONS.length)];
+            csv.append(i + 1).append(',').append(today.minusDays(random.nextInt(365))).append(",\"")
+                    .append(description).append(" #").append(i).append("\",\"")
+                    .append(random.nextInt(10) < 3 ? "Income" : "Expense").append("\",\"")
+                    .append(BenchmarkDatabase.CATEGORIES[random.nextInt(BenchmarkDatabase.CATEGORIES.length)])
+                    .append("\",").append(1 + random.nextInt(500_000)).append('.').append(random.nextInt(10))
+                    .append("0,UZS\n");
+        }
+        return csv.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,73 @@
+package com.jorabek.finance_tracker.benchmark;
+
+import com.jorabek.finance_tracker.entity.Money;
+import com.jorabek.finance_tracker.entity.Transaction;
+import com.jorabek.finance_tracker.entity.TransactionType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Summalarni yig'ish: avvalgi boxed Double yo'li va hozirgi long (tiyin) yo'li
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MoneySumBenchmark {
+
+    @Param({ "1000", "100000", "1000000" })
+    private int size;
+
+    private List<Double> boxedAmounts;
+    private List<Transaction> transactions;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        boxedAmounts = new ArrayList<>(size);
+        transactions = new ArrayList<>(size);
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < size; i++) {
+            long minor = 100L + random.nextInt(50_000_000);
+            boxedAmounts.add(minor / 100.0);
+            transactions.add(new Transaction("t" + i, Money.ofMinor(minor), TransactionType.EXPENSE,
+                    "Boshqa", today));
+        }
+    }
+
+    // Avvalgi yo'l: List<Double> -> mapToDouble -> sum
+    @Benchmark
+    public double boxedDoubleStream() {
+        return boxedAmounts.stream().mapToDouble(Double::doubleValue).sum();
+    }
+
+    // Hozirgi yo'l: entity ichidagi primitive long
+    @Benchmark
+    public long minorUnitsLoop() {
+        long total = 0L;
+        for (Transaction t : transactions) {
+            total += t.getAmountMinor();
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long minorUnitsStream() {
+        return transactions.stream().mapToLong(Transaction::getAmountMinor).sum();
+    }
+}
@@ -0,0 +1,71 @@
+package com.jorabek.finance_tracker.benchmark;
+
+import com.jorabek.finance_tracker.dto.TransactionPage;
+import com.jorabek.finance_tracker.entity.Money;
+import com.jorabek.finance_tracker.entity.TransactionType;
+import com.jorabek.finance_tracker.service.TransactionSearchService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+// Qidiruv endpointi ortidagi so'rov (birinchi sahifa, 50 qator). Maqsad: 1M tranzaksiyali foydalanuvchida p99 < 50 ms.
+// tsvector/pg_trgm PostgreSQL'ga xos - H2 emas, haqiqiy baza kerak (BenchmarkDatabase.startPostgres):
+// BENCH_POSTGRES_URL=jdbc:postgresql://localhost:5432/finance_bench?reWriteBatchedInserts=true \
+//   mvn -Pbenchmarks verify -Djmh.include=TransactionSearchBenchmark
+// Seed tavsiflari o'zbekcha (BenchmarkDatabase.DESCRIPTIONS), "Qarz to'landi" ikkala apostrof varianti bilan.
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TransactionSearchBenchmark {
+
+    @Param({ "100000", "1000000" })
+    private int transactions;
+
+    // prefix - so'z boshi; apostrophe - boshqa apostrof varianti; fuzzy - xato yozilgan so'z;
+    // filtered - so'rov + sana/tur/summa; rare - kam uchraydigan ikki so'z
+    @Param({ "prefix", "apostrophe", "fuzzy", "filtered", "rare" })
+    private String scenario;
+
+    private BenchmarkDatabase database;
+    private TransactionSearchService searchService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = BenchmarkDatabase.startPostgres(transactions);
+        searchService = database.getBean(TransactionSearchService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    @Benchmark
+    public TransactionPage search() {
+        LocalDate today = LocalDate.now();
+        return switch (scenario) {
+            case "prefix" -> searchService.search("oziq", null, null, null, null, null, null);
+            case "apostrophe" -> searchService.search("qarz to‘landi", null, null, null, null, null, null);
+            case "fuzzy" -> searchService.search("komunal", null, null, null, null, null, null);
+            case "filtered" -> searchService.search("taksi", today.minusDays(90), today, TransactionType.EXPENSE,
+                    Money.ofMinor(1_000_00L), Money.ofMinor(200_000_00L), null);
+            default -> searchService.search("korzinka supermarket", null, null, null, null, null, null);
+        };
+    }
+}
@@ -0,0 +1,25 @@
+-- Tables that have no JPA entity, so Hibernate (ddl-auto=create) does not create them.
+-- FxRateService reads fx_rates and fx_rates_state on startup; DebtReminderJob reads job_checkpoints.
+-- Runs after Hibernate (defer-datasource-initialization).
+CREATE TABLE IF NOT EXISTS fx_rates (
+    currency   VARCHAR(3)     NOT NULL,
+    rate_date  DATE           NOT NULL,
+    rate       NUMERIC(20, 8) NOT NULL,
+    updated_at TIMESTAMP      DEFAULT CURRENT_TIMESTAMP NOT NULL,
+    PRIMARY KEY (currency, rate_date)
+);
+
+CREATE TABLE IF NOT EXISTS fx_rates_state (
+    id      SMALLINT PRIMARY KEY,
+    version BIGINT   NOT NULL
+);
+MERGE INTO fx_rates_state (id, version) KEY (id) VALUES (1, 0);
+
+CREATE TABLE IF NOT EXISTS job_checkpoints (
+    job_name          VARCHAR(64) PRIMARY KEY,
+    run_date          DATE        NOT NULL,
+    position          TEXT,
+    completed         BOOLEAN     DEFAULT FALSE NOT NULL,
+    updated_at        TIMESTAMP   DEFAULT CURRENT_TIMESTAMP NOT NULL,
+    last_completed_at TIMESTAMP
+);
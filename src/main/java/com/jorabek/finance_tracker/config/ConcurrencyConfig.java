@@ -0,0 +1,44 @@
+package com.jorabek.finance_tracker.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+@Configuration
+public class ConcurrencyConfig {
+
+    // Dashboard o'qishlari uchun: har bir vazifa alohida virtual oqimda va alohida ulanishda ishlaydi.
+    // concurrencyLimit - cheklovchi: bir vaqtda ishlayotgan vazifalar soni Hikari poolidan kam bo'lishi kerak,
+    // aks holda parallel o'qishlar yozuvchi so'rovlarga ulanish qoldirmaydi. Limit to'lsa, chaqiruvchi
+    // (so'rov oqimi, ulanishsiz) bo'shagan joyni kutadi
+    @Bean
+    public SimpleAsyncTaskExecutor dashboardFanOutExecutor(
+            @Value("${app.dashboard.fan-out.max-concurrent-queries:8}") int maxConcurrentQueries) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("dashboard-");
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(maxConcurrentQueries);
+        executor.setTaskDecorator(new RequestContextTaskDecorator());
+        return executor;
+    }
+
+    // Fon joblari (DebtReminderJob): bo'laklar parallel yoziladi, limit - ishchilar soni.
+    // Limit to'lsa o'quvchi oqim kutadi, shuning uchun xotirada ko'pi bilan workers + 1 bo'lak turadi
+    @Bean
+    public SimpleAsyncTaskExecutor debtReminderExecutor(
+            @Value("${app.debts.reminders.workers:4}") int workers) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("debt-reminders-");
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(workers);
+        return executor;
+    }
+
+    // Takrorlanuvchi tranzaksiyalar jobi: har bir ishchi SKIP LOCKED bilan o'z qoidalar bo'lagini oladi
+    @Bean
+    public SimpleAsyncTaskExecutor recurringExecutor(@Value("${app.recurring.workers:4}") int workers) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("recurring-");
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(workers);
+        return executor;
+    }
+}
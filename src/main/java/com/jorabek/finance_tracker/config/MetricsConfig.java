@@ -0,0 +1,37 @@
+package com.jorabek.finance_tracker.config;
+
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class MetricsConfig {
+
+    // DataSource (Hikari) datasource-proxy bilan o'raladi: har bir statement SqlStatementCounter'dan o'tadi.
+    // Proxy unwrap() ni Hikari'ga uzatadi, shuning uchun pool metrikalari (hikaricp.*) saqlanadi.
+    // app.sql.count-rows=true - ResultSet ham proxy qilinadi (har bir next() chaqiruviga qo'shimcha narx)
+    @Bean
+    public static BeanPostProcessor sqlCountingDataSourcePostProcessor(Environment environment) {
+        boolean countRows = environment.getProperty("app.sql.count-rows", Boolean.class, false);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource) {
+                    SqlStatementCounter counter = new SqlStatementCounter();
+                    ProxyDataSourceBuilder builder = ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .listener(counter);
+                    if (countRows) {
+                        builder.proxyResultSet().methodListener(counter);
+                    }
+                    return builder.build();
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,28 @@
+package com.jorabek.finance_tracker.config;
+
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+// So'rov oqimining kontekstini fan-out vazifasiga o'tkazadi:
+// SecurityContext (CurrentUserProvider shundan o'qiydi) va SQL hisobi (SqlStatementCounter.Stats),
+// shunda parallel so'rovlar ham route SQL chegarasi (SqlBudgets) ichida sanaladi.
+// Kontekst vazifa yaratilgan paytda olinadi, ishlash paytida emas
+public class RequestContextTaskDecorator implements TaskDecorator {
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        SecurityContext securityContext = SecurityContextHolder.getContext();
+        SqlStatementCounter.Stats sqlStats = SqlStatementCounter.current();
+        Runnable counted = () -> {
+            SqlStatementCounter.attach(sqlStats);
+            try {
+                runnable.run();
+            } finally {
+                SqlStatementCounter.end();
+            }
+        };
+        return DelegatingSecurityContextRunnable.create(counted, securityContext);
+    }
+}
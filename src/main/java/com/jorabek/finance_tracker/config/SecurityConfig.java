@@ -25,6 +25,10 @@ public class SecurityConfig {
         http
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/register", "/css/**", "/js/**", "/images/**", "/h2-console/**").permitAll()
+                        // Faqat ichki management portida (management.server.port) mavjud
+                        .requestMatchers("/actuator/health", "/actuator/prometheus").permitAll()
+                        // Valyuta kurslarini yuklash (users.role = 'ROLE_ADMIN' qo'lda beriladi)
+                        .requestMatchers("/admin/**").hasRole("ADMIN")
                         .anyRequest().authenticated())
                 .csrf(csrf -> csrf
                         .ignoringRequestMatchers("/h2-console/**"))
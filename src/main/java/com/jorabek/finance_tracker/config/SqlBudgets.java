@@ -0,0 +1,61 @@
+package com.jorabek.finance_tracker.config;
+
+import java.util.Map;
+
+// Har bir controller route'i uchun bitta so'rovdagi SQL statementlar (va o'qilgan qatorlar) yuqori chegarasi.
+// Yangi so'rov qo'shgan o'zgarish shu jadvalni ham o'zgartirishi kerak - review'da ko'rinadi.
+// SqlBudgetsTest har bir route'ni haqiqiy PostgreSQL'da chaqirib shu chegaralar bilan tekshiradi (jadvalda yo'q route ham xato).
+// Hisob (SqlStatementCounter) handler boshlanganidan keyin yuritiladi; tranzaksiya commit/rollback sanalmaydi.
+// Kalit: "METHOD route-shabloni"; UNBOUNDED - hajmga bog'liq (eksport/import oqimlari)
+final class SqlBudgets {
+
+    static final int UNBOUNDED = -1;
+
+    // {statements, rows}
+    private static final Map<String, int[]> BUDGETS = Map.ofEntries(
+            // GET so'rovlari avval ma'lumot versiyasini o'qiydi (ledger, 1 qator; 304 bo'lsa boshqa so'rov yo'q).
+            // versiya + aggregatlar CTE + 7 kunlik qator (kesh miss) + tranzaksiyalar sahifasi + qarzlar.
+            // "+ valyuta": asosiy valyuta principal'da; faqat deploydan oldingi sessiyalarda users (1 qator)
+            Map.entry("GET /", new int[] { 6, UNBOUNDED }),
+            // + valyuta + kurs versiyasi (faqat chet valyuta, 1 qator) + ensureLedger (+ init) + INSERT
+            // + ledger delta + kunlik yig'ma upsert
+            Map.entry("POST /add", new int[] { 7, 4 }),
+            // find + ensureLedger (+ init) + DELETE + ledger delta + upsert + bo'sh qatorni o'chirish
+            Map.entry("POST /delete/{id}", new int[] { 7, 3 }),
+            // + valyuta + kurs versiyasi + ensureLedger (+ init) + INSERT + ledger delta (to'langan qarz - faqat versiya)
+            Map.entry("POST /debts/add", new int[] { 6, 4 }),
+            // kalit INSERT + shartli UPDATE + find + ensureLedger (+ init) + ledger delta,
+            // so'ng xarajat tranzaksiyasi (POST /add, ledger allaqachon bor)
+            Map.entry("POST /debts/pay/{id}", new int[] { 12, 6 }),
+            // find + ensureLedger (+ init) + DELETE + ledger delta (yoki versiya)
+            Map.entry("POST /debts/delete/{id}", new int[] { 5, 3 }),
+            Map.entry("GET /export/csv", new int[] { 2, UNBOUNDED }),
+            Map.entry("POST /import/csv", new int[] { UNBOUNDED, UNBOUNDED }),
+            // + valyuta + kurs versiyasi + versiya + find + INSERT/UPDATE
+            Map.entry("POST /limits/add", new int[] { 5, 3 }),
+            // DELETE (foydalanuvchi bilan cheklangan) + versiya
+            Map.entry("POST /limits/delete/{id}", new int[] { 2, 0 }),
+            Map.entry("GET /recurring", new int[] { 2, UNBOUNDED }),
+            // + valyuta + kurs versiyasi + INSERT (tranzaksiyalar keyinroq, job'da)
+            Map.entry("POST /recurring/add", new int[] { 3, 3 }),
+            Map.entry("POST /recurring/delete/{id}", new int[] { 1, 0 }),
+            Map.entry("GET /api/transactions", new int[] { 2, 52 }),
+            // versiya + bitta qidiruv so'rovi (GIN indekslar, LIMIT 51)
+            Map.entry("GET /api/transactions/search", new int[] { 2, 52 }),
+            Map.entry("GET /api/debts", new int[] { 2, UNBOUNDED }),
+            // versiya + ledger (yo'q bo'lsa xom jadvallardan zaxira yig'indilar)
+            Map.entry("GET /api/summary", new int[] { 4, 4 }),
+            Map.entry("GET /api/budgets", new int[] { 2, UNBOUNDED }),
+            Map.entry("GET /api/series", new int[] { 2, 1001 }),
+            // Kurslar xotiradagi jadvaldan; yuklash - fayl hajmi va qayta baholanadigan foydalanuvchilarga bog'liq
+            Map.entry("GET /admin/fx-rates", new int[] { 0, 0 }),
+            Map.entry("POST /admin/fx-rates", new int[] { UNBOUNDED, UNBOUNDED }));
+
+    private SqlBudgets() {
+    }
+
+    // Route uchun chegara yoki null (jadvalda yo'q)
+    static int[] forRoute(String method, String route) {
+        return BUDGETS.get(method + " " + route);
+    }
+}
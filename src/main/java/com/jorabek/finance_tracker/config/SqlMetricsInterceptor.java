@@ -0,0 +1,108 @@
+package com.jorabek.finance_tracker.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.ModelAndView;
+
+import java.util.concurrent.TimeUnit;
+
+// Har bir so'rovdagi SQL statementlar soni va JDBC vaqti, controller route'i bo'yicha:
+// http.server.sql.statements (summary), http.server.sql.time (timer); teglar: method, uri.
+// SqlBudgets chegarasidan oshgan so'rov: WARN log + http.server.sql.budget.exceeded;
+// enforce=true (CI/dev, app.sql.budget.enforce) bo'lsa handler'dan keyin xato - so'rov 500 bilan yiqiladi
+public class SqlMetricsInterceptor implements HandlerInterceptor {
+
+    private static final Logger log = LoggerFactory.getLogger(SqlMetricsInterceptor.class);
+
+    // Yopilgan hisob so'rov atributida qoladi (testlar MockMvc natijasidan o'qiydi)
+    public static final String STATS_ATTRIBUTE = SqlMetricsInterceptor.class.getName() + ".STATS";
+
+    private final MeterRegistry meterRegistry;
+    private final boolean enforceBudgets;
+
+    public SqlMetricsInterceptor(MeterRegistry meterRegistry, boolean enforceBudgets) {
+        this.meterRegistry = meterRegistry;
+        this.enforceBudgets = enforceBudgets;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        SqlStatementCounter.begin();
+        return true;
+    }
+
+    // View render qilinishidan oldin: javob hali yuborilmagan, xato foydalanuvchiga (va testga) ko'rinadi
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
+            ModelAndView modelAndView) {
+        if (!enforceBudgets) {
+            return;
+        }
+        SqlStatementCounter.Stats stats = SqlStatementCounter.current();
+        if (stats != null && exceedsBudget(request.getMethod(), route(request), stats)) {
+            throw new IllegalStateException("SQL budget exceeded for " + request.getMethod() + " "
+                    + route(request) + ": statements=" + stats.getStatements() + ", rows=" + stats.getRows());
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+            Exception ex) {
+        SqlStatementCounter.Stats stats = SqlStatementCounter.end();
+        if (stats == null) {
+            return;
+        }
+        request.setAttribute(STATS_ATTRIBUTE, stats);
+        String uri = route(request);
+        String method = request.getMethod();
+
+        DistributionSummary.builder("http.server.sql.statements")
+                .description("SQL statements executed per request")
+                .tag("method", method)
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(stats.getStatements());
+        Timer.builder("http.server.sql.time")
+                .description("Total JDBC execution time per request")
+                .tag("method", method)
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(stats.getElapsedMillis(), TimeUnit.MILLISECONDS);
+
+        if (exceedsBudget(method, uri, stats)) {
+            Counter.builder("http.server.sql.budget.exceeded")
+                    .description("Requests that ran more SQL than their route budget")
+                    .tag("method", method)
+                    .tag("uri", uri)
+                    .register(meterRegistry)
+                    .increment();
+            log.atWarn().addKeyValue("method", method).addKeyValue("uri", uri)
+                    .addKeyValue("statements", stats.getStatements()).addKeyValue("rows", stats.getRows())
+                    .log("SQL budget exceeded");
+        }
+    }
+
+    // Route shabloni ("/api/debts", "/delete/{id}") - id'lar metrikani portlatmaydi
+    private static String route(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : "UNKNOWN";
+    }
+
+    // Qatorlar faqat app.sql.count-rows=true bo'lganda sanaladi (aks holda 0)
+    private static boolean exceedsBudget(String method, String route, SqlStatementCounter.Stats stats) {
+        int[] budget = SqlBudgets.forRoute(method, route);
+        if (budget == null) {
+            return false;
+        }
+        return (budget[0] != SqlBudgets.UNBOUNDED && stats.getStatements() > budget[0])
+                || (budget[1] != SqlBudgets.UNBOUNDED && stats.getRows() > budget[1]);
+    }
+}
@@ -0,0 +1,94 @@
+package com.jorabek.finance_tracker.config;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Joriy oqimdagi (HTTP so'rov) SQL statementlar soni, umumiy JDBC vaqti va o'qilgan qatorlar.
+// datasource-proxy har bir bajarilishdan keyin afterQuery ni chaqiradi; batch bitta bajarilish sanaladi.
+// Qatorlar ResultSet.next() orqali sanaladi (faqat ResultSet proxy yoqilganda - MetricsConfig).
+// Hisob faqat begin() va end() orasida yuritiladi (SqlMetricsInterceptor).
+// Parallel so'rovlar (dashboard fan-out) bir xil Stats obyektiga attach() orqali ulanadi, shuning uchun hisoblagichlar atomik
+public class SqlStatementCounter implements QueryExecutionListener, MethodExecutionListener {
+
+    private static final ThreadLocal<Stats> CURRENT = new ThreadLocal<>();
+
+    public static void begin() {
+        CURRENT.set(new Stats());
+    }
+
+    // Hisobni yopadi; begin() chaqirilmagan bo'lsa null
+    public static Stats end() {
+        Stats stats = CURRENT.get();
+        CURRENT.remove();
+        return stats;
+    }
+
+    // Boshqa oqimda ishlayotgan vazifani so'rovning hisobiga ulaydi (RequestContextTaskDecorator); null - hisobsiz
+    public static void attach(Stats stats) {
+        if (stats != null) {
+            CURRENT.set(stats);
+        } else {
+            CURRENT.remove();
+        }
+    }
+
+    // Yopmasdan o'qish (masalan so'rov davomida limitni tekshirish uchun)
+    public static Stats current() {
+        return CURRENT.get();
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Stats stats = CURRENT.get();
+        if (stats != null) {
+            stats.statements.incrementAndGet();
+            stats.elapsedMillis.addAndGet(execInfo.getElapsedTime());
+        }
+    }
+
+    @Override
+    public void beforeMethod(MethodExecutionContext executionContext) {
+    }
+
+    @Override
+    public void afterMethod(MethodExecutionContext executionContext) {
+        if (executionContext.getTarget() instanceof ResultSet
+                && "next".equals(executionContext.getMethod().getName())
+                && Boolean.TRUE.equals(executionContext.getResult())) {
+            Stats stats = CURRENT.get();
+            if (stats != null) {
+                stats.rows.incrementAndGet();
+            }
+        }
+    }
+
+    public static class Stats {
+        private final AtomicInteger statements = new AtomicInteger();
+        private final AtomicLong elapsedMillis = new AtomicLong();
+        private final AtomicLong rows = new AtomicLong();
+
+        public int getStatements() {
+            return statements.get();
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis.get();
+        }
+
+        public long getRows() {
+            return rows.get();
+        }
+    }
+}
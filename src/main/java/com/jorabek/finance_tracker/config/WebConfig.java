@@ -0,0 +1,61 @@
+package com.jorabek.finance_tracker.config;
+
+import com.jorabek.finance_tracker.entity.CurrencyCode;
+import com.jorabek.finance_tracker.entity.DebtStatus;
+import com.jorabek.finance_tracker.entity.Money;
+import com.jorabek.finance_tracker.entity.RecurrenceFrequency;
+import com.jorabek.finance_tracker.entity.TransactionType;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.format.Formatter;
+import org.springframework.format.FormatterRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.Locale;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final MeterRegistry meterRegistry;
+    private final boolean enforceSqlBudgets;
+
+    public WebConfig(MeterRegistry meterRegistry,
+            @Value("${app.sql.budget.enforce:false}") boolean enforceSqlBudgets) {
+        this.meterRegistry = meterRegistry;
+        this.enforceSqlBudgets = enforceSqlBudgets;
+    }
+
+    // So'rov bo'yicha SQL soni/vaqti (route tegi bilan) va route chegaralari (SqlBudgets)
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new SqlMetricsInterceptor(meterRegistry, enforceSqlBudgets));
+    }
+
+    // Formadan kelgan "expense", "Expense", "EXPENSE" - hammasi bir xil enumga bog'lanadi
+    // (standart Enum.valueOf faqat aniq nomni qabul qiladi)
+    @Override
+    public void addFormatters(FormatterRegistry registry) {
+        registry.addConverter(String.class, TransactionType.class, TransactionType::fromValue);
+        registry.addConverter(String.class, DebtStatus.class, DebtStatus::fromValue);
+        registry.addConverter(String.class, RecurrenceFrequency.class, RecurrenceFrequency::fromValue);
+        registry.addConverter(String.class, CurrencyCode.class, CurrencyCode::fromValue);
+        registry.addFormatterForFieldType(Money.class, new MoneyFieldFormatter());
+    }
+
+    // Forma maydonlari uchun: "1 000 000.50" -> Money; nol summa bo'sh ko'rsatiladi,
+    // shunda yangi formadagi placeholder saqlanib qoladi
+    static class MoneyFieldFormatter implements Formatter<Money> {
+
+        @Override
+        public Money parse(String text, Locale locale) {
+            return Money.parse(text);
+        }
+
+        @Override
+        public String print(Money money, Locale locale) {
+            return money.signum() == 0 ? "" : money.toString();
+        }
+    }
+}
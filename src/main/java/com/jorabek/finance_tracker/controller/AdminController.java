@@ -0,0 +1,45 @@
+package com.jorabek.finance_tracker.controller;
+
+import com.jorabek.finance_tracker.service.FxRateService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+// Valyuta kurslari (faqat ROLE_ADMIN, SecurityConfig)
+@Controller
+@RequestMapping("/admin")
+public class AdminController {
+
+    private final FxRateService fxRateService;
+
+    @Autowired
+    public AdminController(FxRateService fxRateService) {
+        this.fxRateService = fxRateService;
+    }
+
+    // Oxirgi kurslar xotiradagi jadvaldan (so'rovsiz) + yuklash formasi
+    @GetMapping("/fx-rates")
+    public String fxRates(Model model) {
+        model.addAttribute("latestRates", fxRateService.getLatestRates());
+        return "admin-fx-rates";
+    }
+
+    // CSV (date,currency,rate) yuklash; o'zgargan kurslar bo'lsa chet valyutadagi yozuvlar qayta baholanadi
+    @PostMapping("/fx-rates")
+    public String uploadFxRates(@RequestParam("file") MultipartFile file, RedirectAttributes redirectAttributes)
+            throws IOException {
+        try (InputStream input = file.getInputStream()) {
+            redirectAttributes.addFlashAttribute("importResult", fxRateService.importRates(input));
+        }
+        return "redirect:/admin/fx-rates";
+    }
+}
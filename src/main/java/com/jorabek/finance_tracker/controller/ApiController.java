@@ -0,0 +1,156 @@
+package com.jorabek.finance_tracker.controller;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jorabek.finance_tracker.dto.BudgetStatusDTO;
+import com.jorabek.finance_tracker.dto.DebtDTO;
+import com.jorabek.finance_tracker.dto.SeriesPoint;
+import com.jorabek.finance_tracker.dto.SummaryDTO;
+import com.jorabek.finance_tracker.dto.TransactionPage;
+import com.jorabek.finance_tracker.entity.Money;
+import com.jorabek.finance_tracker.entity.TransactionType;
+import com.jorabek.finance_tracker.service.DashboardService;
+import com.jorabek.finance_tracker.service.DataVersionService;
+import com.jorabek.finance_tracker.service.DebtService;
+import com.jorabek.finance_tracker.service.TransactionSearchService;
+import com.jorabek.finance_tracker.service.TransactionService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+
+// Mobil klient uchun faqat o'qish API'si.
+// Ma'lumot read-only tranzaksiyalarda DTO proyeksiyalar sifatida o'qiladi (managed entity yo'q),
+// javob esa JsonGenerator bilan oqim sifatida yoziladi.
+// Har bir endpoint avval ma'lumot versiyasini tekshiradi (ETag): o'zgarmagan bo'lsa 304, so'rovlarsiz.
+@RestController
+@RequestMapping("/api")
+public class ApiController {
+
+    private final TransactionService transactionService;
+    private final DebtService debtService;
+    private final DashboardService dashboardService;
+    private final DataVersionService dataVersionService;
+    private final TransactionSearchService searchService;
+    private final JsonFactory jsonFactory;
+
+    @Autowired
+    public ApiController(TransactionService transactionService, DebtService debtService,
+            DashboardService dashboardService, DataVersionService dataVersionService,
+            TransactionSearchService searchService, ObjectMapper objectMapper) {
+        this.transactionService = transactionService;
+        this.debtService = debtService;
+        this.dashboardService = dashboardService;
+        this.dataVersionService = dataVersionService;
+        this.searchService = searchService;
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    // Keyset sahifalash: javobdagi nextCursor keyingi so'rovga cursor sifatida beriladi
+    @GetMapping("/transactions")
+    public void transactions(@RequestParam(value = "sortBy", defaultValue = "date") String sortBy,
+            @RequestParam(value = "direction", defaultValue = "desc") String direction,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            ServletWebRequest webRequest, HttpServletResponse response) throws IOException {
+        if (ConditionalGet.notModified(webRequest, dataVersionService.current())) {
+            return;
+        }
+        TransactionPage page = transactionService.getTransactionPage(sortBy, direction, cursor);
+        try (ApiJsonWriter json = open(response)) {
+            json.writeTransactionPage(page);
+        }
+    }
+
+    // Qidiruv: q - tavsif/kategoriya (prefiks va xatoga chidamli), qolgan filtrlar ixtiyoriy.
+    // Javob /transactions bilan bir xil (sana bo'yicha kamayish, nextCursor)
+    @GetMapping("/transactions/search")
+    public void search(@RequestParam(value = "q", required = false) String query,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(value = "type", required = false) TransactionType type,
+            @RequestParam(value = "minAmount", required = false) Money minAmount,
+            @RequestParam(value = "maxAmount", required = false) Money maxAmount,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            ServletWebRequest webRequest, HttpServletResponse response) throws IOException {
+        if (ConditionalGet.notModified(webRequest, dataVersionService.current())) {
+            return;
+        }
+        TransactionPage page = searchService.search(query, from, to, type, minAmount, maxAmount, cursor);
+        try (ApiJsonWriter json = open(response)) {
+            json.writeTransactionPage(page);
+        }
+    }
+
+    // Vaqt qatori: granularity=day|week|month, from/to - ISO sana (yyyy-MM-dd).
+    // Standart oraliq: oxirgi 30 kun / 12 hafta / 12 oy
+    @GetMapping("/series")
+    public void series(@RequestParam(value = "granularity", defaultValue = "day") String granularity,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            ServletWebRequest webRequest, HttpServletResponse response) throws IOException {
+        if (ConditionalGet.notModified(webRequest, dataVersionService.current())) {
+            return;
+        }
+        // Noma'lum qiymat - kunlik (saralash parametrlari kabi)
+        String unit = "week".equals(granularity) || "month".equals(granularity) ? granularity : "day";
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : switch (unit) {
+            case "week" -> end.minusWeeks(11);
+            case "month" -> end.minusMonths(11);
+            default -> end.minusDays(29);
+        };
+        List<SeriesPoint> points = transactionService.getSeries(unit, start, end);
+        try (ApiJsonWriter json = open(response)) {
+            json.writeSeries(unit, points);
+        }
+    }
+
+    @GetMapping("/debts")
+    public void debts(ServletWebRequest webRequest, HttpServletResponse response) throws IOException {
+        if (ConditionalGet.notModified(webRequest, dataVersionService.current())) {
+            return;
+        }
+        List<DebtDTO> debts = debtService.getDebtList();
+        try (ApiJsonWriter json = open(response)) {
+            json.writeDebts(debts);
+        }
+    }
+
+    @GetMapping("/summary")
+    public void summary(ServletWebRequest webRequest, HttpServletResponse response) throws IOException {
+        if (ConditionalGet.notModified(webRequest, dataVersionService.current())) {
+            return;
+        }
+        SummaryDTO summary = dashboardService.loadSummary();
+        try (ApiJsonWriter json = open(response)) {
+            json.writeSummary(summary);
+        }
+    }
+
+    @GetMapping("/budgets")
+    public void budgets(ServletWebRequest webRequest, HttpServletResponse response) throws IOException {
+        if (ConditionalGet.notModified(webRequest, dataVersionService.current())) {
+            return;
+        }
+        List<BudgetStatusDTO> budgets = transactionService.getBudgetStatuses();
+        try (ApiJsonWriter json = open(response)) {
+            json.writeBudgets(budgets);
+        }
+    }
+
+    private ApiJsonWriter open(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        return new ApiJsonWriter(jsonFactory.createGenerator(response.getOutputStream(), JsonEncoding.UTF8));
+    }
+}
@@ -0,0 +1,123 @@
+package com.jorabek.finance_tracker.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.jorabek.finance_tracker.dto.BudgetStatusDTO;
+import com.jorabek.finance_tracker.dto.DebtDTO;
+import com.jorabek.finance_tracker.dto.SeriesPoint;
+import com.jorabek.finance_tracker.dto.SummaryDTO;
+import com.jorabek.finance_tracker.dto.TransactionDTO;
+import com.jorabek.finance_tracker.dto.TransactionPage;
+import com.jorabek.finance_tracker.service.MoneyFormatter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+// API javoblarini JsonGenerator orqali to'g'ridan-to'g'ri javob oqimiga yozadi
+// (oraliq JSON daraxti yoki String yo'q). Summalar aniq JSON son: 1234.50.
+// amount - kiritilgan valyutada (currency), baseAmount va barcha yig'malar - asosiy valyutada
+final class ApiJsonWriter implements Closeable {
+
+    private final JsonGenerator generator;
+    // "-92233720368547758.08" ga yetadi; qayta ishlatiladi
+    private final StringBuilder number = new StringBuilder(24);
+    private final char[] numberChars = new char[24];
+
+    ApiJsonWriter(JsonGenerator generator) {
+        this.generator = generator;
+    }
+
+    void writeTransactionPage(TransactionPage page) throws IOException {
+        generator.writeStartObject();
+        generator.writeArrayFieldStart("items");
+        for (TransactionDTO t : page.getItems()) {
+            generator.writeStartObject();
+            generator.writeNumberField("id", t.getId());
+            generator.writeStringField("date", t.getDate().toString());
+            generator.writeStringField("description", t.getDescription());
+            generator.writeStringField("type", t.getType().name());
+            generator.writeStringField("category", t.getCategory());
+            writeMoneyField("amount", t.getAmountMinor());
+            generator.writeStringField("currency", t.getCurrency().getCode());
+            writeMoneyField("baseAmount", t.getBaseAmountMinor());
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+        generator.writeStringField("sortBy", page.getSortBy());
+        generator.writeStringField("direction", page.getDirection());
+        generator.writeStringField("nextCursor", page.getNextCursor());
+        generator.writeEndObject();
+    }
+
+    void writeDebts(List<DebtDTO> debts) throws IOException {
+        generator.writeStartObject();
+        generator.writeArrayFieldStart("items");
+        for (DebtDTO d : debts) {
+            generator.writeStartObject();
+            generator.writeNumberField("id", d.getId());
+            generator.writeStringField("lenderName", d.getLenderName());
+            writeMoneyField("amount", d.getAmountMinor());
+            generator.writeStringField("currency", d.getCurrency().getCode());
+            writeMoneyField("baseAmount", d.getBaseAmountMinor());
+            generator.writeStringField("loanDate", d.getLoanDate().toString());
+            generator.writeStringField("returnDate", d.getReturnDate().toString());
+            generator.writeStringField("status", d.getStatus().name());
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+
+    void writeSeries(String granularity, List<SeriesPoint> points) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("granularity", granularity);
+        generator.writeArrayFieldStart("points");
+        for (SeriesPoint p : points) {
+            generator.writeStartObject();
+            generator.writeStringField("bucket", p.getBucket().toString());
+            writeMoneyField("income", p.getIncomeMinor());
+            writeMoneyField("expense", p.getExpenseMinor());
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+
+    void writeSummary(SummaryDTO summary) throws IOException {
+        generator.writeStartObject();
+        writeMoneyField("totalIncome", summary.getTotalIncome().getMinorUnits());
+        writeMoneyField("totalExpense", summary.getTotalExpense().getMinorUnits());
+        writeMoneyField("balance", summary.getBalance().getMinorUnits());
+        writeMoneyField("totalUnpaidDebts", summary.getTotalUnpaidDebts().getMinorUnits());
+        generator.writeEndObject();
+    }
+
+    void writeBudgets(List<BudgetStatusDTO> budgets) throws IOException {
+        generator.writeStartObject();
+        generator.writeArrayFieldStart("items");
+        for (BudgetStatusDTO b : budgets) {
+            generator.writeStartObject();
+            generator.writeNumberField("id", b.getId());
+            generator.writeStringField("category", b.getCategory());
+            writeMoneyField("limitAmount", b.getLimitAmountMinor());
+            writeMoneyField("spentAmount", b.getSpentAmountMinor());
+            generator.writeNumberField("percentage", b.getSafePercentage());
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+
+    private void writeMoneyField(String name, long minorUnits) throws IOException {
+        generator.writeFieldName(name);
+        number.setLength(0);
+        MoneyFormatter.appendPlain(number, minorUnits);
+        number.getChars(0, number.length(), numberChars, 0);
+        generator.writeNumber(numberChars, 0, number.length());
+    }
+
+    @Override
+    public void close() throws IOException {
+        generator.close();
+    }
+}
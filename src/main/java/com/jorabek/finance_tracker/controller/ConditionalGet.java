@@ -0,0 +1,34 @@
+package com.jorabek.finance_tracker.controller;
+
+import com.jorabek.finance_tracker.dto.DataVersion;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+
+// Ma'lumot versiyasi bo'yicha shartli GET: ETag/Last-Modified qo'yiladi, If-None-Match (yoki If-Modified-Since)
+// mos kelsa javob 304 bo'ladi va handler hech qanday so'rov bajarmasdan qaytishi kerak.
+// ETag kuchsiz (W/): bir xil ma'lumot gzip bilan yoki usiz yuborilishi mumkin
+final class ConditionalGet {
+
+    // Spring Security standart "no-store" o'rniga: brauzer saqlaydi, lekin har safar tekshiradi
+    private static final String CACHE_CONTROL = CacheControl.noCache().cachePrivate().getHeaderValue();
+
+    private ConditionalGet() {
+    }
+
+    // variant - ma'lumotdan tashqari javobga ta'sir qiladigan qism (masalan sahifadagi CSRF tokeni uchun sessiya)
+    static boolean notModified(ServletWebRequest request, DataVersion version, String variant) {
+        if (version == null) {
+            return false;
+        }
+        if (request.getResponse() != null) {
+            request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        }
+        String tag = variant != null ? version.getTag() + "-" + variant : version.getTag();
+        return request.checkNotModified("W/\"" + tag + "\"", version.getLastModified());
+    }
+
+    static boolean notModified(ServletWebRequest request, DataVersion version) {
+        return notModified(request, version, null);
+    }
+}
@@ -1,50 +1,104 @@
 package com.jorabek.finance_tracker.controller;
 
+import com.jorabek.finance_tracker.dto.DashboardSnapshot;
+import com.jorabek.finance_tracker.dto.DataVersion;
+import com.jorabek.finance_tracker.dto.TransactionPage;
 import com.jorabek.finance_tracker.entity.CategoryLimit;
+import com.jorabek.finance_tracker.entity.CurrencyCode;
 import com.jorabek.finance_tracker.entity.Debt;
+import com.jorabek.finance_tracker.entity.Money;
+import com.jorabek.finance_tracker.entity.RecurringRule;
 import com.jorabek.finance_tracker.entity.Transaction;
+import com.jorabek.finance_tracker.security.CurrentUserProvider;
+import com.jorabek.finance_tracker.service.DashboardService;
+import com.jorabek.finance_tracker.service.DataVersionService;
 import com.jorabek.finance_tracker.service.DebtService;
+import com.jorabek.finance_tracker.service.IdempotencyService;
+import com.jorabek.finance_tracker.service.MissingFxRateException;
+import com.jorabek.finance_tracker.service.RecurringRuleService;
+import com.jorabek.finance_tracker.service.TransactionImportService;
 import com.jorabek.finance_tracker.service.TransactionService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+import org.springframework.web.servlet.support.RequestContextUtils;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
-import java.util.List;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
 
 @Controller
 @RequestMapping("/")
 public class TransactionController {
 
+    private static final int CSV_BUFFER_SIZE = 16 * 1024;
+
     private final TransactionService transactionService;
     private final DebtService debtService;
+    private final DashboardService dashboardService;
+    private final TransactionImportService importService;
+    private final DataVersionService dataVersionService;
+    private final RecurringRuleService recurringRuleService;
+    private final CurrentUserProvider currentUserProvider;
 
     @Autowired
-    public TransactionController(TransactionService transactionService, DebtService debtService) {
+    public TransactionController(TransactionService transactionService, DebtService debtService,
+            DashboardService dashboardService, TransactionImportService importService,
+            DataVersionService dataVersionService, RecurringRuleService recurringRuleService,
+            CurrentUserProvider currentUserProvider) {
         this.transactionService = transactionService;
         this.debtService = debtService;
+        this.dashboardService = dashboardService;
+        this.importService = importService;
+        this.dataVersionService = dataVersionService;
+        this.recurringRuleService = recurringRuleService;
+        this.currentUserProvider = currentUserProvider;
     }
 
     // Asosiy sahifa (Dashboard)
     @GetMapping
     public String index(Model model,
             @RequestParam(value = "sortBy", defaultValue = "date") String sortBy,
-            @RequestParam(value = "direction", defaultValue = "desc") String direction) {
+            @RequestParam(value = "direction", defaultValue = "desc") String direction,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            ServletWebRequest webRequest) {
 
-        // 2. MOLIYAVIY MA'LUMOTLAR
-        List<Transaction> transactions = transactionService.getAllTransactions(sortBy, direction);
-        Double totalIncome = transactionService.getTotalIncome();
-        Double totalExpense = transactionService.getTotalExpense();
-        Double balance = transactionService.getBalance();
+        // 1. SHARTLI GET: ma'lumot o'zgarmagan bo'lsa 304 (aggregatsiyalarsiz).
+        // Flash xabar (import natijasi) bo'lsa sahifa doim chiziladi; sessiya - sahifadagi CSRF tokeni uchun.
+        // Versiya aggregatlar keshini ham tekshiradi, shuning uchun har doim (va ma'lumotlardan oldin) o'qiladi
+        HttpServletRequest request = webRequest.getRequest();
+        DataVersion version = dataVersionService.current();
+        if (RequestContextUtils.getInputFlashMap(request) == null && request.getSession(false) != null
+                && ConditionalGet.notModified(webRequest, version,
+                        Integer.toHexString(request.getSession(false).getId().hashCode()))) {
+            return null;
+        }
 
-        List<Debt> debts = debtService.getAllDebts();
-        Double totalUnpaidDebts = debtService.getTotalUnpaidDebts();
+        // 2. MOLIYAVIY MA'LUMOTLAR (bitta snapshot)
+        DashboardSnapshot snapshot = dashboardService.loadSnapshot(sortBy, direction, cursor, version);
+        TransactionPage page = snapshot.getTransactions();
+        Money totalIncome = snapshot.getTotalIncome();
+        Money totalExpense = snapshot.getTotalExpense();
+        Money balance = snapshot.getBalance();
+        Money totalUnpaidDebts = snapshot.getTotalUnpaidDebts();
 
         // 3. CHART VA FORMATTING
-        model.addAttribute("expenseByCategory", transactionService.getExpenseByCategoryData());
-        model.addAttribute("last7DaysStats", transactionService.getLast7DaysData());
+        model.addAttribute("expenseByCategory", snapshot.getExpenseByCategory());
+        model.addAttribute("last7DaysStats", snapshot.getLast7DaysStats());
 
         model.addAttribute("formattedBalance", transactionService.formatSmart(balance));
         model.addAttribute("formattedIncome", transactionService.formatSmart(totalIncome));
@@ -59,70 +113,172 @@ public class TransactionController {
         model.addAttribute("totalIncome", totalIncome);
         model.addAttribute("totalExpense", totalExpense);
         model.addAttribute("balance", balance);
-        model.addAttribute("transactions", transactions);
+        model.addAttribute("transactions", page.getItems());
+        model.addAttribute("nextCursor", page.getNextCursor());
+        model.addAttribute("cursor", cursor);
+
+        // 4. UI PARAMS (saralash whitelist orqali normallashtirilgan)
+        model.addAttribute("sortBy", page.getSortBy());
+        model.addAttribute("direction", page.getDirection());
+        model.addAttribute("reverseDirection", page.getDirection().equals("asc") ? "desc" : "asc");
 
-        // 4. UI PARAMS
-        model.addAttribute("sortBy", sortBy);
-        model.addAttribute("direction", direction);
-        model.addAttribute("reverseDirection", direction.equals("asc") ? "desc" : "asc");
-        model.addAttribute("transaction", new Transaction());
-        model.addAttribute("debts", debts);
-        model.addAttribute("debt", new Debt());
+        // Yig'malar asosiy valyutada; yangi yozuv formalarida ham u tanlangan bo'ladi
+        CurrencyCode baseCurrency = currentUserProvider.getCurrentBaseCurrency();
+        model.addAttribute("baseCurrency", baseCurrency);
+        model.addAttribute("currencies", CurrencyCode.values());
+        Transaction transaction = new Transaction();
+        transaction.setCurrency(baseCurrency);
+        model.addAttribute("transaction", transaction);
+        model.addAttribute("debts", snapshot.getDebts());
+        Debt debt = new Debt();
+        debt.setCurrency(baseCurrency);
+        model.addAttribute("debt", debt);
 
-        // 5. BUDGET LIMITS
-        model.addAttribute("categoryLimits", transactionService.getAllCategoryLimits());
-        model.addAttribute("budgetStatuses", transactionService.getBudgetStatuses());
-        model.addAttribute("newLimit", new CategoryLimit());
+        // 5. BUDGET LIMITS (kategoriya ro'yxati ham shu yerdan olinadi)
+        model.addAttribute("budgetStatuses", snapshot.getBudgetStatuses());
+        CategoryLimit newLimit = new CategoryLimit();
+        newLimit.setCurrency(baseCurrency);
+        model.addAttribute("newLimit", newLimit);
 
         return "index";
     }
 
+    // Kursi kiritilmagan valyuta (IllegalArgumentException) - sahifada xato sifatida ko'rsatiladi
     @PostMapping("/add")
-    public String addTransaction(@ModelAttribute Transaction transaction) {
-        transactionService.saveTransaction(transaction);
+    public String addTransaction(@ModelAttribute Transaction transaction, RedirectAttributes redirectAttributes) {
+        try {
+            transactionService.saveTransaction(transaction);
+        } catch (IllegalArgumentException e) {
+            redirectAttributes.addFlashAttribute("currencyError", e.getMessage());
+        }
         return "redirect:/";
     }
 
-    @GetMapping("/delete/{id}")
+    @PostMapping("/delete/{id}")
     public String deleteTransaction(@PathVariable Long id) {
         transactionService.deleteTransaction(id);
         return "redirect:/";
     }
 
     @PostMapping("/debts/add")
-    public String addDebt(@ModelAttribute Debt debt) {
-        debtService.saveDebt(debt);
+    public String addDebt(@ModelAttribute Debt debt, RedirectAttributes redirectAttributes) {
+        try {
+            debtService.saveDebt(debt);
+        } catch (IllegalArgumentException e) {
+            redirectAttributes.addFlashAttribute("currencyError", e.getMessage());
+        }
         return "redirect:/";
     }
 
-    @GetMapping("/debts/pay/{id}")
-    public String payDebt(@PathVariable Long id) {
-        debtService.payDebt(id);
+    // Faqat POST: GET havolani prefetch/qayta urinish ham chaqirardi.
+    // Kalit formaning yashirin maydonidan yoki Idempotency-Key sarlavhasidan (API mijozlari)
+    @PostMapping("/debts/pay/{id}")
+    public String payDebt(@PathVariable Long id,
+            @RequestParam(value = "idempotencyKey", required = false) String idempotencyKey,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyHeader,
+            RedirectAttributes redirectAttributes) {
+        String key = idempotencyKey != null ? idempotencyKey : idempotencyHeader;
+        // Noto'g'ri kalit - mijoz xatosi (400), valyuta xatosi emas
+        if (key != null && (key.isBlank() || key.length() > IdempotencyService.MAX_KEY_LENGTH)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Idempotency kaliti 1-" + IdempotencyService.MAX_KEY_LENGTH + " belgi bo'lishi kerak");
+        }
+        try {
+            debtService.payDebt(id, key);
+        } catch (MissingFxRateException e) {
+            // Qarz valyutasining bugungi kursi yo'q: to'lov (va idempotency kaliti) bekor qilinadi,
+            // qayta urinish mumkin
+            redirectAttributes.addFlashAttribute("currencyError", e.getMessage());
+        }
         return "redirect:/";
     }
 
-    @GetMapping("/debts/delete/{id}")
+    @PostMapping("/debts/delete/{id}")
     public String deleteDebt(@PathVariable Long id) {
         debtService.deleteDebt(id);
         return "redirect:/";
     }
 
+    // CSV eksport: javobga to'g'ridan-to'g'ri oqim bilan yoziladi (ixtiyoriy gzip)
     @GetMapping("/export/csv")
-    public void exportToCsv(HttpServletResponse response) throws IOException {
+    public void exportToCsv(ServletWebRequest webRequest, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        if (ConditionalGet.notModified(webRequest, dataVersionService.current())) {
+            return;
+        }
         response.setContentType("text/csv");
+        response.setCharacterEncoding("UTF-8");
         response.setHeader("Content-Disposition", "attachment; filename=transactions.csv");
-        response.getWriter().write(transactionService.generateCsvExport());
+
+        OutputStream out = response.getOutputStream();
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            // syncFlush: har bir flush siqilgan baytlarni ham darhol jo'natadi
+            out = new GZIPOutputStream(out, CSV_BUFFER_SIZE, true);
+        }
+
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8),
+                CSV_BUFFER_SIZE)) {
+            transactionService.writeCsvExport(writer);
+        }
+    }
+
+    // Ommaviy CSV import (bank ko'chirmalari, boshqa trackerlar)
+    @PostMapping("/import/csv")
+    public String importCsv(@RequestParam("file") MultipartFile file, RedirectAttributes redirectAttributes)
+            throws IOException {
+        try (InputStream input = file.getInputStream()) {
+            redirectAttributes.addFlashAttribute("importResult", importService.importCsv(input));
+        }
+        return "redirect:/";
     }
 
     @PostMapping("/limits/add")
-    public String addLimit(@ModelAttribute CategoryLimit categoryLimit) {
-        transactionService.saveCategoryLimit(categoryLimit);
+    public String addLimit(@ModelAttribute CategoryLimit categoryLimit, RedirectAttributes redirectAttributes) {
+        try {
+            transactionService.saveCategoryLimit(categoryLimit);
+        } catch (IllegalArgumentException e) {
+            redirectAttributes.addFlashAttribute("currencyError", e.getMessage());
+        }
         return "redirect:/";
     }
 
-    @GetMapping("/limits/delete/{id}")
+    @PostMapping("/limits/delete/{id}")
     public String deleteLimit(@PathVariable Long id) {
         transactionService.deleteCategoryLimit(id);
         return "redirect:/";
     }
-}
\ No newline at end of file
+
+    // Takrorlanuvchi tranzaksiyalar sahifasi
+    @GetMapping("/recurring")
+    public String recurring(Model model) {
+        model.addAttribute("rules", recurringRuleService.getRules());
+        model.addAttribute("currencies", CurrencyCode.values());
+        if (!model.containsAttribute("rule")) {
+            RecurringRule rule = new RecurringRule();
+            rule.setCurrency(currentUserProvider.getCurrentBaseCurrency());
+            model.addAttribute("rule", rule);
+        }
+        return "recurring";
+    }
+
+    // Tranzaksiyalar darhol emas, RecurringTransactionJob'ning keyingi ishga tushishida yaratiladi
+    @PostMapping("/recurring/add")
+    public String addRecurringRule(@ModelAttribute RecurringRule rule, RedirectAttributes redirectAttributes) {
+        try {
+            recurringRuleService.saveRule(rule);
+        } catch (IllegalArgumentException e) {
+            redirectAttributes.addFlashAttribute("recurringError", e.getMessage());
+            redirectAttributes.addFlashAttribute("rule", rule);
+        }
+        return "redirect:/recurring";
+    }
+
+    @PostMapping("/recurring/delete/{id}")
+    public String deleteRecurringRule(@PathVariable Long id) {
+        recurringRuleService.deleteRule(id);
+        return "redirect:/recurring";
+    }
+}
@@ -1,22 +1,24 @@
 package com.jorabek.finance_tracker.dto;
 
+import com.jorabek.finance_tracker.entity.Money;
+
 public class BudgetStatusDTO {
     private Long id;
     private String category;
-    private Double limitAmount;
-    private Double spentAmount;
-    private Double percentage;
+    private long limitAmount; // tiyinlarda
+    private long spentAmount; // tiyinlarda
+    private double percentage;
 
-    public BudgetStatusDTO(Long id, String category, Double limitAmount, Double spentAmount) {
+    public BudgetStatusDTO(Long id, String category, Long limitAmount, Long spentAmount) {
         this.id = id;
         this.category = category;
-        this.limitAmount = limitAmount;
-        this.spentAmount = spentAmount;
+        this.limitAmount = limitAmount != null ? limitAmount : 0L;
+        this.spentAmount = spentAmount != null ? spentAmount : 0L;
 
-        if (limitAmount == null || limitAmount == 0) {
-            this.percentage = (spentAmount > 0) ? 100.0 : 0.0;
+        if (this.limitAmount == 0) {
+            this.percentage = (this.spentAmount > 0) ? 100.0 : 0.0;
         } else {
-            this.percentage = (spentAmount / limitAmount) * 100;
+            this.percentage = (this.spentAmount * 100.0) / this.limitAmount;
         }
     }
 
@@ -28,15 +30,23 @@ public class BudgetStatusDTO {
         return category;
     }
 
-    public Double getLimitAmount() {
+    public Money getLimitAmount() {
+        return Money.ofMinor(limitAmount);
+    }
+
+    public Money getSpentAmount() {
+        return Money.ofMinor(spentAmount);
+    }
+
+    public long getLimitAmountMinor() {
         return limitAmount;
     }
 
-    public Double getSpentAmount() {
+    public long getSpentAmountMinor() {
         return spentAmount;
     }
 
-    public Double getPercentage() {
+    public double getPercentage() {
         return percentage;
     }
 
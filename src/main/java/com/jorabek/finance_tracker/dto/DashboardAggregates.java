@@ -0,0 +1,57 @@
+package com.jorabek.finance_tracker.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Dashboard CTE so'rovining hisoblangan natijasi (keshlanadi, shuning uchun o'zgarmas).
+// Summalar tiyinlarda; last7DaysStats - tayyor grafik qatorlari {"dd.MM", daromad, xarajat}
+public class DashboardAggregates {
+    private final LocalDate startDate;
+    private final long totalIncome;
+    private final long totalExpense;
+    private final long totalUnpaidDebts;
+    private final List<Object[]> expenseByCategory;
+    private final List<Object[]> last7DaysStats;
+    private final List<BudgetStatusDTO> budgetStatuses;
+
+    public DashboardAggregates(LocalDate startDate, long totalIncome, long totalExpense, long totalUnpaidDebts,
+            List<Object[]> expenseByCategory, List<Object[]> last7DaysStats,
+            List<BudgetStatusDTO> budgetStatuses) {
+        this.startDate = startDate;
+        this.totalIncome = totalIncome;
+        this.totalExpense = totalExpense;
+        this.totalUnpaidDebts = totalUnpaidDebts;
+        this.expenseByCategory = List.copyOf(expenseByCategory);
+        this.last7DaysStats = List.copyOf(last7DaysStats);
+        this.budgetStatuses = List.copyOf(budgetStatuses);
+    }
+
+    // 7 kunlik oynaning birinchi kuni: kun almashganda keshdagi qiymat yaroqsiz
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public long getTotalIncome() {
+        return totalIncome;
+    }
+
+    public long getTotalExpense() {
+        return totalExpense;
+    }
+
+    public long getTotalUnpaidDebts() {
+        return totalUnpaidDebts;
+    }
+
+    public List<Object[]> getExpenseByCategory() {
+        return expenseByCategory;
+    }
+
+    public List<Object[]> getLast7DaysStats() {
+        return last7DaysStats;
+    }
+
+    public List<BudgetStatusDTO> getBudgetStatuses() {
+        return budgetStatuses;
+    }
+}
@@ -0,0 +1,69 @@
+package com.jorabek.finance_tracker.dto;
+
+import com.jorabek.finance_tracker.entity.Money;
+
+import java.util.List;
+
+// Dashboard uchun bitta so'rovda yig'ilgan ma'lumotlar
+public class DashboardSnapshot {
+    private final TransactionPage transactions;
+    private final List<DebtDTO> debts;
+    private final long totalIncome; // tiyinlarda
+    private final long totalExpense;
+    private final long totalUnpaidDebts;
+    private final List<Object[]> expenseByCategory;
+    private final List<Object[]> last7DaysStats;
+    private final List<BudgetStatusDTO> budgetStatuses;
+
+    public DashboardSnapshot(TransactionPage transactions, List<DebtDTO> debts,
+            long totalIncome, long totalExpense, long totalUnpaidDebts,
+            List<Object[]> expenseByCategory, List<Object[]> last7DaysStats,
+            List<BudgetStatusDTO> budgetStatuses) {
+        this.transactions = transactions;
+        this.debts = debts;
+        this.totalIncome = totalIncome;
+        this.totalExpense = totalExpense;
+        this.totalUnpaidDebts = totalUnpaidDebts;
+        this.expenseByCategory = expenseByCategory;
+        this.last7DaysStats = last7DaysStats;
+        this.budgetStatuses = budgetStatuses;
+    }
+
+    // Jadvalning joriy (keyset) sahifasi
+    public TransactionPage getTransactions() {
+        return transactions;
+    }
+
+    public List<DebtDTO> getDebts() {
+        return debts;
+    }
+
+    public Money getTotalIncome() {
+        return Money.ofMinor(totalIncome);
+    }
+
+    public Money getTotalExpense() {
+        return Money.ofMinor(totalExpense);
+    }
+
+    // Balans (Daromad - Xarajat)
+    public Money getBalance() {
+        return Money.ofMinor(totalIncome - totalExpense);
+    }
+
+    public Money getTotalUnpaidDebts() {
+        return Money.ofMinor(totalUnpaidDebts);
+    }
+
+    public List<Object[]> getExpenseByCategory() {
+        return expenseByCategory;
+    }
+
+    public List<Object[]> getLast7DaysStats() {
+        return last7DaysStats;
+    }
+
+    public List<BudgetStatusDTO> getBudgetStatuses() {
+        return budgetStatuses;
+    }
+}
@@ -0,0 +1,22 @@
+package com.jorabek.finance_tracker.dto;
+
+// Foydalanuvchi ma'lumotlarining joriy versiyasi (shartli GET uchun).
+// tag - ETag asosi: foydalanuvchi, data_version va bugungi sana (standart oraliqlar "bugun"ga bog'liq);
+// lastModified - epoch millisekund
+public class DataVersion {
+    private final String tag;
+    private final long lastModified;
+
+    public DataVersion(String tag, long lastModified) {
+        this.tag = tag;
+        this.lastModified = lastModified;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+
+    public long getLastModified() {
+        return lastModified;
+    }
+}
@@ -0,0 +1,71 @@
+package com.jorabek.finance_tracker.dto;
+
+import com.jorabek.finance_tracker.entity.CurrencyCode;
+import com.jorabek.finance_tracker.entity.DebtStatus;
+import com.jorabek.finance_tracker.entity.Money;
+
+import java.time.LocalDate;
+
+// Qarzning faqat o'qish uchun proyeksiyasi (managed entity emas)
+public class DebtDTO {
+    private final Long id;
+    private final String lenderName;
+    private final long amount; // currency valyutasida, minor units
+    private final CurrencyCode currency;
+    private final long baseAmount; // egasining asosiy valyutasida
+    private final LocalDate loanDate;
+    private final LocalDate returnDate;
+    private final DebtStatus status;
+
+    public DebtDTO(Long id, String lenderName, Long amount, CurrencyCode currency, Long baseAmount,
+            LocalDate loanDate, LocalDate returnDate, DebtStatus status) {
+        this.id = id;
+        this.lenderName = lenderName;
+        this.amount = amount;
+        this.currency = currency;
+        this.baseAmount = baseAmount;
+        this.loanDate = loanDate;
+        this.returnDate = returnDate;
+        this.status = status;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getLenderName() {
+        return lenderName;
+    }
+
+    public Money getAmount() {
+        return Money.ofMinor(amount);
+    }
+
+    public long getAmountMinor() {
+        return amount;
+    }
+
+    public CurrencyCode getCurrency() {
+        return currency;
+    }
+
+    public Money getBaseAmount() {
+        return Money.ofMinor(baseAmount);
+    }
+
+    public long getBaseAmountMinor() {
+        return baseAmount;
+    }
+
+    public LocalDate getLoanDate() {
+        return loanDate;
+    }
+
+    public LocalDate getReturnDate() {
+        return returnDate;
+    }
+
+    public DebtStatus getStatus() {
+        return status;
+    }
+}
@@ -0,0 +1,43 @@
+package com.jorabek.finance_tracker.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// CSV importi natijasi: nechta qator yozildi, nechtasi rad etildi va xatolar (birinchi N tasi)
+public class ImportResult {
+
+    // Sahifada ko'rsatiladigan xatolar soni cheklangan
+    public static final int MAX_REPORTED_ERRORS = 100;
+
+    private long importedCount;
+    private long rejectedCount;
+    private final List<String> errors = new ArrayList<>();
+
+    public void addImported(long count) {
+        importedCount += count;
+    }
+
+    public void addError(String error) {
+        addErrors(1, error);
+    }
+
+    // Bir nechta qatorga tegishli bitta xato (masalan DB xatosi butun bo'lakda)
+    public void addErrors(long rows, String error) {
+        rejectedCount += rows;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(error);
+        }
+    }
+
+    public long getImportedCount() {
+        return importedCount;
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+}
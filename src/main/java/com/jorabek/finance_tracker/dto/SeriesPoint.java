@@ -0,0 +1,38 @@
+package com.jorabek.finance_tracker.dto;
+
+import com.jorabek.finance_tracker.entity.Money;
+
+import java.time.LocalDate;
+
+// Vaqt qatorining bitta nuqtasi: bucket - kun/hafta (dushanba)/oy boshlanish sanasi
+public class SeriesPoint {
+    private final LocalDate bucket;
+    private final long income; // tiyinlarda
+    private final long expense;
+
+    public SeriesPoint(LocalDate bucket, long income, long expense) {
+        this.bucket = bucket;
+        this.income = income;
+        this.expense = expense;
+    }
+
+    public LocalDate getBucket() {
+        return bucket;
+    }
+
+    public Money getIncome() {
+        return Money.ofMinor(income);
+    }
+
+    public Money getExpense() {
+        return Money.ofMinor(expense);
+    }
+
+    public long getIncomeMinor() {
+        return income;
+    }
+
+    public long getExpenseMinor() {
+        return expense;
+    }
+}
@@ -0,0 +1,33 @@
+package com.jorabek.finance_tracker.dto;
+
+import com.jorabek.finance_tracker.entity.Money;
+
+// Foydalanuvchining umumiy ko'rsatkichlari (ledgerdan yoki xom jadvallardan)
+public class SummaryDTO {
+    private final Money totalIncome;
+    private final Money totalExpense;
+    private final Money totalUnpaidDebts;
+
+    public SummaryDTO(Money totalIncome, Money totalExpense, Money totalUnpaidDebts) {
+        this.totalIncome = totalIncome;
+        this.totalExpense = totalExpense;
+        this.totalUnpaidDebts = totalUnpaidDebts;
+    }
+
+    public Money getTotalIncome() {
+        return totalIncome;
+    }
+
+    public Money getTotalExpense() {
+        return totalExpense;
+    }
+
+    // Balans (Daromad - Xarajat)
+    public Money getBalance() {
+        return totalIncome.minus(totalExpense);
+    }
+
+    public Money getTotalUnpaidDebts() {
+        return totalUnpaidDebts;
+    }
+}
@@ -0,0 +1,71 @@
+package com.jorabek.finance_tracker.dto;
+
+import com.jorabek.finance_tracker.entity.CurrencyCode;
+import com.jorabek.finance_tracker.entity.Money;
+import com.jorabek.finance_tracker.entity.TransactionType;
+
+import java.time.LocalDate;
+
+// Tranzaksiyaning faqat o'qish uchun proyeksiyasi (managed entity emas)
+public class TransactionDTO {
+    private final Long id;
+    private final LocalDate date;
+    private final String description;
+    private final TransactionType type;
+    private final String category;
+    private final long amount; // currency valyutasida, minor units
+    private final CurrencyCode currency;
+    private final long baseAmount; // egasining asosiy valyutasida
+
+    public TransactionDTO(Long id, LocalDate date, String description, TransactionType type, String category,
+            Long amount, CurrencyCode currency, Long baseAmount) {
+        this.id = id;
+        this.date = date;
+        this.description = description;
+        this.type = type;
+        this.category = category;
+        this.amount = amount;
+        this.currency = currency;
+        this.baseAmount = baseAmount;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public TransactionType getType() {
+        return type;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public Money getAmount() {
+        return Money.ofMinor(amount);
+    }
+
+    public long getAmountMinor() {
+        return amount;
+    }
+
+    public CurrencyCode getCurrency() {
+        return currency;
+    }
+
+    public Money getBaseAmount() {
+        return Money.ofMinor(baseAmount);
+    }
+
+    public long getBaseAmountMinor() {
+        return baseAmount;
+    }
+}
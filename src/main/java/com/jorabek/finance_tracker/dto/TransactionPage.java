@@ -0,0 +1,39 @@
+package com.jorabek.finance_tracker.dto;
+
+import java.util.List;
+
+// Keyset (cursor) sahifasi: elementlar (proyeksiyalar) + keyingi sahifa kursori
+public class TransactionPage {
+    private final List<TransactionDTO> items;
+    private final String sortBy;
+    private final String direction;
+    private final String nextCursor;
+
+    public TransactionPage(List<TransactionDTO> items, String sortBy, String direction, String nextCursor) {
+        this.items = items;
+        this.sortBy = sortBy;
+        this.direction = direction;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<TransactionDTO> getItems() {
+        return items;
+    }
+
+    public String getSortBy() {
+        return sortBy;
+    }
+
+    public String getDirection() {
+        return direction;
+    }
+
+    // Oxirgi sahifada null
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
@@ -1,7 +1,12 @@
 package com.jorabek.finance_tracker.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
+// Kam o'zgaradi, ko'p o'qiladi: second-level cache (region sozlamalari - application.conf)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Entity
 @Table(name = "category_limits", uniqueConstraints = {
         @UniqueConstraint(columnNames = { "user_id", "category" })
@@ -16,7 +21,16 @@ public class CategoryLimit {
     private String category;
 
     @Column(nullable = false)
-    private Double limitAmount;
+    private long limitAmount; // kiritilgan valyutada, minor units
+
+    // Kiritilgan valyuta (amount shu valyutada)
+    @Column(nullable = false, length = 3)
+    @Convert(converter = CurrencyCodeConverter.class)
+    private CurrencyCode currency = CurrencyCode.UZS;
+
+    // Asosiy valyutada (saqlangan kun kursi bo'yicha); budjet holati shu bilan solishtiriladi
+    @Column(name = "base_limit_amount", nullable = false)
+    private long baseLimitAmount;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
@@ -27,9 +41,9 @@ public class CategoryLimit {
     }
 
     // Parameterized Constructor
-    public CategoryLimit(String category, Double limitAmount, User user) {
+    public CategoryLimit(String category, Money limitAmount, User user) {
         this.category = category;
-        this.limitAmount = limitAmount;
+        this.limitAmount = limitAmount.getMinorUnits();
         this.user = user;
     }
 
@@ -42,10 +56,26 @@ public class CategoryLimit {
         return category;
     }
 
-    public Double getLimitAmount() {
+    public Money getLimitAmount() {
+        return Money.ofMinor(limitAmount);
+    }
+
+    public long getLimitAmountMinor() {
         return limitAmount;
     }
 
+    public CurrencyCode getCurrency() {
+        return currency;
+    }
+
+    public Money getBaseLimitAmount() {
+        return Money.ofMinor(baseLimitAmount);
+    }
+
+    public long getBaseLimitAmountMinor() {
+        return baseLimitAmount;
+    }
+
     public User getUser() {
         return user;
     }
@@ -59,8 +89,16 @@ public class CategoryLimit {
         this.category = category;
     }
 
-    public void setLimitAmount(Double limitAmount) {
-        this.limitAmount = limitAmount;
+    public void setLimitAmount(Money limitAmount) {
+        this.limitAmount = limitAmount != null ? limitAmount.getMinorUnits() : 0L;
+    }
+
+    public void setCurrency(CurrencyCode currency) {
+        this.currency = currency;
+    }
+
+    public void setBaseLimitAmount(Money baseLimitAmount) {
+        this.baseLimitAmount = baseLimitAmount != null ? baseLimitAmount.getMinorUnits() : 0L;
     }
 
     public void setUser(User user) {
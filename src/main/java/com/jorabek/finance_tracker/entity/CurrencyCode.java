@@ -0,0 +1,47 @@
+package com.jorabek.finance_tracker.entity;
+
+// Qo'llab-quvvatlanadigan valyutalar. Bazada ISO 4217 kodi (VARCHAR(3)) sifatida saqlanadi
+// (CurrencyCodeConverter). Uchchalasida ham 2 xonali kasr: summa doim Money minor units (tiyin/sent).
+// UZS - kurslar jadvalining tayanch valyutasi: fx_rates.rate = 1 birlik valyuta necha so'm
+public enum CurrencyCode {
+
+    UZS("so'm"),
+    USD("$"),
+    EUR("€");
+
+    private final String symbol;
+
+    CurrencyCode(String symbol) {
+        this.symbol = symbol;
+    }
+
+    public String getCode() {
+        return name();
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public static CurrencyCode fromCode(String code) {
+        for (CurrencyCode currency : values()) {
+            if (currency.name().equals(code)) {
+                return currency;
+            }
+        }
+        throw new IllegalArgumentException("Noma'lum valyuta kodi: " + code);
+    }
+
+    // "usd", " USD " - hammasi bir xil qabul qilinadi
+    public static CurrencyCode fromValue(String value) {
+        if (value != null) {
+            String trimmed = value.trim();
+            for (CurrencyCode currency : values()) {
+                if (currency.name().equalsIgnoreCase(trimmed)) {
+                    return currency;
+                }
+            }
+        }
+        throw new IllegalArgumentException("valyuta UZS, USD yoki EUR bo'lishi kerak: " + value);
+    }
+}
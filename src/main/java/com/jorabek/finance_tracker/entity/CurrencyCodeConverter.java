@@ -0,0 +1,18 @@
+package com.jorabek.finance_tracker.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+@Converter(autoApply = true)
+public class CurrencyCodeConverter implements AttributeConverter<CurrencyCode, String> {
+
+    @Override
+    public String convertToDatabaseColumn(CurrencyCode currency) {
+        return currency == null ? null : currency.getCode();
+    }
+
+    @Override
+    public CurrencyCode convertToEntityAttribute(String code) {
+        return code == null ? null : CurrencyCode.fromCode(code);
+    }
+}
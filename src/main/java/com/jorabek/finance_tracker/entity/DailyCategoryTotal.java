@@ -0,0 +1,113 @@
+package com.jorabek.finance_tracker.entity;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+// Kunlik yig'ma: (foydalanuvchi, kun, kategoriya, tur) -> summa, soni.
+// Tranzaksiya qo'shilganda/o'chirilganda shu DB tranzaksiyasi ichida yangilanadi (LedgerService).
+// type - TransactionType kodi (1 = Income, 2 = Expense): kalit ustunlariga konverter qo'llanmaydi
+@Entity
+@Table(name = "daily_category_totals")
+@IdClass(DailyCategoryTotal.Key.class)
+public class DailyCategoryTotal {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Id
+    private LocalDate day;
+
+    @Id
+    private String category;
+
+    @Id
+    private short type;
+
+    @Column(nullable = false)
+    private long totalAmount; // tiyinlarda
+
+    @Column(nullable = false)
+    private long txCount;
+
+    // Default Constructor (JPA uchun zarur)
+    public DailyCategoryTotal() {
+    }
+
+    // Getters
+    public Long getUserId() {
+        return userId;
+    }
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public TransactionType getType() {
+        return TransactionType.fromCode(type);
+    }
+
+    public Money getTotalAmount() {
+        return Money.ofMinor(totalAmount);
+    }
+
+    public long getTxCount() {
+        return txCount;
+    }
+
+    // Composite primary key
+    public static class Key implements Serializable {
+        private Long userId;
+        private LocalDate day;
+        private String category;
+        private short type;
+
+        public Key() {
+        }
+
+        public Key(Long userId, LocalDate day, String category, short type) {
+            this.userId = userId;
+            this.day = day;
+            this.category = category;
+            this.type = type;
+        }
+
+        public Long getUserId() {
+            return userId;
+        }
+
+        public LocalDate getDay() {
+            return day;
+        }
+
+        public String getCategory() {
+            return category;
+        }
+
+        public short getType() {
+            return type;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof Key key))
+                return false;
+            return type == key.type && Objects.equals(userId, key.userId) && Objects.equals(day, key.day)
+                    && Objects.equals(category, key.category);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, day, category, type);
+        }
+    }
+}
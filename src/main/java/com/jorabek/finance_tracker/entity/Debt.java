@@ -15,7 +15,16 @@ public class Debt {
     private String lenderName;
 
     @Column(nullable = false)
-    private Double amount;
+    private long amount; // kiritilgan valyutada, minor units
+
+    // Kiritilgan valyuta (amount shu valyutada)
+    @Column(nullable = false, length = 3)
+    @Convert(converter = CurrencyCodeConverter.class)
+    private CurrencyCode currency = CurrencyCode.UZS;
+
+    // Egasining asosiy valyutasida (loanDate kursi bo'yicha); ledgerdagi qarz yig'indisi shu ustundan
+    @Column(name = "base_amount", nullable = false)
+    private long baseAmount;
 
     @Column(nullable = false)
     private LocalDate loanDate;
@@ -24,20 +33,25 @@ public class Debt {
     private LocalDate returnDate;
 
     @Column(nullable = false)
-    private String status; // "Unpaid" or "Paid"
+    @Convert(converter = DebtStatusConverter.class)
+    private DebtStatus status; // 1 = Unpaid, 2 = Paid
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
+    // Optimistik qulf: eskirgan nusxani saqlash OptimisticLockException beradi
+    @Version
+    private Long version;
+
     // Default Constructor (JPA uchun zarur)
     public Debt() {
     }
 
     // Parametrli Constructor
-    public Debt(String lenderName, Double amount, LocalDate loanDate, LocalDate returnDate, String status) {
+    public Debt(String lenderName, Money amount, LocalDate loanDate, LocalDate returnDate, DebtStatus status) {
         this.lenderName = lenderName;
-        this.amount = amount;
+        this.amount = amount.getMinorUnits();
         this.loanDate = loanDate;
         this.returnDate = returnDate;
         this.status = status;
@@ -52,10 +66,26 @@ public class Debt {
         return lenderName;
     }
 
-    public Double getAmount() {
+    public Money getAmount() {
+        return Money.ofMinor(amount);
+    }
+
+    public long getAmountMinor() {
         return amount;
     }
 
+    public CurrencyCode getCurrency() {
+        return currency;
+    }
+
+    public Money getBaseAmount() {
+        return Money.ofMinor(baseAmount);
+    }
+
+    public long getBaseAmountMinor() {
+        return baseAmount;
+    }
+
     public LocalDate getLoanDate() {
         return loanDate;
     }
@@ -64,10 +94,14 @@ public class Debt {
         return returnDate;
     }
 
-    public String getStatus() {
+    public DebtStatus getStatus() {
         return status;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     // Setters
     public void setId(Long id) {
         this.id = id;
@@ -77,8 +111,16 @@ public class Debt {
         this.lenderName = lenderName;
     }
 
-    public void setAmount(Double amount) {
-        this.amount = amount;
+    public void setAmount(Money amount) {
+        this.amount = amount != null ? amount.getMinorUnits() : 0L;
+    }
+
+    public void setCurrency(CurrencyCode currency) {
+        this.currency = currency;
+    }
+
+    public void setBaseAmount(Money baseAmount) {
+        this.baseAmount = baseAmount != null ? baseAmount.getMinorUnits() : 0L;
     }
 
     public void setLoanDate(LocalDate loanDate) {
@@ -89,7 +131,7 @@ public class Debt {
         this.returnDate = returnDate;
     }
 
-    public void setStatus(String status) {
+    public void setStatus(DebtStatus status) {
         this.status = status;
     }
 
@@ -109,7 +151,7 @@ public class Debt {
                 ", amount=" + amount +
                 ", loanDate=" + loanDate +
                 ", returnDate=" + returnDate +
-                ", status='" + status + '\'' +
+                ", status=" + status +
                 '}';
     }
 }
@@ -0,0 +1,53 @@
+package com.jorabek.finance_tracker.entity;
+
+// Bazada SMALLINT kod sifatida saqlanadi (DebtStatusConverter)
+public enum DebtStatus {
+
+    UNPAID((short) 1, "Unpaid"),
+    PAID((short) 2, "Paid");
+
+    private final short code;
+    private final String label;
+
+    DebtStatus(short code, String label) {
+        this.code = code;
+        this.label = label;
+    }
+
+    public short getCode() {
+        return code;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public boolean isUnpaid() {
+        return this == UNPAID;
+    }
+
+    public boolean isPaid() {
+        return this == PAID;
+    }
+
+    public static DebtStatus fromCode(short code) {
+        for (DebtStatus status : values()) {
+            if (status.code == code) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("Noma'lum qarz holati kodi: " + code);
+    }
+
+    public static DebtStatus fromValue(String value) {
+        if (value != null) {
+            String trimmed = value.trim();
+            for (DebtStatus status : values()) {
+                if (status.label.equalsIgnoreCase(trimmed)) {
+                    return status;
+                }
+            }
+        }
+        throw new IllegalArgumentException("holat Unpaid yoki Paid bo'lishi kerak: " + value);
+    }
+}
@@ -0,0 +1,18 @@
+package com.jorabek.finance_tracker.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+@Converter(autoApply = true)
+public class DebtStatusConverter implements AttributeConverter<DebtStatus, Short> {
+
+    @Override
+    public Short convertToDatabaseColumn(DebtStatus status) {
+        return status == null ? null : status.getCode();
+    }
+
+    @Override
+    public DebtStatus convertToEntityAttribute(Short code) {
+        return code == null ? null : DebtStatus.fromCode(code);
+    }
+}
@@ -0,0 +1,88 @@
+package com.jorabek.finance_tracker.entity;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// Pul summasi: butun son ko'rinishidagi tiyinlar (minor units, 1 so'm = 100).
+// Bazada BIGINT sifatida saqlanadi; yig'indilar primitive long ustida, yaxlitlash xatosiz.
+public final class Money implements Comparable<Money> {
+
+    public static final int SCALE = 2;
+    public static final Money ZERO = new Money(0L);
+
+    private final long minorUnits;
+
+    private Money(long minorUnits) {
+        this.minorUnits = minorUnits;
+    }
+
+    public static Money ofMinor(long minorUnits) {
+        return minorUnits == 0L ? ZERO : new Money(minorUnits);
+    }
+
+    // 12.345 -> 12.35 (HALF_UP); juda katta qiymatlarda ArithmeticException
+    public static Money of(BigDecimal amount) {
+        return ofMinor(amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+    }
+
+    // "1 000 000.50" kabi guruhlangan yozuvni ham qabul qiladi
+    public static Money parse(String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("summa bo'sh");
+        }
+        String normalized = value.replace(" ", "").replace("\u00A0", "").trim();
+        if (normalized.isEmpty()) {
+            throw new IllegalArgumentException("summa bo'sh");
+        }
+        try {
+            return of(new BigDecimal(normalized));
+        } catch (NumberFormatException | ArithmeticException e) {
+            throw new IllegalArgumentException("noto'g'ri summa: " + value);
+        }
+    }
+
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+
+    public BigDecimal toDecimal() {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    public Money plus(Money other) {
+        return ofMinor(Math.addExact(minorUnits, other.minorUnits));
+    }
+
+    public Money minus(Money other) {
+        return ofMinor(Math.subtractExact(minorUnits, other.minorUnits));
+    }
+
+    public int signum() {
+        return Long.signum(minorUnits);
+    }
+
+    public boolean isPositive() {
+        return minorUnits > 0;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof Money other && minorUnits == other.minorUnits);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(minorUnits);
+    }
+
+    // "1234.50" (guruhlanmagan, CSV va forma uchun)
+    @Override
+    public String toString() {
+        return toDecimal().toPlainString();
+    }
+}
@@ -0,0 +1,89 @@
+package com.jorabek.finance_tracker.entity;
+
+import org.springframework.scheduling.support.CronExpression;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+
+// Takrorlanish davri; bazada SMALLINT kod sifatida saqlanadi (RecurrenceFrequencyConverter)
+public enum RecurrenceFrequency {
+
+    DAILY((short) 1, "Daily"),
+    WEEKLY((short) 2, "Weekly"),
+    MONTHLY((short) 3, "Monthly"),
+    CUSTOM((short) 4, "Custom");
+
+    private final short code;
+    private final String label;
+
+    RecurrenceFrequency(short code, String label) {
+        this.code = code;
+        this.label = label;
+    }
+
+    public short getCode() {
+        return code;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    // current'dan keyingi (qat'iy katta) sana; null - boshqa sana yo'q (cron hech qachon mos kelmaydi).
+    // Oylik: har doim start sanasidan hisoblanadi - 31-yanvar -> 28(29)-fevral -> 31-mart (kun "siljimaydi").
+    // CUSTOM: cron'ning faqat sana maydonlari ahamiyatli (vaqti qanday bo'lsa ham keyingi kun olinadi)
+    public LocalDate next(LocalDate startDate, LocalDate current, int interval, CronExpression cron) {
+        switch (this) {
+            case DAILY:
+                return current.plusDays(interval);
+            case WEEKLY:
+                return current.plusWeeks(interval);
+            case MONTHLY: {
+                long months = ChronoUnit.MONTHS.between(startDate.withDayOfMonth(1), current.withDayOfMonth(1));
+                months -= months % interval;
+                LocalDate candidate = startDate.plusMonths(months);
+                while (!candidate.isAfter(current)) {
+                    months += interval;
+                    candidate = startDate.plusMonths(months);
+                }
+                return candidate;
+            }
+            default: {
+                LocalDateTime next = cron.next(LocalDateTime.of(current, LocalTime.MAX));
+                return next != null ? next.toLocalDate() : null;
+            }
+        }
+    }
+
+    // Birinchi sana: start o'zi (CUSTOM'da - start yoki undan keyingi birinchi mos kun; null - yo'q)
+    public LocalDate first(LocalDate startDate, CronExpression cron) {
+        if (this != CUSTOM) {
+            return startDate;
+        }
+        return next(startDate, startDate.minusDays(1), 1, cron);
+    }
+
+    public static RecurrenceFrequency fromCode(short code) {
+        for (RecurrenceFrequency frequency : values()) {
+            if (frequency.code == code) {
+                return frequency;
+            }
+        }
+        throw new IllegalArgumentException("Noma'lum takrorlanish kodi: " + code);
+    }
+
+    // "Monthly", "monthly", "MONTHLY" - hammasi bir xil qabul qilinadi
+    public static RecurrenceFrequency fromValue(String value) {
+        if (value != null) {
+            String trimmed = value.trim();
+            for (RecurrenceFrequency frequency : values()) {
+                if (frequency.label.equalsIgnoreCase(trimmed)) {
+                    return frequency;
+                }
+            }
+        }
+        throw new IllegalArgumentException("takrorlanish Daily, Weekly, Monthly yoki Custom bo'lishi kerak: " + value);
+    }
+}
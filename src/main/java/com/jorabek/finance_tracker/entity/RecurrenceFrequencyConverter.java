@@ -0,0 +1,18 @@
+package com.jorabek.finance_tracker.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+@Converter(autoApply = true)
+public class RecurrenceFrequencyConverter implements AttributeConverter<RecurrenceFrequency, Short> {
+
+    @Override
+    public Short convertToDatabaseColumn(RecurrenceFrequency frequency) {
+        return frequency == null ? null : frequency.getCode();
+    }
+
+    @Override
+    public RecurrenceFrequency convertToEntityAttribute(Short code) {
+        return code == null ? null : RecurrenceFrequency.fromCode(code);
+    }
+}
@@ -0,0 +1,177 @@
+package com.jorabek.finance_tracker.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+// Takrorlanuvchi tranzaksiya qoidasi (ijara, maosh, obunalar).
+// Tranzaksiyalarni RecurringTransactionJob yaratadi: nextRunDate - hali yaratilmagan eng erta sana
+@Entity
+@Table(name = "recurring_rules") // Indekslar: db/migration/V9__recurring_rules.sql
+public class RecurringRule {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String description;
+
+    @Column(nullable = false)
+    @Convert(converter = TransactionTypeConverter.class)
+    private TransactionType type; // 1 = Income, 2 = Expense
+
+    @Column(nullable = false)
+    private String category;
+
+    @Column(nullable = false)
+    private long amount; // currency valyutasida, minor units
+
+    // Har bir tranzaksiya o'z sanasi kursi bilan asosiy valyutaga o'giriladi
+    @Column(nullable = false, length = 3)
+    @Convert(converter = CurrencyCodeConverter.class)
+    private CurrencyCode currency = CurrencyCode.UZS;
+
+    @Column(nullable = false)
+    @Convert(converter = RecurrenceFrequencyConverter.class)
+    private RecurrenceFrequency frequency; // 1 = Daily, 2 = Weekly, 3 = Monthly, 4 = Custom
+
+    @Column(name = "interval_count", nullable = false)
+    private int interval = 1;
+
+    // Faqat CUSTOM uchun: Spring cron (6 maydon), masalan "0 0 0 1,15 * *"
+    @Column(length = 100)
+    private String cron;
+
+    @Column(nullable = false)
+    private LocalDate startDate;
+
+    private LocalDate endDate;
+
+    @Column(nullable = false)
+    private LocalDate nextRunDate;
+
+    @Column(nullable = false)
+    private boolean active = true;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    // Default Constructor (JPA uchun zarur)
+    public RecurringRule() {
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public TransactionType getType() {
+        return type;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public Money getAmount() {
+        return Money.ofMinor(amount);
+    }
+
+    public CurrencyCode getCurrency() {
+        return currency;
+    }
+
+    public RecurrenceFrequency getFrequency() {
+        return frequency;
+    }
+
+    public int getInterval() {
+        return interval;
+    }
+
+    public String getCron() {
+        return cron;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public LocalDate getNextRunDate() {
+        return nextRunDate;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    // Setters
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public void setType(TransactionType type) {
+        this.type = type;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public void setAmount(Money amount) {
+        this.amount = amount != null ? amount.getMinorUnits() : 0L;
+    }
+
+    public void setCurrency(CurrencyCode currency) {
+        this.currency = currency;
+    }
+
+    public void setFrequency(RecurrenceFrequency frequency) {
+        this.frequency = frequency;
+    }
+
+    public void setInterval(int interval) {
+        this.interval = interval;
+    }
+
+    public void setCron(String cron) {
+        this.cron = cron;
+    }
+
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
+    }
+
+    public void setEndDate(LocalDate endDate) {
+        this.endDate = endDate;
+    }
+
+    public void setNextRunDate(LocalDate nextRunDate) {
+        this.nextRunDate = nextRunDate;
+    }
+
+    public void setActive(boolean active) {
+        this.active = active;
+    }
+
+    public void setUser(User user) {
+        this.user = user;
+    }
+}
@@ -4,7 +4,7 @@ import jakarta.persistence.*;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions") // Indekslar: db/migration/V2__query_indexes.sql
 public class Transaction {
 
     @Id
@@ -15,10 +15,20 @@ public class Transaction {
     private String description;
 
     @Column(nullable = false)
-    private Double amount;
+    private long amount; // kiritilgan valyutada, minor units
+
+    // Kiritilgan valyuta (amount shu valyutada)
+    @Column(nullable = false, length = 3)
+    @Convert(converter = CurrencyCodeConverter.class)
+    private CurrencyCode currency = CurrencyCode.UZS;
+
+    // Egasining asosiy valyutasida (sana kursi bo'yicha); barcha yig'malar shu ustundan
+    @Column(name = "base_amount", nullable = false)
+    private long baseAmount;
 
     @Column(nullable = false)
-    private String type; // "Income" or "Expense"
+    @Convert(converter = TransactionTypeConverter.class)
+    private TransactionType type; // 1 = Income, 2 = Expense
 
     @Column(nullable = false)
     private String category;
@@ -35,9 +45,9 @@ public class Transaction {
     }
 
     // Parametrli Constructor
-    public Transaction(String description, Double amount, String type, String category, LocalDate date) {
+    public Transaction(String description, Money amount, TransactionType type, String category, LocalDate date) {
         this.description = description;
-        this.amount = amount;
+        this.amount = amount.getMinorUnits();
         this.type = type;
         this.category = category;
         this.date = date;
@@ -52,11 +62,27 @@ public class Transaction {
         return description;
     }
 
-    public Double getAmount() {
+    public Money getAmount() {
+        return Money.ofMinor(amount);
+    }
+
+    public long getAmountMinor() {
         return amount;
     }
 
-    public String getType() {
+    public CurrencyCode getCurrency() {
+        return currency;
+    }
+
+    public Money getBaseAmount() {
+        return Money.ofMinor(baseAmount);
+    }
+
+    public long getBaseAmountMinor() {
+        return baseAmount;
+    }
+
+    public TransactionType getType() {
         return type;
     }
 
@@ -77,11 +103,19 @@ public class Transaction {
         this.description = description;
     }
 
-    public void setAmount(Double amount) {
-        this.amount = amount;
+    public void setAmount(Money amount) {
+        this.amount = amount != null ? amount.getMinorUnits() : 0L;
+    }
+
+    public void setCurrency(CurrencyCode currency) {
+        this.currency = currency;
+    }
+
+    public void setBaseAmount(Money baseAmount) {
+        this.baseAmount = baseAmount != null ? baseAmount.getMinorUnits() : 0L;
     }
 
-    public void setType(String type) {
+    public void setType(TransactionType type) {
         this.type = type;
     }
 
@@ -107,7 +141,9 @@ public class Transaction {
                 "id=" + id +
                 ", description='" + description + '\'' +
                 ", amount=" + amount +
-                ", type='" + type + '\'' +
+                ", currency=" + currency +
+                ", baseAmount=" + baseAmount +
+                ", type=" + type +
                 ", category='" + category + '\'' +
                 ", date=" + date +
                 '}';
@@ -0,0 +1,54 @@
+package com.jorabek.finance_tracker.entity;
+
+// Bazada SMALLINT kod sifatida saqlanadi (TransactionTypeConverter)
+public enum TransactionType {
+
+    INCOME((short) 1, "Income"),
+    EXPENSE((short) 2, "Expense");
+
+    private final short code;
+    private final String label;
+
+    TransactionType(short code, String label) {
+        this.code = code;
+        this.label = label;
+    }
+
+    public short getCode() {
+        return code;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public boolean isIncome() {
+        return this == INCOME;
+    }
+
+    public boolean isExpense() {
+        return this == EXPENSE;
+    }
+
+    public static TransactionType fromCode(short code) {
+        for (TransactionType type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Noma'lum tranzaksiya turi kodi: " + code);
+    }
+
+    // "Income", "income", "INCOME" - hammasi bir xil qabul qilinadi
+    public static TransactionType fromValue(String value) {
+        if (value != null) {
+            String trimmed = value.trim();
+            for (TransactionType type : values()) {
+                if (type.label.equalsIgnoreCase(trimmed)) {
+                    return type;
+                }
+            }
+        }
+        throw new IllegalArgumentException("tur Income yoki Expense bo'lishi kerak: " + value);
+    }
+}
@@ -0,0 +1,18 @@
+package com.jorabek.finance_tracker.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+@Converter(autoApply = true)
+public class TransactionTypeConverter implements AttributeConverter<TransactionType, Short> {
+
+    @Override
+    public Short convertToDatabaseColumn(TransactionType type) {
+        return type == null ? null : type.getCode();
+    }
+
+    @Override
+    public TransactionType convertToEntityAttribute(Short code) {
+        return code == null ? null : TransactionType.fromCode(code);
+    }
+}
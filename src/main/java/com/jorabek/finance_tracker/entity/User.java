@@ -1,7 +1,12 @@
 package com.jorabek.finance_tracker.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
+// Kam o'zgaradi, ko'p o'qiladi: second-level cache (region sozlamalari - application.conf)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Entity
 @Table(name = "users")
 public class User {
@@ -18,6 +23,12 @@ public class User {
 
     private String role; // e.g., "ROLE_USER"
 
+    // Yig'malar, grafiklar va budjetlar shu valyutada. Ro'yxatdan o'tishda tanlanadi, keyin o'zgarmaydi
+    // (o'zgartirish butun tarixni qayta hisoblashni talab qiladi)
+    @Column(name = "base_currency", nullable = false, length = 3)
+    @Convert(converter = CurrencyCodeConverter.class)
+    private CurrencyCode baseCurrency = CurrencyCode.UZS;
+
     public User() {
     }
 
@@ -59,4 +70,12 @@ public class User {
     public void setRole(String role) {
         this.role = role;
     }
+
+    public CurrencyCode getBaseCurrency() {
+        return baseCurrency;
+    }
+
+    public void setBaseCurrency(CurrencyCode baseCurrency) {
+        this.baseCurrency = baseCurrency;
+    }
 }
@@ -0,0 +1,90 @@
+package com.jorabek.finance_tracker.entity;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+// Foydalanuvchi bo'yicha yig'ma hisob (running totals).
+// Har bir tranzaksiya/qarz o'zgarishida shu DB tranzaksiyasi ichida yangilanadi.
+@Entity
+@Table(name = "user_ledgers")
+public class UserLedger {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(nullable = false)
+    private long totalIncome; // tiyinlarda
+
+    @Column(nullable = false)
+    private long totalExpense;
+
+    @Column(nullable = false)
+    private long unpaidDebtTotal;
+
+    @Column(nullable = false)
+    private Long incomeCount = 0L;
+
+    @Column(nullable = false)
+    private Long expenseCount = 0L;
+
+    @Column(nullable = false)
+    private Long unpaidDebtCount = 0L;
+
+    // Har bir yozuvda +1 (ETag uchun); faqat UPDATE so'rovlari orqali o'zgaradi
+    @Column(nullable = false)
+    private long dataVersion;
+
+    @Column(nullable = false)
+    private Instant updatedAt = Instant.now();
+
+    // Default Constructor (JPA uchun zarur)
+    public UserLedger() {
+    }
+
+    public UserLedger(Long userId) {
+        this.userId = userId;
+    }
+
+    // Getters
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Money getTotalIncome() {
+        return Money.ofMinor(totalIncome);
+    }
+
+    public Money getTotalExpense() {
+        return Money.ofMinor(totalExpense);
+    }
+
+    public Money getBalance() {
+        return Money.ofMinor(totalIncome - totalExpense);
+    }
+
+    public Money getUnpaidDebtTotal() {
+        return Money.ofMinor(unpaidDebtTotal);
+    }
+
+    public Long getIncomeCount() {
+        return incomeCount;
+    }
+
+    public Long getExpenseCount() {
+        return expenseCount;
+    }
+
+    public Long getUnpaidDebtCount() {
+        return unpaidDebtCount;
+    }
+
+    public long getDataVersion() {
+        return dataVersion;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+}
@@ -1,7 +1,13 @@
 package com.jorabek.finance_tracker.repository;
 
+import com.jorabek.finance_tracker.dto.BudgetStatusDTO;
 import com.jorabek.finance_tracker.entity.CategoryLimit;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -10,5 +16,36 @@ import java.util.Optional;
 public interface CategoryLimitRepository extends JpaRepository<CategoryLimit, Long> {
     Optional<CategoryLimit> findByCategoryAndUser(String category, com.jorabek.finance_tracker.entity.User user);
 
+    // Query cache: id list is cached, the rows come from the CategoryLimit L2 region.
+    // Hibernate invalidates it on any write to category_limits.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     java.util.List<CategoryLimit> findAllByUser(com.jorabek.finance_tracker.entity.User user);
+
+    // Delete a limit owned by the user; returns the number of deleted rows.
+    // Hibernate evicts the CategoryLimit L2 region (and the query cache) on bulk DML.
+    @Modifying
+    @Query("DELETE FROM CategoryLimit l WHERE l.id = :id AND l.user = :user")
+    int deleteByIdAndUser(Long id, com.jorabek.finance_tracker.entity.User user);
+
+    // Budget status of every limit: one grouped SUM over the user's daily expense rollup
+    // (type 2 = Expense). Categories are matched case-insensitively, ignoring surrounding whitespace.
+    // The limit is its base-currency value, the same currency as the rollup.
+    @Query("SELECT new com.jorabek.finance_tracker.dto.BudgetStatusDTO(l.id, l.category, l.baseLimitAmount, " +
+            "COALESCE(SUM(d.totalAmount), 0L)) " +
+            "FROM CategoryLimit l LEFT JOIN DailyCategoryTotal d ON d.userId = l.user.id AND d.type = 2 " +
+            "AND LOWER(TRIM(d.category)) = LOWER(TRIM(l.category)) " +
+            "WHERE l.user = :user " +
+            "GROUP BY l.id, l.category, l.baseLimitAmount " +
+            "ORDER BY l.id")
+    java.util.List<BudgetStatusDTO> findBudgetStatusesByUser(com.jorabek.finance_tracker.entity.User user);
+
+    // Budget status of a single limit
+    @Query("SELECT new com.jorabek.finance_tracker.dto.BudgetStatusDTO(l.id, l.category, l.baseLimitAmount, " +
+            "COALESCE(SUM(d.totalAmount), 0L)) " +
+            "FROM CategoryLimit l LEFT JOIN DailyCategoryTotal d ON d.userId = l.user.id AND d.type = 2 " +
+            "AND LOWER(TRIM(d.category)) = LOWER(TRIM(l.category)) " +
+            "WHERE l.user = :user AND l.category = :category " +
+            "GROUP BY l.id, l.category, l.baseLimitAmount")
+    Optional<BudgetStatusDTO> findBudgetStatusByUserAndCategory(com.jorabek.finance_tracker.entity.User user,
+            String category);
 }
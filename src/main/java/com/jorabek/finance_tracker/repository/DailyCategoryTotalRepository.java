@@ -0,0 +1,70 @@
+package com.jorabek.finance_tracker.repository;
+
+import com.jorabek.finance_tracker.entity.DailyCategoryTotal;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+// Reads over the daily rollup. Cost is proportional to days x categories in the range.
+// Codes: type 1 = Income, 2 = Expense (see TransactionType). Amounts are base-currency minor units.
+// Incremental writes live in LedgerService (JDBC batch upsert).
+@Repository
+public interface DailyCategoryTotalRepository extends JpaRepository<DailyCategoryTotal, DailyCategoryTotal.Key> {
+
+    // Income/expense time series, bucketed and gap-filled in one statement (PostgreSQL).
+    // granularity: 'day' | 'week' | 'month' (validated by the caller). Buckets start at
+    // date_trunc(granularity, from), so the first week/month is complete; empty buckets are 0.
+    // Columns: bucket (DATE), income, expense
+    @Query(value = "WITH totals AS (" +
+            "    SELECT date_trunc(:granularity, CAST(r.day AS TIMESTAMP)) AS bucket, " +
+            "           SUM(CASE WHEN r.type = 1 THEN r.total_amount ELSE 0 END) AS income, " +
+            "           SUM(CASE WHEN r.type = 2 THEN r.total_amount ELSE 0 END) AS expense " +
+            "    FROM daily_category_totals r " +
+            "    WHERE r.user_id = :userId " +
+            "      AND r.day >= CAST(date_trunc(:granularity, CAST(:from AS TIMESTAMP)) AS DATE) " +
+            "      AND r.day <= :to " +
+            "    GROUP BY 1" +
+            ") " +
+            "SELECT CAST(s.bucket AS DATE) AS bucket, " +
+            "       COALESCE(t.income, 0) AS income, COALESCE(t.expense, 0) AS expense " +
+            "FROM generate_series(date_trunc(:granularity, CAST(:from AS TIMESTAMP)), " +
+            "                     CAST(:to AS TIMESTAMP), " +
+            "                     CAST('1 ' || :granularity AS INTERVAL)) AS s(bucket) " +
+            "LEFT JOIN totals t ON t.bucket = s.bucket " +
+            "ORDER BY s.bucket", nativeQuery = true)
+    List<Object[]> sumSeries(Long userId, String granularity, LocalDate from, LocalDate to);
+
+    // Expenses by category in [from, to]
+    @Query("SELECT d.category, SUM(d.totalAmount) FROM DailyCategoryTotal d " +
+            "WHERE d.userId = :userId AND d.type = 2 AND d.day BETWEEN :from AND :to " +
+            "GROUP BY d.category")
+    List<Object[]> sumExpenseByCategory(Long userId, LocalDate from, LocalDate to);
+
+    // Repair: recompute the rollup of a chunk of users from the raw table.
+    // Inserts missing rows and overwrites drifted ones; returns the number of repaired rows.
+    // Callers must hold the users' ledger locks (UserLedgerRepository.lockLedgers), which
+    // every writer takes before touching the rollup.
+    @Modifying
+    @Query(value = "INSERT INTO daily_category_totals (user_id, day, category, type, total_amount, tx_count) " +
+            "SELECT t.user_id, t.date, t.category, t.type, SUM(t.base_amount), COUNT(*) " +
+            "FROM transactions t WHERE t.user_id IN (:userIds) " +
+            "GROUP BY t.user_id, t.date, t.category, t.type " +
+            "ON CONFLICT (user_id, day, category, type) DO UPDATE SET " +
+            "    total_amount = EXCLUDED.total_amount, " +
+            "    tx_count = EXCLUDED.tx_count " +
+            "WHERE daily_category_totals.total_amount <> EXCLUDED.total_amount " +
+            "   OR daily_category_totals.tx_count <> EXCLUDED.tx_count", nativeQuery = true)
+    int reconcile(Collection<Long> userIds);
+
+    // Repair: drop rollup rows that no longer have any transactions behind them
+    @Modifying
+    @Query(value = "DELETE FROM daily_category_totals r WHERE r.user_id IN (:userIds) " +
+            "AND NOT EXISTS (SELECT 1 FROM transactions t WHERE t.user_id = r.user_id " +
+            "    AND t.date = r.day AND t.category = r.category AND t.type = r.type)", nativeQuery = true)
+    int deleteOrphans(Collection<Long> userIds);
+}
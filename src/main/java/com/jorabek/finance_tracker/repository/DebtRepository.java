@@ -1,11 +1,14 @@
 package com.jorabek.finance_tracker.repository;
 
+import com.jorabek.finance_tracker.dto.DebtDTO;
 import com.jorabek.finance_tracker.entity.Debt;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface DebtRepository extends JpaRepository<Debt, Long> {
@@ -13,19 +16,40 @@ public interface DebtRepository extends JpaRepository<Debt, Long> {
     // Find all debts by user ordered by loan date
     List<Debt> findAllByUserOrderByLoanDateDesc(com.jorabek.finance_tracker.entity.User user);
 
+    // Same list as read-only projections (no managed entities, no user proxies)
+    @Query("SELECT new com.jorabek.finance_tracker.dto.DebtDTO(d.id, d.lenderName, d.amount, d.currency, d.baseAmount, " +
+            "d.loanDate, d.returnDate, d.status) FROM Debt d WHERE d.user = :user ORDER BY d.loanDate DESC, d.id DESC")
+    List<DebtDTO> findDtosByUser(com.jorabek.finance_tracker.entity.User user);
+
+    // Find a debt owned by the user
+    Optional<Debt> findByIdAndUser(Long id, com.jorabek.finance_tracker.entity.User user);
+
+    // Delete a debt owned by the user; returns the number of deleted rows
+    @Modifying
+    @Query("DELETE FROM Debt d WHERE d.id = :id AND d.user = :user")
+    int deleteByIdAndUser(Long id, com.jorabek.finance_tracker.entity.User user);
+
+    // Mark an unpaid debt of the user as paid; returns 0 if it is missing or already paid.
+    // Concurrent callers serialize on the row lock and re-check the status, so exactly one gets 1
+    @Modifying
+    @Query("UPDATE Debt d SET d.status = com.jorabek.finance_tracker.entity.DebtStatus.PAID, " +
+            "d.version = d.version + 1 " +
+            "WHERE d.id = :id AND d.user = :user AND d.status = com.jorabek.finance_tracker.entity.DebtStatus.UNPAID")
+    int markPaid(Long id, com.jorabek.finance_tracker.entity.User user);
+
     // Find all unpaid debts by user
-    @Query("SELECT d FROM Debt d WHERE d.user = :user AND d.status = 'Unpaid'")
+    @Query("SELECT d FROM Debt d WHERE d.user = :user AND d.status = com.jorabek.finance_tracker.entity.DebtStatus.UNPAID")
     List<Debt> findAllUnpaidDebtsByUser(com.jorabek.finance_tracker.entity.User user);
 
     // Find all paid debts by user
-    @Query("SELECT d FROM Debt d WHERE d.user = :user AND d.status = 'Paid'")
+    @Query("SELECT d FROM Debt d WHERE d.user = :user AND d.status = com.jorabek.finance_tracker.entity.DebtStatus.PAID")
     List<Debt> findAllPaidDebtsByUser(com.jorabek.finance_tracker.entity.User user);
 
-    // Calculate total unpaid debts by user
-    @Query("SELECT COALESCE(SUM(d.amount), 0.0) FROM Debt d WHERE d.user = :user AND d.status = 'Unpaid'")
-    Double calculateTotalUnpaidDebtsByUser(com.jorabek.finance_tracker.entity.User user);
+    // Calculate total unpaid debts by user (base currency)
+    @Query("SELECT COALESCE(SUM(d.baseAmount), 0L) FROM Debt d WHERE d.user = :user AND d.status = com.jorabek.finance_tracker.entity.DebtStatus.UNPAID")
+    Long calculateTotalUnpaidDebtsByUser(com.jorabek.finance_tracker.entity.User user);
 
-    // Calculate total paid debts by user
-    @Query("SELECT COALESCE(SUM(d.amount), 0.0) FROM Debt d WHERE d.user = :user AND d.status = 'Paid'")
-    Double calculateTotalPaidDebtsByUser(com.jorabek.finance_tracker.entity.User user);
+    // Calculate total paid debts by user (base currency)
+    @Query("SELECT COALESCE(SUM(d.baseAmount), 0L) FROM Debt d WHERE d.user = :user AND d.status = com.jorabek.finance_tracker.entity.DebtStatus.PAID")
+    Long calculateTotalPaidDebtsByUser(com.jorabek.finance_tracker.entity.User user);
 }
@@ -0,0 +1,21 @@
+package com.jorabek.finance_tracker.repository;
+
+import com.jorabek.finance_tracker.entity.RecurringRule;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface RecurringRuleRepository extends JpaRepository<RecurringRule, Long> {
+
+    // The user's rules, next occurrence first
+    List<RecurringRule> findAllByUserOrderByNextRunDateAscIdAsc(com.jorabek.finance_tracker.entity.User user);
+
+    // Delete a rule owned by the user; materialized transactions stay (FK is ON DELETE SET NULL)
+    @Modifying
+    @Query("DELETE FROM RecurringRule r WHERE r.id = :id AND r.user = :user")
+    int deleteByIdAndUser(Long id, com.jorabek.finance_tracker.entity.User user);
+}
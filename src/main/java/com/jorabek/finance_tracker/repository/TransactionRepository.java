@@ -1,11 +1,18 @@
 package com.jorabek.finance_tracker.repository;
 
+import com.jorabek.finance_tracker.dto.TransactionDTO;
 import com.jorabek.finance_tracker.entity.Transaction;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
@@ -13,36 +20,107 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
     // Find all transactions by user ordered by date
     List<Transaction> findAllByUserOrderByDateDesc(com.jorabek.finance_tracker.entity.User user);
 
+    // Find a transaction owned by the user
+    Optional<Transaction> findByIdAndUser(Long id, com.jorabek.finance_tracker.entity.User user);
+
+    // Delete a transaction owned by the user; returns the number of deleted rows
+    @Modifying
+    @Query("DELETE FROM Transaction t WHERE t.id = :id AND t.user = :user")
+    int deleteByIdAndUser(Long id, com.jorabek.finance_tracker.entity.User user);
+
     // Find all income by user
-    @Query("SELECT t FROM Transaction t WHERE t.user = :user AND t.type = 'Income'")
+    @Query("SELECT t FROM Transaction t WHERE t.user = :user AND t.type = com.jorabek.finance_tracker.entity.TransactionType.INCOME")
     List<Transaction> findAllIncomeByUser(com.jorabek.finance_tracker.entity.User user);
 
     // Find all expense by user
-    @Query("SELECT t FROM Transaction t WHERE t.user = :user AND t.type = 'Expense'")
+    @Query("SELECT t FROM Transaction t WHERE t.user = :user AND t.type = com.jorabek.finance_tracker.entity.TransactionType.EXPENSE")
     List<Transaction> findAllExpenseByUser(com.jorabek.finance_tracker.entity.User user);
 
-    // Calculate total income by user
-    @Query("SELECT COALESCE(SUM(t.amount), 0.0) FROM Transaction t WHERE t.user = :user AND t.type = 'Income'")
-    Double calculateTotalIncomeByUser(com.jorabek.finance_tracker.entity.User user);
-
-    // Calculate total expense by user
-    @Query("SELECT COALESCE(SUM(t.amount), 0.0) FROM Transaction t WHERE t.user = :user AND t.type = 'Expense'")
-    Double calculateTotalExpenseByUser(com.jorabek.finance_tracker.entity.User user);
+    // Calculate total income by user (base currency, minor units)
+    @Query("SELECT COALESCE(SUM(t.baseAmount), 0L) FROM Transaction t WHERE t.user = :user AND t.type = com.jorabek.finance_tracker.entity.TransactionType.INCOME")
+    Long calculateTotalIncomeByUser(com.jorabek.finance_tracker.entity.User user);
 
-    // Expenses by category for user
-    @Query("SELECT t.category, SUM(t.amount) FROM Transaction t WHERE t.user = :user AND t.type = 'Expense' GROUP BY t.category")
-    List<Object[]> getExpenseByCategoryByUser(com.jorabek.finance_tracker.entity.User user);
-
-    // Last 7 days stats (JPQL - DB Agnostic)
-    @Query("SELECT t.date, " +
-            "SUM(CASE WHEN t.type = 'Income' THEN t.amount ELSE 0.0 END), " +
-            "SUM(CASE WHEN t.type = 'Expense' THEN t.amount ELSE 0.0 END) " +
-            "FROM Transaction t " +
-            "WHERE t.user = :user AND t.date >= :startDate " +
-            "GROUP BY t.date ORDER BY t.date")
-    List<Object[]> getLast7DaysStatsByUser(com.jorabek.finance_tracker.entity.User user, java.time.LocalDate startDate);
+    // Calculate total expense by user (base currency, minor units)
+    @Query("SELECT COALESCE(SUM(t.baseAmount), 0L) FROM Transaction t WHERE t.user = :user AND t.type = com.jorabek.finance_tracker.entity.TransactionType.EXPENSE")
+    Long calculateTotalExpenseByUser(com.jorabek.finance_tracker.entity.User user);
 
     // For sorting
     List<Transaction> findAllByUser(com.jorabek.finance_tracker.entity.User user,
             org.springframework.data.domain.Sort sort);
+
+    // Keyset pagination: rows strictly after the cursor (sort key, id), read as unmanaged projections.
+    // Amount order is by the base-currency value, so mixed currencies sort consistently.
+    // Row-value comparison lets PostgreSQL seek straight into the
+    // (user_id, date, id) / (user_id, base_amount, id) indexes, so page N costs the same as page 1.
+    @Query("SELECT new com.jorabek.finance_tracker.dto.TransactionDTO(t.id, t.date, t.description, t.type, t.category, t.amount, " +
+            "t.currency, t.baseAmount) " +
+            "FROM Transaction t WHERE t.user = :user AND (t.date, t.id) < (:date, :id) " +
+            "ORDER BY t.date DESC, t.id DESC")
+    List<TransactionDTO> findPageByDateDesc(com.jorabek.finance_tracker.entity.User user, java.time.LocalDate date,
+            Long id, org.springframework.data.domain.Pageable pageable);
+
+    @Query("SELECT new com.jorabek.finance_tracker.dto.TransactionDTO(t.id, t.date, t.description, t.type, t.category, t.amount, " +
+            "t.currency, t.baseAmount) " +
+            "FROM Transaction t WHERE t.user = :user AND (t.date, t.id) > (:date, :id) " +
+            "ORDER BY t.date ASC, t.id ASC")
+    List<TransactionDTO> findPageByDateAsc(com.jorabek.finance_tracker.entity.User user, java.time.LocalDate date,
+            Long id, org.springframework.data.domain.Pageable pageable);
+
+    @Query("SELECT new com.jorabek.finance_tracker.dto.TransactionDTO(t.id, t.date, t.description, t.type, t.category, t.amount, " +
+            "t.currency, t.baseAmount) " +
+            "FROM Transaction t WHERE t.user = :user AND (t.baseAmount, t.id) < (:amount, :id) " +
+            "ORDER BY t.baseAmount DESC, t.id DESC")
+    List<TransactionDTO> findPageByAmountDesc(com.jorabek.finance_tracker.entity.User user, long amount,
+            Long id, org.springframework.data.domain.Pageable pageable);
+
+    @Query("SELECT new com.jorabek.finance_tracker.dto.TransactionDTO(t.id, t.date, t.description, t.type, t.category, t.amount, " +
+            "t.currency, t.baseAmount) " +
+            "FROM Transaction t WHERE t.user = :user AND (t.baseAmount, t.id) > (:amount, :id) " +
+            "ORDER BY t.baseAmount ASC, t.id ASC")
+    List<TransactionDTO> findPageByAmountAsc(com.jorabek.finance_tracker.entity.User user, long amount,
+            Long id, org.springframework.data.domain.Pageable pageable);
+
+    // Forward-only stream of unmanaged projections for the CSV export.
+    // Must be consumed inside a (read-only) transaction so the driver honours the fetch size.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT new com.jorabek.finance_tracker.dto.TransactionDTO(" +
+            "t.id, t.date, t.description, t.type, t.category, t.amount, t.currency, t.baseAmount) " +
+            "FROM Transaction t WHERE t.user = :user ORDER BY t.date DESC, t.id DESC")
+    Stream<TransactionDTO> streamAllByUser(com.jorabek.finance_tracker.entity.User user);
+
+    // Dashboard aggregates in a single statement (PostgreSQL CTE). Amounts are base-currency minor units.
+    // Reads the daily rollup (daily_category_totals), never the raw transactions.
+    // Every row carries a "kind" discriminator (the day chart comes from DailyCategoryTotalRepository.sumSeries):
+    // TOTALS -> v1 = income, v2 = expense, v3 = unpaid debts (from user_ledgers,
+    //           falling back to the rollup/debts while the ledger row does not exist yet)
+    // CATEGORY -> label = category, v1 = expense sum
+    // LIMIT -> ref_id = limit id, label = category, v1 = limit, v2 = spent
+    // Codes: type 1 = Income, 2 = Expense; debt status 1 = Unpaid (see TransactionType, DebtStatus)
+    @Query(value = "WITH user_days AS (" +
+            "    SELECT r.category, r.type, r.total_amount FROM daily_category_totals r " +
+            "    WHERE r.user_id = :userId" +
+            "), expense_by_category AS (" +
+            "    SELECT category, SUM(total_amount) AS total FROM user_days WHERE type = 2 GROUP BY category" +
+            ") " +
+            "SELECT 'TOTALS' AS kind, CAST(NULL AS VARCHAR) AS label, CAST(NULL AS DATE) AS day, " +
+            "       CAST(NULL AS BIGINT) AS ref_id, " +
+            "       COALESCE(lg.total_income, (SELECT COALESCE(SUM(total_amount), 0) FROM user_days " +
+            "                                  WHERE type = 1)) AS v1, " +
+            "       COALESCE(lg.total_expense, (SELECT COALESCE(SUM(total_amount), 0) FROM user_days " +
+            "                                   WHERE type = 2)) AS v2, " +
+            "       COALESCE(lg.unpaid_debt_total, (SELECT COALESCE(SUM(d.base_amount), 0) FROM debts d " +
+            "                                       WHERE d.user_id = :userId AND d.status = 1)) AS v3 " +
+            "FROM (SELECT 1) AS one LEFT JOIN user_ledgers lg ON lg.user_id = :userId " +
+            "UNION ALL " +
+            "SELECT 'CATEGORY', category, NULL, NULL, total, NULL, NULL FROM expense_by_category " +
+            "UNION ALL " +
+            "SELECT 'LIMIT', l.category, NULL, l.id, l.base_limit_amount, " +
+            "       COALESCE((SELECT SUM(e.total) FROM expense_by_category e " +
+            "                 WHERE LOWER(TRIM(e.category)) = LOWER(TRIM(l.category))), 0), NULL " +
+            "FROM category_limits l WHERE l.user_id = :userId", nativeQuery = true)
+    List<Object[]> loadDashboardAggregates(Long userId);
 }
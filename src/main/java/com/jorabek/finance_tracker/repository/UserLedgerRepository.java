@@ -0,0 +1,120 @@
+package com.jorabek.finance_tracker.repository;
+
+import com.jorabek.finance_tracker.entity.UserLedger;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface UserLedgerRepository extends JpaRepository<UserLedger, Long> {
+
+    // Create the ledger row from the raw tables (no-op if it already exists).
+    // Codes: type 1 = Income, 2 = Expense; debt status 1 = Unpaid (see TransactionType, DebtStatus).
+    // All totals are in the owner's base currency (base_amount columns)
+    @Modifying
+    @Query(value = "INSERT INTO user_ledgers (user_id, total_income, total_expense, unpaid_debt_total, " +
+            "income_count, expense_count, unpaid_debt_count) " +
+            "SELECT :userId, " +
+            "       COALESCE(SUM(CASE WHEN t.type = 1 THEN t.base_amount END), 0), " +
+            "       COALESCE(SUM(CASE WHEN t.type = 2 THEN t.base_amount END), 0), " +
+            "       (SELECT COALESCE(SUM(d.base_amount), 0) FROM debts d " +
+            "        WHERE d.user_id = :userId AND d.status = 1), " +
+            "       COUNT(CASE WHEN t.type = 1 THEN 1 END), " +
+            "       COUNT(CASE WHEN t.type = 2 THEN 1 END), " +
+            "       (SELECT COUNT(*) FROM debts d WHERE d.user_id = :userId AND d.status = 1) " +
+            "FROM transactions t WHERE t.user_id = :userId " +
+            "ON CONFLICT (user_id) DO NOTHING", nativeQuery = true)
+    int initializeFromRawTables(Long userId);
+
+    // Bulk variant of initializeFromRawTables for a set of users: creates only the missing rows.
+    // Existing ledgers are skipped before any aggregation (NOT EXISTS), so the cost is proportional
+    // to the users that actually need a ledger.
+    @Modifying
+    @Query(value = "INSERT INTO user_ledgers (user_id, total_income, total_expense, unpaid_debt_total, " +
+            "income_count, expense_count, unpaid_debt_count) " +
+            "SELECT u.id, " +
+            "       COALESCE((SELECT SUM(t.base_amount) FROM transactions t WHERE t.user_id = u.id AND t.type = 1), 0), " +
+            "       COALESCE((SELECT SUM(t.base_amount) FROM transactions t WHERE t.user_id = u.id AND t.type = 2), 0), " +
+            "       COALESCE((SELECT SUM(d.base_amount) FROM debts d WHERE d.user_id = u.id AND d.status = 1), 0), " +
+            "       (SELECT COUNT(*) FROM transactions t WHERE t.user_id = u.id AND t.type = 1), " +
+            "       (SELECT COUNT(*) FROM transactions t WHERE t.user_id = u.id AND t.type = 2), " +
+            "       (SELECT COUNT(*) FROM debts d WHERE d.user_id = u.id AND d.status = 1) " +
+            "FROM users u " +
+            "WHERE u.id IN (:userIds) " +
+            "  AND NOT EXISTS (SELECT 1 FROM user_ledgers l WHERE l.user_id = u.id) " +
+            // Same order as lockLedgers: concurrent bulk writers never wait on each other in a cycle
+            "ORDER BY u.id " +
+            "ON CONFLICT (user_id) DO NOTHING", nativeQuery = true)
+    int initializeMissingFromRawTables(Collection<Long> userIds);
+
+    // Apply a delta to the running totals (single row, primary-key update); also bumps the data version
+    @Modifying
+    @Query("UPDATE UserLedger l SET " +
+            "l.totalIncome = l.totalIncome + :income, " +
+            "l.totalExpense = l.totalExpense + :expense, " +
+            "l.unpaidDebtTotal = l.unpaidDebtTotal + :unpaidDebt, " +
+            "l.incomeCount = l.incomeCount + :incomeCount, " +
+            "l.expenseCount = l.expenseCount + :expenseCount, " +
+            "l.unpaidDebtCount = l.unpaidDebtCount + :unpaidDebtCount, " +
+            "l.dataVersion = l.dataVersion + 1, " +
+            "l.updatedAt = :updatedAt " +
+            "WHERE l.userId = :userId")
+    int applyDelta(Long userId, long income, long expense, long unpaidDebt,
+            long incomeCount, long expenseCount, long unpaidDebtCount, Instant updatedAt);
+
+    // Bump the data version for writes that do not move the totals (limits, paid debts).
+    // No-op when the ledger row does not exist yet: no ETag is issued without it.
+    @Modifying
+    @Query("UPDATE UserLedger l SET l.dataVersion = l.dataVersion + 1, l.updatedAt = :updatedAt " +
+            "WHERE l.userId IN (:userIds)")
+    int touch(Collection<Long> userIds, Instant updatedAt);
+
+    // Lock existing ledger rows of a chunk before recomputing them, so concurrent
+    // writers either finish before the recompute or apply their delta after it
+    @Query(value = "SELECT user_id FROM user_ledgers WHERE user_id IN (:userIds) ORDER BY user_id FOR UPDATE",
+            nativeQuery = true)
+    List<Long> lockLedgers(Collection<Long> userIds);
+
+    // Recompute ledgers of a chunk of users from the raw tables.
+    // Inserts missing rows and overwrites drifted ones; returns the number of repaired rows.
+    @Modifying
+    @Query(value = "INSERT INTO user_ledgers (user_id, total_income, total_expense, unpaid_debt_total, " +
+            "income_count, expense_count, unpaid_debt_count) " +
+            "SELECT u.id, COALESCE(tx.income, 0), COALESCE(tx.expense, 0), COALESCE(db.unpaid, 0), " +
+            "       COALESCE(tx.income_count, 0), COALESCE(tx.expense_count, 0), COALESCE(db.unpaid_count, 0) " +
+            "FROM users u " +
+            "LEFT JOIN (SELECT t.user_id, " +
+            "                  SUM(CASE WHEN t.type = 1 THEN t.base_amount ELSE 0 END) AS income, " +
+            "                  SUM(CASE WHEN t.type = 2 THEN t.base_amount ELSE 0 END) AS expense, " +
+            "                  COUNT(CASE WHEN t.type = 1 THEN 1 END) AS income_count, " +
+            "                  COUNT(CASE WHEN t.type = 2 THEN 1 END) AS expense_count " +
+            "           FROM transactions t WHERE t.user_id IN (:userIds) GROUP BY t.user_id) tx " +
+            "       ON tx.user_id = u.id " +
+            "LEFT JOIN (SELECT d.user_id, SUM(d.base_amount) AS unpaid, COUNT(*) AS unpaid_count " +
+            "           FROM debts d WHERE d.user_id IN (:userIds) AND d.status = 1 " +
+            "           GROUP BY d.user_id) db " +
+            "       ON db.user_id = u.id " +
+            "WHERE u.id IN (:userIds) " +
+            "ON CONFLICT (user_id) DO UPDATE SET " +
+            "    total_income = EXCLUDED.total_income, " +
+            "    total_expense = EXCLUDED.total_expense, " +
+            "    unpaid_debt_total = EXCLUDED.unpaid_debt_total, " +
+            "    income_count = EXCLUDED.income_count, " +
+            "    expense_count = EXCLUDED.expense_count, " +
+            "    unpaid_debt_count = EXCLUDED.unpaid_debt_count, " +
+            "    data_version = user_ledgers.data_version + 1, " +
+            "    updated_at = now() " +
+            // Amounts are exact minor units, so any difference is real drift
+            "WHERE user_ledgers.total_income <> EXCLUDED.total_income " +
+            "   OR user_ledgers.total_expense <> EXCLUDED.total_expense " +
+            "   OR user_ledgers.unpaid_debt_total <> EXCLUDED.unpaid_debt_total " +
+            "   OR user_ledgers.income_count <> EXCLUDED.income_count " +
+            "   OR user_ledgers.expense_count <> EXCLUDED.expense_count " +
+            "   OR user_ledgers.unpaid_debt_count <> EXCLUDED.unpaid_debt_count", nativeQuery = true)
+    int reconcile(Collection<Long> userIds);
+}
@@ -1,9 +1,17 @@
 package com.jorabek.finance_tracker.repository;
 
 import com.jorabek.finance_tracker.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
+
+    // Keyset chunk of user ids (for background jobs)
+    @Query("SELECT u.id FROM User u WHERE u.id > :afterId ORDER BY u.id")
+    List<Long> findIdsAfter(Long afterId, Pageable pageable);
 }
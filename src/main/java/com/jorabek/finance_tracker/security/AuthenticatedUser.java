@@ -0,0 +1,37 @@
+package com.jorabek.finance_tracker.security;
+
+import com.jorabek.finance_tracker.entity.CurrencyCode;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+
+// Sessiyada saqlanadigan principal: username bilan birga user id ham olib yuradi,
+// shuning uchun servislar har so'rovda users jadvalidan qidirmaydi.
+public class AuthenticatedUser extends org.springframework.security.core.userdetails.User {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Long id;
+    // Deploydan oldingi sessiyalarda null (CurrentUserProvider bazadan o'qiydi)
+    private final CurrencyCode baseCurrency;
+
+    public AuthenticatedUser(Long id, String username, String password,
+            Collection<? extends GrantedAuthority> authorities) {
+        this(id, username, password, null, authorities);
+    }
+
+    public AuthenticatedUser(Long id, String username, String password, CurrencyCode baseCurrency,
+            Collection<? extends GrantedAuthority> authorities) {
+        super(username, password, authorities);
+        this.id = id;
+        this.baseCurrency = baseCurrency;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public CurrencyCode getBaseCurrency() {
+        return baseCurrency;
+    }
+}
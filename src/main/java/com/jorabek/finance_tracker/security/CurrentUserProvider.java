@@ -0,0 +1,52 @@
+package com.jorabek.finance_tracker.security;
+
+import com.jorabek.finance_tracker.entity.CurrencyCode;
+import com.jorabek.finance_tracker.entity.User;
+import com.jorabek.finance_tracker.repository.UserRepository;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+// Joriy foydalanuvchini security context'dagi principal orqali aniqlaydi
+@Component
+public class CurrentUserProvider {
+
+    private final UserRepository userRepository;
+
+    public CurrentUserProvider(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    public Long getCurrentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null) {
+            throw new RuntimeException("User not authenticated");
+        }
+        if (authentication.getPrincipal() instanceof AuthenticatedUser principal) {
+            return principal.getId();
+        }
+
+        // Principal'da id bo'lmasa (masalan deploydan oldingi sessiya) - username bo'yicha qidiramiz
+        String username = authentication.getName();
+        return userRepository.findByUsername(username)
+                .map(User::getId)
+                .orElseThrow(() -> new RuntimeException("User not found: " + username));
+    }
+
+    // Asosiy valyuta: principal'dan (so'rovsiz); eski sessiyada users (L2 kesh) dan
+    public CurrencyCode getCurrentBaseCurrency() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser principal
+                && principal.getBaseCurrency() != null) {
+            return principal.getBaseCurrency();
+        }
+        return userRepository.findById(getCurrentUserId())
+                .map(User::getBaseCurrency)
+                .orElse(CurrencyCode.UZS);
+    }
+
+    // So'rovsiz proxy (getReference): faqat id kerak bo'lgan joylar uchun (user_id filtrlari, FK)
+    public User getCurrentUser() {
+        return userRepository.getReferenceById(getCurrentUserId());
+    }
+}
@@ -2,6 +2,8 @@ package com.jorabek.finance_tracker.security;
 
 import com.jorabek.finance_tracker.entity.User;
 import com.jorabek.finance_tracker.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -13,6 +15,8 @@ import java.util.Collections;
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
 
+    private static final Logger log = LoggerFactory.getLogger(CustomUserDetailsService.class);
+
     private final UserRepository userRepository;
 
     public CustomUserDetailsService(UserRepository userRepository) {
@@ -21,18 +25,20 @@ public class CustomUserDetailsService implements UserDetailsService {
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        System.out.println("Attempting to load user: " + username);
+        log.atDebug().addKeyValue("username", username).log("Loading user");
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> {
-                    System.out.println("User not found: " + username);
+                    log.atDebug().addKeyValue("username", username).log("User not found");
                     return new UsernameNotFoundException("User not found with username: " + username);
                 });
 
-        System.out.println("User found: " + user.getUsername() + ", Role: " + user.getRole());
+        log.atDebug().addKeyValue("userId", user.getId()).addKeyValue("role", user.getRole()).log("User loaded");
 
-        return new org.springframework.security.core.userdetails.User(
+        return new AuthenticatedUser(
+                user.getId(),
                 user.getUsername(),
                 user.getPassword(),
+                user.getBaseCurrency(),
                 Collections.singletonList(new SimpleGrantedAuthority(user.getRole())));
     }
 }
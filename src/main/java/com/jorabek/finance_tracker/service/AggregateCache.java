@@ -0,0 +1,64 @@
+package com.jorabek.finance_tracker.service;
+
+import com.jorabek.finance_tracker.dto.DashboardAggregates;
+import com.jorabek.finance_tracker.dto.DataVersion;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+
+// Foydalanuvchi bo'yicha hisoblangan dashboard aggregatlari keshi (Caffeine, hajm + TTL cheklovi).
+// Har bir qiymat o'zi hisoblangan data_version (DataVersion tegi) bilan saqlanadi va faqat shu versiyada
+// qaytariladi: har bir yozuv (boshqa instansiyada ham) ledger'dagi versiyani oshiradi, shuning uchun
+// eskirgan qiymat hech bir instansiyada berilmaydi - TTL'ni kutmasdan.
+// Versiya aggregatlardan OLDIN o'qiladi: kechikkan put() eski versiya bilan yoziladi va keyingi so'rovda miss.
+// evict() faqat xotirani bo'shatadi; hit/miss - cache.gets{cache=dashboardAggregates} metrikasi
+@Component
+public class AggregateCache {
+
+    public static final String CACHE_NAME = "dashboardAggregates";
+
+    private final Cache cache;
+
+    public AggregateCache(CacheManager cacheManager) {
+        this.cache = cacheManager.getCache(CACHE_NAME);
+    }
+
+    // Boshqa versiya yoki boshqa kunning 7 kunlik oynasi - miss; version null (ledger yo'q) - doim miss
+    public DashboardAggregates get(Long userId, DataVersion version, LocalDate startDate) {
+        if (version == null) {
+            return null;
+        }
+        VersionedAggregates cached = cache.get(userId, VersionedAggregates.class);
+        return cached != null && cached.tag().equals(version.getTag())
+                && cached.aggregates().getStartDate().equals(startDate) ? cached.aggregates() : null;
+    }
+
+    // version - aggregatlarni o'qishdan oldin olingan versiya (keyinroq emas)
+    public void put(Long userId, DataVersion version, DashboardAggregates aggregates) {
+        if (version != null) {
+            cache.put(userId, new VersionedAggregates(version.getTag(), aggregates));
+        }
+    }
+
+    // Commit'dan keyin tozalanadi (versiya allaqachon oshgan, qiymat baribir ishlatilmaydi).
+    // Tranzaksiyadan tashqarida - darhol
+    public void evict(Long userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cache.evict(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache.evict(userId);
+            }
+        });
+    }
+
+    private record VersionedAggregates(String tag, DashboardAggregates aggregates) {
+    }
+}
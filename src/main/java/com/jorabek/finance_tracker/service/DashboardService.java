@@ -0,0 +1,179 @@
+package com.jorabek.finance_tracker.service;
+
+import com.jorabek.finance_tracker.dto.BudgetStatusDTO;
+import com.jorabek.finance_tracker.dto.DashboardAggregates;
+import com.jorabek.finance_tracker.dto.DashboardSnapshot;
+import com.jorabek.finance_tracker.dto.DataVersion;
+import com.jorabek.finance_tracker.dto.DebtDTO;
+import com.jorabek.finance_tracker.dto.SummaryDTO;
+import com.jorabek.finance_tracker.dto.TransactionPage;
+import com.jorabek.finance_tracker.entity.Money;
+import com.jorabek.finance_tracker.repository.DebtRepository;
+import com.jorabek.finance_tracker.repository.TransactionRepository;
+import com.jorabek.finance_tracker.security.CurrentUserProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+@Service
+public class DashboardService {
+
+    private final TransactionService transactionService;
+    private final DebtService debtService;
+    private final TransactionRepository transactionRepository;
+    private final DebtRepository debtRepository;
+    private final CurrentUserProvider currentUserProvider;
+    private final AggregateCache aggregateCache;
+    private final TransactionTemplate readOnlyTransaction;
+    private final AsyncTaskExecutor fanOutExecutor;
+    private final boolean fanOutEnabled;
+
+    @Autowired
+    public DashboardService(TransactionService transactionService,
+            DebtService debtService,
+            TransactionRepository transactionRepository,
+            DebtRepository debtRepository,
+            CurrentUserProvider currentUserProvider,
+            AggregateCache aggregateCache,
+            PlatformTransactionManager transactionManager,
+            @Qualifier("dashboardFanOutExecutor") AsyncTaskExecutor fanOutExecutor,
+            @Value("${app.dashboard.fan-out.enabled:true}") boolean fanOutEnabled) {
+        this.transactionService = transactionService;
+        this.debtService = debtService;
+        this.transactionRepository = transactionRepository;
+        this.debtRepository = debtRepository;
+        this.currentUserProvider = currentUserProvider;
+        this.aggregateCache = aggregateCache;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.fanOutExecutor = fanOutExecutor;
+        this.fanOutEnabled = fanOutEnabled;
+    }
+
+    // Dashboard ma'lumotlari: tranzaksiyalar sahifasi, qarzlar va aggregatlar (keshda bo'lmasa) bir-biriga
+    // bog'liq emas - parallel o'qiladi, har biri o'z read-only tranzaksiyasi va ulanishida.
+    // Metodning o'zi tranzaksiyasiz: kutayotgan so'rov oqimi ulanish ushlab turmaydi.
+    // Bitta vazifa yiqilsa qolganlari bekor qilinadi va xato chaqiruvchiga qaytadi.
+    // version - shu so'rovda aggregatlardan oldin o'qilgan ma'lumot versiyasi (DataVersionService.current());
+    // kesh faqat shu versiya uchun hisoblangan qiymatni beradi, null bo'lsa kesh ishlatilmaydi
+    public DashboardSnapshot loadSnapshot(String sortBy, String direction, String cursor, DataVersion version) {
+        Long userId = currentUserProvider.getCurrentUserId();
+        LocalDate startDate = LocalDate.now().minusDays(6);
+
+        DashboardAggregates cached = aggregateCache.get(userId, version, startDate);
+        Future<DashboardAggregates> aggregatesTask = cached != null
+                ? CompletableFuture.completedFuture(cached)
+                : fork(() -> {
+                    DashboardAggregates loaded = loadAggregates(userId, startDate);
+                    aggregateCache.put(userId, version, loaded);
+                    return loaded;
+                });
+        Future<TransactionPage> transactionsTask = fork(() -> transactionService.getTransactionPage(
+                currentUserProvider.getCurrentUser(), sortBy, direction, cursor));
+        Future<List<DebtDTO>> debtsTask = fork(() -> debtRepository.findDtosByUser(
+                currentUserProvider.getCurrentUser()));
+
+        try {
+            DashboardAggregates aggregates = join(aggregatesTask);
+            TransactionPage transactions = join(transactionsTask);
+            List<DebtDTO> debts = join(debtsTask);
+
+            return new DashboardSnapshot(transactions, debts, aggregates.getTotalIncome(),
+                    aggregates.getTotalExpense(), aggregates.getTotalUnpaidDebts(), aggregates.getExpenseByCategory(),
+                    aggregates.getLast7DaysStats(), aggregates.getBudgetStatuses());
+        } finally {
+            // Tugaganlarga ta'sir qilmaydi; xato bo'lsa qolganlarini to'xtatadi
+            aggregatesTask.cancel(true);
+            transactionsTask.cancel(true);
+            debtsTask.cancel(true);
+        }
+    }
+
+    // Vazifani alohida read-only tranzaksiyada ishga tushiradi (app.dashboard.fan-out.enabled=false -
+    // shu oqimda ketma-ket, masalan solishtirish yoki muammo bo'lganda o'chirish uchun)
+    private <T> Future<T> fork(Supplier<T> query) {
+        if (!fanOutEnabled) {
+            return CompletableFuture.completedFuture(readOnlyTransaction.execute(status -> query.get()));
+        }
+        Callable<T> task = () -> readOnlyTransaction.execute(status -> query.get());
+        return fanOutExecutor.submit(task);
+    }
+
+    private static <T> T join(Future<T> task) {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Dashboard ma'lumotlarini yuklash to'xtatildi", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    // Aggregatlar bitta CTE so'rovida + 7 kunlik grafik (vaqt qatori, bo'sh kunlar DB tomonida to'ldiriladi)
+    private DashboardAggregates loadAggregates(Long userId, LocalDate startDate) {
+        // Summalar tiyinlarda (BIGINT yig'indilari)
+        long totalIncome = 0L;
+        long totalExpense = 0L;
+        long totalUnpaidDebts = 0L;
+        List<Object[]> expenseByCategory = new ArrayList<>();
+        List<BudgetStatusDTO> budgetStatuses = new ArrayList<>();
+
+        // Qator turi (kind) bo'yicha ajratamiz: TOTALS, CATEGORY, LIMIT
+        for (Object[] row : transactionRepository.loadDashboardAggregates(userId)) {
+            switch ((String) row[0]) {
+                case "TOTALS" -> {
+                    totalIncome = toLong(row[4]);
+                    totalExpense = toLong(row[5]);
+                    totalUnpaidDebts = toLong(row[6]);
+                }
+                case "CATEGORY" -> expenseByCategory.add(new Object[] { row[1],
+                        BigDecimal.valueOf(toLong(row[4]), Money.SCALE) });
+                case "LIMIT" -> budgetStatuses.add(new BudgetStatusDTO(((Number) row[3]).longValue(),
+                        (String) row[1], toLong(row[4]), toLong(row[5])));
+                default -> {
+                }
+            }
+        }
+
+        List<Object[]> last7DaysStats = transactionService.toChartRows(
+                transactionService.getSeries(userId, "day", startDate, startDate.plusDays(6)),
+                TransactionService.DAY_LABEL);
+
+        return new DashboardAggregates(startDate, totalIncome, totalExpense, totalUnpaidDebts, expenseByCategory,
+                last7DaysStats, budgetStatuses);
+    }
+
+    // Umumiy ko'rsatkichlar (API): bitta persistence context - ledger qatori bir marta o'qiladi
+    @Transactional(readOnly = true)
+    public SummaryDTO loadSummary() {
+        return new SummaryDTO(transactionService.getTotalIncome(), transactionService.getTotalExpense(),
+                debtService.getTotalUnpaidDebts());
+    }
+
+    // PostgreSQL SUM(bigint) NUMERIC qaytaradi - qiymat baribir butun tiyin
+    private static long toLong(Object value) {
+        return value != null ? ((Number) value).longValue() : 0L;
+    }
+}
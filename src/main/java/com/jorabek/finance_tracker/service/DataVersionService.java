@@ -0,0 +1,41 @@
+package com.jorabek.finance_tracker.service;
+
+import com.jorabek.finance_tracker.dto.DataVersion;
+import com.jorabek.finance_tracker.security.CurrentUserProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+// Shartli GET uchun versiya: ledger qatoridan bitta primary-key o'qish, hech qanday aggregatsiyasiz.
+// data_version har bir tranzaksiya/qarz/limit yozuvida oshadi (LedgerService)
+@Service
+public class DataVersionService {
+
+    private final LedgerService ledgerService;
+    private final CurrentUserProvider currentUserProvider;
+
+    @Autowired
+    public DataVersionService(LedgerService ledgerService, CurrentUserProvider currentUserProvider) {
+        this.ledgerService = ledgerService;
+        this.currentUserProvider = currentUserProvider;
+    }
+
+    // null - ledger qatori hali yo'q (birinchi yozuvgacha): shartli javob berilmaydi
+    public DataVersion current() {
+        Long userId = currentUserProvider.getCurrentUserId();
+        LocalDate today = LocalDate.now();
+        return ledgerService.findLedger(userId)
+                .map(ledger -> {
+                    // Kun almashganda grafiklar ("oxirgi 7 kun") o'zgaradi - ma'lumot o'zgarmagan bo'lsa ham
+                    Instant startOfToday = today.atStartOfDay(ZoneId.systemDefault()).toInstant();
+                    Instant modified = ledger.getUpdatedAt().isAfter(startOfToday) ? ledger.getUpdatedAt()
+                            : startOfToday;
+                    return new DataVersion(userId + "-" + ledger.getDataVersion() + "-" + today.toEpochDay(),
+                            modified.toEpochMilli());
+                })
+                .orElse(null);
+    }
+}
@@ -0,0 +1,275 @@
+package com.jorabek.finance_tracker.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Muddati o'tgan yoki yaqinlashgan to'lanmagan qarzlar uchun eslatmalar (debt_reminders).
+// Faqat hali eslatmasi yo'q (yoki muddati endi o'tgan) qarzlar o'qiladi: debts.reminder_kind va partial indeks
+// (V14) - shuning uchun kunlik skan barcha to'lanmagan qarzlarni emas, o'tgan skandan beri ufqqa kirgan yoki
+// muddati o'tganlarni ko'radi. Barcha foydalanuvchilar bo'ylab (return_date, id) keyset bilan bo'laklab o'qiladi,
+// bo'laklar ishchi oqimlarda yoziladi (har biri o'z tranzaksiyasida). Uzilgan skan keyingi safar qolgan qarzlarni
+// ko'radi: yozilgan bo'laklar reminder_kind'ni belgilagan, shuning uchun qayta o'qilmaydi. Kun tugagani
+// job_checkpoints'ga yoziladi - shu kun qayta ishlamaydi.
+// Bir vaqtda faqat bitta instansiya skan qiladi: o'quvchi tranzaksiyasidagi advisory lock; qolganlari darhol chiqadi.
+// Ulanishlar: o'quvchi tranzaksiyasi (1) + ishchilar (app.debts.reminders.workers).
+// Yozuv idempotent (ON CONFLICT DO NOTHING), shuning uchun bo'lakni qayta ishlash xavfsiz.
+@Component
+public class DebtReminderJob {
+
+    private static final Logger log = LoggerFactory.getLogger(DebtReminderJob.class);
+
+    static final String JOB_NAME = "debt-reminders";
+
+    static final short KIND_DUE_SOON = 1;
+    static final short KIND_OVERDUE = 2;
+
+    // Kursor boshlanishi: barcha real return_date'lardan oldin (partial indeks faqat eslatilmaganlarni saqlaydi)
+    private static final LocalDate SCAN_START = LocalDate.of(1, 1, 1);
+
+    private static final String KIND_FOR_TODAY = "CASE WHEN d.return_date < ? THEN " + KIND_OVERDUE
+            + " ELSE " + KIND_DUE_SOON + " END";
+
+    // Status 1 = Unpaid (DebtStatus). Dastlabki ikki shart - idx_debts_reminder_pending predikati;
+    // oxirgisi: hali eslatma yo'q yoki "muddati yaqin" eslatmasi bor, lekin muddat endi o'tgan
+    private static final String SELECT_CHUNK_SQL = "SELECT d.id, d.return_date FROM debts d "
+            + "WHERE d.status = 1 AND d.reminder_kind IS DISTINCT FROM 2 "
+            + "AND d.return_date <= ? AND (d.return_date, d.id) > (?, ?) "
+            + "AND (d.reminder_kind IS NULL OR d.return_date < ?) "
+            + "ORDER BY d.return_date, d.id LIMIT ?";
+
+    // Qarz qatori belgilanadi va eslatma yoziladi - bitta statementda. UPDATE holatni eng so'nggi qator
+    // versiyasida qayta tekshiradi: o'qish va yozish orasida to'langan qarzga eslatma yozilmaydi
+    private static final String INSERT_REMINDERS_SQL = "WITH marked AS ("
+            + "UPDATE debts d SET reminder_kind = " + KIND_FOR_TODAY + " "
+            + "WHERE d.id = ANY (?) AND d.status = 1 AND COALESCE(d.reminder_kind, 0) < " + KIND_FOR_TODAY + " "
+            + "RETURNING d.id, d.reminder_kind, d.user_id, d.return_date) "
+            + "INSERT INTO debt_reminders (debt_id, kind, user_id, due_date) "
+            + "SELECT id, reminder_kind, user_id, return_date FROM marked "
+            + "ON CONFLICT (debt_id, kind) DO NOTHING";
+
+    // Tranzaksiya darajasidagi qulf: o'quvchi tranzaksiyasi tugaganda (commit/rollback) o'zi bo'shaydi,
+    // alohida ushlab turilgan ulanish kerak emas
+    private static final String TRY_LOCK_SQL = "SELECT pg_try_advisory_xact_lock(hashtext(?))";
+
+    private static final String SELECT_CHECKPOINT_SQL = "SELECT run_date, completed, last_completed_at "
+            + "FROM job_checkpoints WHERE job_name = ?";
+
+    // Faqat "kun tugadi" yoziladi (position ishlatilmaydi: qolgan qarzlarni reminder_kind ko'rsatadi).
+    // clock_timestamp(): now() skan boshlangan vaqt bo'lardi (tranzaksiya boshi)
+    private static final String UPSERT_CHECKPOINT_SQL = "INSERT INTO job_checkpoints "
+            + "(job_name, run_date, position, completed, updated_at, last_completed_at) "
+            + "VALUES (?, ?, NULL, TRUE, clock_timestamp(), clock_timestamp()) "
+            + "ON CONFLICT (job_name) DO UPDATE SET run_date = EXCLUDED.run_date, position = NULL, "
+            + "completed = TRUE, updated_at = EXCLUDED.updated_at, last_completed_at = EXCLUDED.last_completed_at";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AsyncTaskExecutor executor;
+    private final int chunkSize;
+    private final int dueSoonDays;
+
+    private final Counter scanned;
+    private final Counter recorded;
+    private final Timer chunkTimer;
+    // Oxirgi to'liq tugagan skan vaqti (epoch ms, istalgan instansiyada - job_checkpoints'dan);
+    // -1 - hali hech qachon tugamagan
+    private final AtomicLong lastCompletedAt = new AtomicLong(-1L);
+
+    @Autowired
+    public DebtReminderJob(JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            @Qualifier("debtReminderExecutor") AsyncTaskExecutor executor,
+            MeterRegistry meterRegistry,
+            @Value("${app.debts.reminders.chunk-size:1000}") int chunkSize,
+            @Value("${app.debts.reminders.due-soon-days:3}") int dueSoonDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.executor = executor;
+        this.chunkSize = chunkSize;
+        this.dueSoonDays = dueSoonDays;
+
+        this.scanned = Counter.builder("finance.jobs.debt.reminders.scanned")
+                .description("Unpaid debts scanned by the reminder job")
+                .register(meterRegistry);
+        this.recorded = Counter.builder("finance.jobs.debt.reminders.recorded")
+                .description("New due-soon/overdue reminder events")
+                .register(meterRegistry);
+        this.chunkTimer = Timer.builder("finance.jobs.debt.reminders.chunk")
+                .description("Time to write reminders for one chunk")
+                .register(meterRegistry);
+        Gauge.builder("finance.jobs.debt.reminders.lag", lastCompletedAt, DebtReminderJob::secondsSince)
+                .description("Seconds since the last completed scan")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    // Lag gauge'i qayta ishga tushgandan keyin ham oxirgi tugagan skandan hisoblanadi (NaN emas)
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadLastCompleted() {
+        Checkpoint checkpoint = loadCheckpoint();
+        if (checkpoint != null) {
+            updateLastCompleted(checkpoint);
+        }
+    }
+
+    // Har soatda: kunlik skan tugagan bo'lsa darhol chiqadi, uzilgan bo'lsa qolgan qarzlarni skan qiladi.
+    // Qulf boshqa instansiyada bo'lsa - chiqadi (u skan qilyapti)
+    @Scheduled(cron = "${app.debts.reminders.cron:0 0 * * * *}")
+    public void scan() {
+        // O'qishlar, qulf va "tugadi" belgisi bitta tranzaksiyada (bitta ulanish); belgi qulf bilan birga commit bo'ladi
+        Boolean locked = transactionTemplate.execute(status -> {
+            if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(TRY_LOCK_SQL, Boolean.class, JOB_NAME))) {
+                return false;
+            }
+            scanLocked();
+            return true;
+        });
+        if (!Boolean.TRUE.equals(locked)) {
+            log.debug("Debt reminder scan is running on another instance");
+        }
+        loadLastCompleted();
+    }
+
+    private void scanLocked() {
+        LocalDate today = LocalDate.now();
+        LocalDate horizon = today.plusDays(dueSoonDays);
+
+        Checkpoint checkpoint = loadCheckpoint();
+        if (checkpoint != null && today.equals(checkpoint.runDate) && checkpoint.completed) {
+            return;
+        }
+
+        // Yuborilgan bo'laklar tartib bilan: xato birinchi tugamagan bo'lakda aniqlanadi
+        Deque<Future<?>> pending = new ArrayDeque<>();
+        LocalDate afterDate = SCAN_START;
+        long afterId = 0L;
+        long chunks = 0;
+        try {
+            while (true) {
+                List<long[]> rows = jdbcTemplate.query(SELECT_CHUNK_SQL,
+                        (rs, rowNum) -> new long[] { rs.getLong(1), rs.getObject(2, LocalDate.class).toEpochDay() },
+                        horizon, afterDate, afterId, today, chunkSize);
+                if (rows.isEmpty()) {
+                    break;
+                }
+                long[] last = rows.get(rows.size() - 1);
+                afterDate = LocalDate.ofEpochDay(last[1]);
+                afterId = last[0];
+
+                Long[] debtIds = new Long[rows.size()];
+                for (int i = 0; i < debtIds.length; i++) {
+                    debtIds[i] = rows.get(i)[0];
+                }
+                // Ishchilar band bo'lsa shu yerda kutiladi (executor limiti)
+                pending.addLast(executor.submit(() -> recordChunk(debtIds, today)));
+                chunks++;
+                advance(pending, false);
+
+                if (rows.size() < chunkSize) {
+                    break;
+                }
+            }
+            advance(pending, true);
+        } catch (RuntimeException e) {
+            for (Future<?> chunk : pending) {
+                chunk.cancel(true);
+            }
+            log.error("Debt reminder scan failed; the remaining debts are scanned on the next run", e);
+            return;
+        }
+
+        saveCheckpoint(today);
+        log.info("Debt reminder scan finished: runDate={}, chunks={}", today, chunks);
+    }
+
+    // Bitta bo'lak: bitta UPDATE ... RETURNING + INSERT (id massivi bilan)
+    private void recordChunk(Long[] debtIds, LocalDate today) {
+        long start = System.nanoTime();
+        int inserted = jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(INSERT_REMINDERS_SQL);
+            statement.setObject(1, today);
+            statement.setArray(2, connection.createArrayOf("bigint", debtIds));
+            statement.setObject(3, today);
+            return statement;
+        });
+        chunkTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        scanned.increment(debtIds.length);
+        recorded.increment(inserted);
+    }
+
+    // Boshidagi tugagan bo'laklarni olib tashlaydi (xatosi bo'lsa - otadi).
+    // waitAll - barcha bo'laklar tugashini kutish (skan oxiri)
+    private void advance(Deque<Future<?>> pending, boolean waitAll) {
+        while (!pending.isEmpty() && (waitAll || pending.peekFirst().isDone())) {
+            try {
+                pending.peekFirst().get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Debt reminder scan interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Debt reminder chunk failed", e.getCause());
+            }
+            pending.removeFirst();
+        }
+    }
+
+    private Checkpoint loadCheckpoint() {
+        List<Checkpoint> rows = jdbcTemplate.query(SELECT_CHECKPOINT_SQL,
+                (rs, rowNum) -> new Checkpoint(rs.getObject(1, LocalDate.class), rs.getBoolean(2),
+                        rs.getTimestamp(3)),
+                JOB_NAME);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    private void saveCheckpoint(LocalDate runDate) {
+        jdbcTemplate.update(UPSERT_CHECKPOINT_SQL, JOB_NAME, runDate);
+    }
+
+    private void updateLastCompleted(Checkpoint checkpoint) {
+        if (checkpoint.lastCompletedAt != null) {
+            lastCompletedAt.set(checkpoint.lastCompletedAt.getTime());
+        }
+    }
+
+    private static double secondsSince(AtomicLong epochMillis) {
+        long value = epochMillis.get();
+        return value < 0 ? Double.NaN : (System.currentTimeMillis() - value) / 1000.0;
+    }
+
+    private static class Checkpoint {
+        private final LocalDate runDate;
+        private final boolean completed;
+        private final Timestamp lastCompletedAt;
+
+        Checkpoint(LocalDate runDate, boolean completed, Timestamp lastCompletedAt) {
+            this.runDate = runDate;
+            this.completed = completed;
+            this.lastCompletedAt = lastCompletedAt;
+        }
+    }
+}
@@ -1,36 +1,55 @@
 package com.jorabek.finance_tracker.service;
 
+import com.jorabek.finance_tracker.dto.DebtDTO;
 import com.jorabek.finance_tracker.entity.Debt;
+import com.jorabek.finance_tracker.entity.DebtStatus;
+import com.jorabek.finance_tracker.entity.Money;
 import com.jorabek.finance_tracker.entity.Transaction;
+import com.jorabek.finance_tracker.entity.TransactionType;
 import com.jorabek.finance_tracker.repository.DebtRepository;
+import com.jorabek.finance_tracker.security.CurrentUserProvider;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
+// Har bir public metod: finance.service taymeri (teglar: class, method, exception)
+@Timed("finance.service")
 @Service
 public class DebtService {
 
     private final DebtRepository debtRepository;
     private final TransactionService transactionService;
-    private final com.jorabek.finance_tracker.repository.UserRepository userRepository;
+    private final CurrentUserProvider currentUserProvider;
+    private final LedgerService ledgerService;
+    private final AggregateCache aggregateCache;
+    private final IdempotencyService idempotencyService;
+    private final FxRateService fxRateService;
 
     @Autowired
     public DebtService(DebtRepository debtRepository,
             TransactionService transactionService,
-            com.jorabek.finance_tracker.repository.UserRepository userRepository) {
+            CurrentUserProvider currentUserProvider,
+            LedgerService ledgerService,
+            AggregateCache aggregateCache,
+            IdempotencyService idempotencyService,
+            FxRateService fxRateService) {
         this.debtRepository = debtRepository;
         this.transactionService = transactionService;
-        this.userRepository = userRepository;
+        this.currentUserProvider = currentUserProvider;
+        this.ledgerService = ledgerService;
+        this.aggregateCache = aggregateCache;
+        this.idempotencyService = idempotencyService;
+        this.fxRateService = fxRateService;
     }
 
+    // users jadvaliga so'rov yubormaydi: principal'dagi id bo'yicha proxy
     private com.jorabek.finance_tracker.entity.User getCurrentUser() {
-        String username = org.springframework.security.core.context.SecurityContextHolder.getContext()
-                .getAuthentication().getName();
-        return userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found: " + username));
+        return currentUserProvider.getCurrentUser();
     }
 
     // Barcha qarzlarni olish
@@ -38,25 +57,69 @@ public class DebtService {
         return debtRepository.findAllByUserOrderByLoanDateDesc(getCurrentUser());
     }
 
+    // Barcha qarzlar - faqat o'qish uchun proyeksiyalar (API/dashboard)
+    @Transactional(readOnly = true)
+    public List<DebtDTO> getDebtList() {
+        return debtRepository.findDtosByUser(getCurrentUser());
+    }
+
     // ID bo'yicha qarzni topish
     public Optional<Debt> getDebtById(Long id) {
         // Validation needed
         return debtRepository.findById(id);
     }
 
-    // Yangi qarz qo'shish
+    // Yangi qarz qo'shish (asosiy valyutaga loanDate kursi bilan o'giriladi)
+    @Transactional
     public Debt saveDebt(Debt debt) {
-        // Yangi qarz default holatda "Unpaid"
-        if (debt.getStatus() == null || debt.getStatus().isEmpty()) {
-            debt.setStatus("Unpaid");
+        // Yangi qarz default holatda UNPAID
+        if (debt.getStatus() == null) {
+            debt.setStatus(DebtStatus.UNPAID);
+        }
+        Long userId = currentUserProvider.getCurrentUserId();
+        com.jorabek.finance_tracker.entity.User user = getCurrentUser();
+        com.jorabek.finance_tracker.entity.CurrencyCode baseCurrency = currentUserProvider.getCurrentBaseCurrency();
+        if (debt.getCurrency() == null) {
+            debt.setCurrency(baseCurrency);
+        }
+        LocalDate rateDate = debt.getLoanDate() != null ? debt.getLoanDate() : LocalDate.now();
+        if (debt.getCurrency() != baseCurrency) {
+            fxRateService.lockCurrentRates();
+        }
+        debt.setBaseAmount(fxRateService.convert(debt.getAmount(), debt.getCurrency(), baseCurrency, rateDate));
+        ledgerService.ensureLedger(userId);
+
+        debt.setId(null);
+        debt.setUser(user);
+        Debt saved = debtRepository.save(debt);
+
+        if (saved.getStatus() == DebtStatus.UNPAID) {
+            ledgerService.recordUnpaidDebt(userId, saved.getBaseAmountMinor(), 1);
+        } else {
+            ledgerService.recordChange(userId);
         }
-        debt.setUser(getCurrentUser());
-        return debtRepository.save(debt);
+        aggregateCache.evict(userId);
+        return saved;
     }
 
-    // Qarzni o'chirish
+    // Qarzni o'chirish (faqat o'z qarzini)
+    @Transactional
     public void deleteDebt(Long id) {
-        debtRepository.deleteById(id);
+        Long userId = currentUserProvider.getCurrentUserId();
+        com.jorabek.finance_tracker.entity.User user = getCurrentUser();
+        Optional<Debt> existing = debtRepository.findByIdAndUser(id, user);
+        if (existing.isEmpty())
+            return;
+
+        ledgerService.ensureLedger(userId);
+        if (debtRepository.deleteByIdAndUser(id, user) == 1) {
+            if (existing.get().getStatus() == DebtStatus.UNPAID) {
+                ledgerService.recordUnpaidDebt(userId, existing.get().getBaseAmountMinor(), -1);
+            } else {
+                ledgerService.recordChange(userId);
+            }
+        }
+        aggregateCache.evict(userId);
     }
 
     // To'lanmagan qarzlarni olish
@@ -69,39 +132,53 @@ public class DebtService {
         return debtRepository.findAllPaidDebtsByUser(getCurrentUser());
     }
 
-    // Umumiy to'lanmagan qarzlarni hisoblash
-    public Double getTotalUnpaidDebts() {
-        Double total = debtRepository.calculateTotalUnpaidDebtsByUser(getCurrentUser());
-        return total != null ? total : 0.0;
+    // Umumiy to'lanmagan qarzlarni hisoblash (ledgerdan, O(1))
+    public Money getTotalUnpaidDebts() {
+        return ledgerService.findLedger(currentUserProvider.getCurrentUserId())
+                .map(com.jorabek.finance_tracker.entity.UserLedger::getUnpaidDebtTotal)
+                .orElseGet(() -> {
+                    Long total = debtRepository.calculateTotalUnpaidDebtsByUser(getCurrentUser());
+                    return Money.ofMinor(total != null ? total : 0L);
+                });
     }
 
     // Umumiy to'langan qarzlarni hisoblash
-    public Double getTotalPaidDebts() {
-        Double total = debtRepository.calculateTotalPaidDebtsByUser(getCurrentUser());
-        return total != null ? total : 0.0;
+    public Money getTotalPaidDebts() {
+        Long total = debtRepository.calculateTotalPaidDebtsByUser(getCurrentUser());
+        return Money.ofMinor(total != null ? total : 0L);
     }
 
-    // Qarzni to'lash - avtomatik xarajat tranzaksiyasi yaratadi
-    public void payDebt(Long debtId) {
-        Optional<Debt> optionalDebt = debtRepository.findById(debtId);
-
-        if (optionalDebt.isPresent()) {
-            Debt debt = optionalDebt.get();
-
-            // 1. Qarz holatini "Paid" ga o'zgartirish
-            debt.setStatus("Paid");
-            debtRepository.save(debt);
-
-            // 2. Avtomatik xarajat tranzaksiyasi yaratish
-            Transaction expenseTransaction = new Transaction();
-            expenseTransaction.setDescription("Qarz to'landi: " + debt.getLenderName());
-            expenseTransaction.setAmount(debt.getAmount());
-            expenseTransaction.setType("Expense");
-            expenseTransaction.setCategory("Qarz to'lovi");
-            expenseTransaction.setDate(LocalDate.now());
+    // Qarzni to'lash - avtomatik xarajat tranzaksiyasi yaratadi (hammasi bitta DB tranzaksiyasida).
+    // Shartli UPDATE (faqat UNPAID bo'lsa): parallel bosishlar/qayta urinishlardan faqat bittasi
+    // xarajat yaratadi, qolganlari hech narsa qilmaydi. idempotencyKey (ixtiyoriy) - shu kalit bilan
+    // avval bajarilgan so'rov qayta kelsa, qarz holatiga qaramay darhol qaytiladi
+    @Transactional
+    public void payDebt(Long debtId, String idempotencyKey) {
+        Long userId = currentUserProvider.getCurrentUserId();
+        com.jorabek.finance_tracker.entity.User user = getCurrentUser();
+        if (idempotencyKey != null && !idempotencyService.claim(userId, idempotencyKey)) {
+            return;
+        }
 
-            // transactionService.saveTransaction handles setting user
-            transactionService.saveTransaction(expenseTransaction);
+        // 1. Qarz holatini PAID ga o'zgartirish (qator qulfi shu yerda olinadi: debt -> ledger tartibi)
+        if (debtRepository.markPaid(debtId, user) == 0) {
+            return;
         }
+        Debt debt = debtRepository.findByIdAndUser(debtId, user).orElseThrow();
+        ledgerService.ensureLedger(userId);
+        ledgerService.recordUnpaidDebt(userId, debt.getBaseAmountMinor(), -1);
+        aggregateCache.evict(userId);
+
+        // 2. Avtomatik xarajat tranzaksiyasi yaratish (qarz valyutasida, bugungi kurs bilan o'giriladi)
+        Transaction expenseTransaction = new Transaction();
+        expenseTransaction.setDescription("Qarz to'landi: " + debt.getLenderName());
+        expenseTransaction.setAmount(debt.getAmount());
+        expenseTransaction.setCurrency(debt.getCurrency());
+        expenseTransaction.setType(TransactionType.EXPENSE);
+        expenseTransaction.setCategory("Qarz to'lovi");
+        expenseTransaction.setDate(LocalDate.now());
+
+        // transactionService.saveTransaction handles setting user (shu tranzaksiyaga qo'shiladi)
+        transactionService.saveTransaction(expenseTransaction);
     }
 }
@@ -0,0 +1,454 @@
+package com.jorabek.finance_tracker.service;
+
+import com.jorabek.finance_tracker.config.SqlStatementCounter;
+import com.jorabek.finance_tracker.dto.ImportResult;
+import com.jorabek.finance_tracker.entity.CategoryLimit;
+import com.jorabek.finance_tracker.entity.CurrencyCode;
+import com.jorabek.finance_tracker.entity.Money;
+import com.jorabek.finance_tracker.repository.DailyCategoryTotalRepository;
+import com.jorabek.finance_tracker.repository.UserLedgerRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+// Valyuta kurslari (fx_rates) va asosiy valyutaga o'girish.
+// Kurslar xotirada (valyuta, kun) jadvali sifatida: har bir valyuta uchun birinchi kurs kunidan boshlab
+// kunma-kun oldinga to'ldirilgan massiv, shuning uchun convert() - O(1), so'rovsiz.
+// Summalar yozish paytida o'giriladi (base_amount), yig'malar va dashboard faqat shu ustunni o'qiydi.
+// Yangi kurslar yuklanganda eski yozuvlarning base qiymatlari DB tomonida (fx_convert, V11) qayta hisoblanadi.
+// Instansiyalar orasida: har bir yuklash fx_rates_state.version ni oshiradi (V12); chet valyutadagi summani
+// yozuvchi tranzaksiya lockCurrentRates() bilan versiyani qulflaydi va jadval eski bo'lsa qayta o'qiydi
+@Service
+public class FxRateService {
+
+    private static final Logger log = LoggerFactory.getLogger(FxRateService.class);
+
+    private static final String SELECT_RATES_SQL = "SELECT currency, rate_date, rate FROM fx_rates "
+            + "ORDER BY currency, rate_date";
+
+    // Qiymati o'zgarmagan qator qayta yozilmaydi (updated_at ham) - takroriy yuklash hech narsani o'zgartirmaydi
+    private static final String UPSERT_SQL = "INSERT INTO fx_rates (currency, rate_date, rate) VALUES (?, ?, ?) "
+            + "ON CONFLICT (currency, rate_date) DO UPDATE SET rate = EXCLUDED.rate, updated_at = now() "
+            + "WHERE fx_rates.rate <> EXCLUDED.rate";
+
+    private static final String NOW_SQL = "SELECT now()";
+
+    private static final String VERSION_SQL = "SELECT version FROM fx_rates_state WHERE id = 1";
+
+    // Yozuvchi commit qilguncha versiya oshmaydi (BUMP_VERSION_SQL shu qulfni kutadi)
+    private static final String LOCK_VERSION_SQL = VERSION_SQL + " FOR SHARE";
+
+    private static final String BUMP_VERSION_SQL = "UPDATE fx_rates_state SET version = version + 1 WHERE id = 1";
+
+    private static final String COUNT_CHANGED_SQL = "SELECT COUNT(*) FROM fx_rates WHERE updated_at >= ?";
+
+    // Asosiy valyutasidan boshqa valyutadagi yozuvi bor foydalanuvchilar (qayta hisoblash shular uchun)
+    private static final String FOREIGN_CURRENCY_USERS_SQL = "SELECT u.id FROM users u WHERE u.id > ? AND ("
+            + "EXISTS (SELECT 1 FROM transactions t WHERE t.user_id = u.id AND t.currency <> u.base_currency) "
+            + "OR EXISTS (SELECT 1 FROM debts d WHERE d.user_id = u.id AND d.currency <> u.base_currency) "
+            + "OR EXISTS (SELECT 1 FROM category_limits l WHERE l.user_id = u.id AND l.currency <> u.base_currency)) "
+            + "ORDER BY u.id LIMIT ?";
+
+    // Faqat qiymati o'zgargan qatorlar yoziladi; kursi umuman yo'q valyuta (NULL) o'zgarishsiz qoladi
+    private static final String REPRICE_TRANSACTIONS_SQL = "UPDATE transactions t SET base_amount = v.converted "
+            + "FROM (SELECT t2.id, fx_convert(t2.amount, t2.currency, u.base_currency, t2.date) AS converted "
+            + "      FROM transactions t2 JOIN users u ON u.id = t2.user_id "
+            + "      WHERE t2.user_id = ANY (?) AND t2.currency <> u.base_currency) v "
+            + "WHERE t.id = v.id AND v.converted IS NOT NULL AND t.base_amount <> v.converted";
+
+    private static final String REPRICE_DEBTS_SQL = "UPDATE debts d SET base_amount = v.converted "
+            + "FROM (SELECT d2.id, fx_convert(d2.amount, d2.currency, u.base_currency, d2.loan_date) AS converted "
+            + "      FROM debts d2 JOIN users u ON u.id = d2.user_id "
+            + "      WHERE d2.user_id = ANY (?) AND d2.currency <> u.base_currency) v "
+            + "WHERE d.id = v.id AND v.converted IS NOT NULL AND d.base_amount <> v.converted";
+
+    // Limitning sanasi yo'q - bugungi kurs (TransactionService.saveCategoryLimit bilan bir xil)
+    private static final String REPRICE_LIMITS_SQL = "UPDATE category_limits l SET base_limit_amount = v.converted "
+            + "FROM (SELECT l2.id, fx_convert(l2.limit_amount, l2.currency, u.base_currency, CURRENT_DATE) AS converted "
+            + "      FROM category_limits l2 JOIN users u ON u.id = l2.user_id "
+            + "      WHERE l2.user_id = ANY (?) AND l2.currency <> u.base_currency) v "
+            + "WHERE l.id = v.id AND v.converted IS NOT NULL AND l.base_limit_amount <> v.converted";
+
+    private static final DateTimeFormatter DOTTED_DATE = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+
+    // Bir valyuta jadvalining maksimal uzunligi (kunlarda, ~100 yil): xato sanali fayl xotirani to'ldirmasin
+    private static final int MAX_TABLE_DAYS = 36_600;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final UserLedgerRepository ledgerRepository;
+    private final DailyCategoryTotalRepository dailyTotalRepository;
+    private final AggregateCache aggregateCache;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ResourceLoader resourceLoader;
+    private final String ratesFile;
+    private final int chunkSize;
+    private final int batchSize;
+
+    // Har reload() da to'liq yangi nusxa (versiya + jadvallar) almashtiriladi: o'quvchilar qulfsiz,
+    // doim izchil nusxani ko'radi; eskiroq versiya hech qachon yangisining ustiga yozilmaydi
+    private volatile Rates rates = new Rates(-1L, new EnumMap<>(CurrencyCode.class));
+
+    @Autowired
+    public FxRateService(JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            UserLedgerRepository ledgerRepository,
+            DailyCategoryTotalRepository dailyTotalRepository,
+            AggregateCache aggregateCache,
+            EntityManagerFactory entityManagerFactory,
+            ResourceLoader resourceLoader,
+            @Value("${app.fx.rates-file:}") String ratesFile,
+            @Value("${app.ledger.reconcile.chunk-size:500}") int chunkSize,
+            @Value("${app.import.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.ledgerRepository = ledgerRepository;
+        this.dailyTotalRepository = dailyTotalRepository;
+        this.aggregateCache = aggregateCache;
+        this.entityManagerFactory = entityManagerFactory;
+        this.resourceLoader = resourceLoader;
+        this.ratesFile = ratesFile;
+        this.chunkSize = chunkSize;
+        this.batchSize = batchSize;
+    }
+
+    // minor units (from) -> minor units (to), date kunidagi kurs bilan, yarmi yuqoriga yaxlitlanadi.
+    // Kursi umuman yo'q valyuta - IllegalArgumentException (forma/import xatosi sifatida ko'rsatiladi)
+    public long convert(long amount, CurrencyCode from, CurrencyCode to, LocalDate date) {
+        if (from == to) {
+            return amount;
+        }
+        BigDecimal fromRate = rate(from, date);
+        BigDecimal toRate = rate(to, date);
+        return BigDecimal.valueOf(amount).multiply(fromRate).divide(toRate, 0, RoundingMode.HALF_UP)
+                .longValueExact();
+    }
+
+    public Money convert(Money amount, CurrencyCode from, CurrencyCode to, LocalDate date) {
+        return Money.ofMinor(convert(amount.getMinorUnits(), from, to, date));
+    }
+
+    // 1 birlik valyuta necha so'm (UZS - 1)
+    public BigDecimal rate(CurrencyCode currency, LocalDate date) {
+        if (currency == CurrencyCode.UZS) {
+            return BigDecimal.ONE;
+        }
+        RateTable table = rates.tables().get(currency);
+        if (table == null) {
+            throw new MissingFxRateException(currency);
+        }
+        return table.get(date);
+    }
+
+    // Har bir valyutaning eng oxirgi kursi va sanasi (admin sahifasi uchun)
+    public Map<CurrencyCode, Map.Entry<LocalDate, BigDecimal>> getLatestRates() {
+        Map<CurrencyCode, Map.Entry<LocalDate, BigDecimal>> latest = new EnumMap<>(CurrencyCode.class);
+        for (Map.Entry<CurrencyCode, RateTable> entry : rates.tables().entrySet()) {
+            RateTable table = entry.getValue();
+            latest.put(entry.getKey(), Map.entry(table.lastDate(), table.rates[table.rates.length - 1]));
+        }
+        return latest;
+    }
+
+    // Ishga tushganda: jadval yuklanadi, app.fx.rates-file berilgan bo'lsa - fayldan import.
+    // Import idempotent (o'zgarmagan kurs yozilmaydi), shuning uchun har instansiya ishga tushganda xavfsiz
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reload();
+        if (ratesFile == null || ratesFile.isBlank()) {
+            return;
+        }
+        Resource resource = resourceLoader.getResource(ratesFile);
+        if (!resource.exists()) {
+            log.warn("FX rates file not found: {}", ratesFile);
+            return;
+        }
+        try (InputStream input = resource.getInputStream()) {
+            ImportResult result = importRates(input);
+            log.info("FX rates file loaded: file={}, changed={}, rejected={}", ratesFile,
+                    result.getImportedCount(), result.getRejectedCount());
+        } catch (IOException e) {
+            log.warn("FX rates file could not be read: {}", ratesFile, e);
+        }
+    }
+
+    // Chet valyutadagi summani o'girib yozadigan tranzaksiya ichida, convert() dan oldin chaqiriladi.
+    // Versiya qatori FOR SHARE bilan commit'gacha qulflanadi: parallel yuklash versiyani shu yozuv commit
+    // bo'lgandan keyingina oshiradi va undan keyin qayta baholaydi, demak eski kurs bilan yozilgan qator
+    // albatta tuzatiladi. Versiya xotiradagidan farq qilsa (boshqa instansiyada yuklangan) jadval darhol
+    // qayta o'qiladi - davriy reload() ni kutmasdan
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void lockCurrentRates() {
+        Long version = jdbcTemplate.queryForObject(LOCK_VERSION_SQL, Long.class);
+        if (version != null && version != rates.version()) {
+            // Kamdan-kam (yuklashdan keyin instansiyada bir marta): so'rovning SQL chegarasiga kiritilmaydi
+            SqlStatementCounter.Stats stats = SqlStatementCounter.current();
+            SqlStatementCounter.attach(null);
+            try {
+                reload();
+            } finally {
+                SqlStatementCounter.attach(stats);
+            }
+        }
+    }
+
+    // Davriy qayta o'qish (admin sahifasi, kurs tekshiruvlari); yozuvlar uchun lockCurrentRates() yetarli.
+    // Versiya o'zgarmagan bo'lsa faqat bitta PK o'qish
+    @Scheduled(fixedDelayString = "${app.fx.refresh-interval:PT5M}", initialDelayString = "${app.fx.refresh-interval:PT5M}")
+    public void refresh() {
+        Long version = jdbcTemplate.queryForObject(VERSION_SQL, Long.class);
+        if (version != null && version != rates.version()) {
+            reload();
+        }
+    }
+
+    // Versiya kurslardan OLDIN o'qiladi: jadval kamida shu versiyadagi kurslarni o'z ichiga oladi
+    public void reload() {
+        Long version = jdbcTemplate.queryForObject(VERSION_SQL, Long.class);
+        Map<CurrencyCode, List<Object[]>> rows = new EnumMap<>(CurrencyCode.class);
+        jdbcTemplate.query(SELECT_RATES_SQL, rs -> {
+            rows.computeIfAbsent(CurrencyCode.fromCode(rs.getString(1)), key -> new ArrayList<>())
+                    .add(new Object[] { rs.getObject(2, LocalDate.class), rs.getBigDecimal(3) });
+        });
+
+        Map<CurrencyCode, RateTable> loaded = new EnumMap<>(CurrencyCode.class);
+        for (Map.Entry<CurrencyCode, List<Object[]>> entry : rows.entrySet()) {
+            loaded.put(entry.getKey(), RateTable.build(entry.getValue()));
+        }
+        install(new Rates(version != null ? version : 0L, loaded));
+    }
+
+    private synchronized void install(Rates loaded) {
+        if (loaded.version() >= rates.version()) {
+            rates = loaded;
+        }
+    }
+
+    // Format: date,currency,rate (masalan "2026-01-15,USD,12850.50"); sarlavha ixtiyoriy.
+    // Kurs = 1 birlik valyuta necha so'm. Kurslar batch bilan yoziladi; o'zgargan kurs bo'lsa versiya oshiriladi
+    // (eski kurslar bilan yozayotgan tranzaksiyalar commit bo'lishini kutadi), jadval qayta o'qiladi va
+    // chet valyutadagi yozuvlar (shu paytgacha yozilganlari ham) qayta baholanadi
+    public ImportResult importRates(InputStream input) throws IOException {
+        ImportResult result = new ImportResult();
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        // Batch natijasidagi qator sonlari reWriteBatchedInserts bilan ishonchsiz (SUCCESS_NO_INFO),
+        // shuning uchun o'zgarganlar keyin updated_at bo'yicha sanaladi (DB soati)
+        Timestamp started = jdbcTemplate.queryForObject(NOW_SQL, Timestamp.class);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            String line;
+            long lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || (lineNumber == 1 && line.toLowerCase().startsWith("date,"))) {
+                    continue;
+                }
+                try {
+                    batch.add(parseRow(line));
+                } catch (IllegalArgumentException e) {
+                    result.addError("Qator " + lineNumber + ": " + e.getMessage());
+                    continue;
+                }
+                if (batch.size() >= batchSize) {
+                    writeBatch(batch, result);
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            writeBatch(batch, result);
+        }
+
+        Long changed = jdbcTemplate.queryForObject(COUNT_CHANGED_SQL, Long.class, started);
+        // importedCount = haqiqatan qo'shilgan yoki o'zgargan kurslar
+        result.addImported(changed != null ? changed : 0L);
+
+        if (changed != null && changed > 0) {
+            jdbcTemplate.update(BUMP_VERSION_SQL);
+            reload();
+            repriceAll();
+        }
+        return result;
+    }
+
+    private void writeBatch(List<Object[]> batch, ImportResult result) {
+        try {
+            jdbcTemplate.batchUpdate(UPSERT_SQL, batch);
+        } catch (DataAccessException e) {
+            result.addErrors(batch.size(), "Kurslar yozilmadi: " + e.getMostSpecificCause().getMessage());
+        }
+    }
+
+    // Foydalanuvchilar bo'laklab, har bo'lak ikki tranzaksiyada:
+    // 1) limitlar (ledger qulfisiz: saveCategoryLimit avval ledgerni, keyin limit qatorini qulflaydi);
+    // 2) tranzaksiya va qarz qatorlari, keyin ledger qulfi (id tartibida) va ledger/kunlik yig'malar
+    //    xom jadvallardan qayta hisoblanadi. Yozuvchilar (o'chirish, qarz to'lash) ham avval qatorni,
+    //    keyin ledgerni qulflaydi - tartib bir xil, deadlock yo'q
+    private void repriceAll() {
+        long afterId = 0L;
+        long users = 0;
+        long rows = 0;
+
+        while (true) {
+            List<Long> userIds = jdbcTemplate.queryForList(FOREIGN_CURRENCY_USERS_SQL, Long.class, afterId,
+                    chunkSize);
+            if (userIds.isEmpty()) {
+                break;
+            }
+            Long[] ids = userIds.toArray(new Long[0]);
+
+            Integer limits = transactionTemplate.execute(status -> updateForUsers(REPRICE_LIMITS_SQL, ids));
+            Integer repriced = transactionTemplate.execute(status -> {
+                int count = updateForUsers(REPRICE_TRANSACTIONS_SQL, ids) + updateForUsers(REPRICE_DEBTS_SQL, ids);
+                ledgerRepository.lockLedgers(userIds);
+                ledgerRepository.reconcile(userIds);
+                dailyTotalRepository.reconcile(userIds);
+                dailyTotalRepository.deleteOrphans(userIds);
+                // Limitlar ham o'zgargan bo'lishi mumkin - ETag'lar baribir eskiradi
+                ledgerRepository.touch(userIds, Instant.now());
+                return count;
+            });
+            for (Long userId : userIds) {
+                aggregateCache.evict(userId);
+            }
+
+            users += userIds.size();
+            rows += (limits != null ? limits : 0) + (repriced != null ? repriced : 0);
+            afterId = userIds.get(userIds.size() - 1);
+        }
+
+        // category_limits Hibernate chetlab o'tib yangilandi: L2 va query keshidagi eski limitlar tashlanadi
+        entityManagerFactory.getCache().evict(CategoryLimit.class);
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+
+        log.info("FX repricing finished: users={}, rows={}", users, rows);
+    }
+
+    private int updateForUsers(String sql, Long[] userIds) {
+        return jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            statement.setArray(1, connection.createArrayOf("bigint", userIds));
+            return statement;
+        });
+    }
+
+    // {currency, date, rate}; faqat USD/EUR (UZS - tayanch valyuta, kursi doim 1)
+    private static Object[] parseRow(String line) {
+        String[] fields = line.split(",");
+        if (fields.length != 3) {
+            throw new IllegalArgumentException("3 ta ustun kutilgan (date,currency,rate), "
+                    + fields.length + " ta topildi");
+        }
+        LocalDate date = parseDate(fields[0].trim());
+        CurrencyCode currency = CurrencyCode.fromValue(fields[1]);
+        if (currency == CurrencyCode.UZS) {
+            throw new IllegalArgumentException("UZS kursi doim 1, faylda bo'lmasligi kerak");
+        }
+        BigDecimal rate;
+        try {
+            rate = new BigDecimal(fields[2].trim().replace(" ", ""));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("noto'g'ri kurs: " + fields[2]);
+        }
+        if (rate.signum() <= 0) {
+            throw new IllegalArgumentException("kurs musbat bo'lishi kerak: " + fields[2]);
+        }
+        return new Object[] { currency.getCode(), date, rate };
+    }
+
+    private static LocalDate parseDate(String value) {
+        try {
+            return value.indexOf('.') > 0 ? LocalDate.parse(value, DOTTED_DATE) : LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("noto'g'ri sana: " + value);
+        }
+    }
+
+    // Bitta valyuta: rates[i] = firstDay + i kunidagi kurs (kurssiz kunlar oldingi kurs bilan to'ldirilgan).
+    // Birinchi kursdan oldingi sanalar - birinchi kurs, oxirgisidan keyingilari - oxirgi kurs (V11 fx_rate bilan bir xil).
+    // MAX_TABLE_DAYS dan eski kurslar faqat jadval boshini to'ldirish uchun ishlatiladi
+    private static final class RateTable {
+
+        private final long firstDay;
+        private final BigDecimal[] rates;
+
+        private RateTable(long firstDay, BigDecimal[] rates) {
+            this.firstDay = firstDay;
+            this.rates = rates;
+        }
+
+        // rows: {LocalDate, BigDecimal}, sana bo'yicha o'sish tartibida
+        static RateTable build(List<Object[]> rows) {
+            long lastDay = ((LocalDate) rows.get(rows.size() - 1)[0]).toEpochDay();
+            long firstDay = Math.max(((LocalDate) rows.get(0)[0]).toEpochDay(), lastDay - MAX_TABLE_DAYS + 1);
+            BigDecimal[] rates = new BigDecimal[(int) (lastDay - firstDay + 1)];
+
+            BigDecimal current = null;
+            int filled = 0;
+            for (Object[] row : rows) {
+                long day = ((LocalDate) row[0]).toEpochDay();
+                if (day < firstDay) {
+                    current = (BigDecimal) row[1];
+                    continue;
+                }
+                int index = (int) (day - firstDay);
+                // Oldingi kurs bilan [filled, index) oralig'ini to'ldirish
+                for (; filled < index; filled++) {
+                    rates[filled] = current;
+                }
+                current = (BigDecimal) row[1];
+            }
+            for (; filled < rates.length; filled++) {
+                rates[filled] = current;
+            }
+            return new RateTable(firstDay, rates);
+        }
+
+        BigDecimal get(LocalDate date) {
+            long index = date.toEpochDay() - firstDay;
+            if (index <= 0) {
+                return rates[0];
+            }
+            return index >= rates.length ? rates[rates.length - 1] : rates[(int) index];
+        }
+
+        LocalDate lastDate() {
+            return LocalDate.ofEpochDay(firstDay + rates.length - 1);
+        }
+    }
+
+    private record Rates(long version, Map<CurrencyCode, RateTable> tables) {
+    }
+}
@@ -0,0 +1,56 @@
+package com.jorabek.finance_tracker.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+
+// Mijoz yuborgan idempotency kalitlari (forma yashirin maydoni yoki Idempotency-Key).
+// Kalit amal bilan bitta DB tranzaksiyasida yoziladi: amal bekor bo'lsa kalit ham yozilmaydi,
+// bir xil kalitli parallel so'rov esa birinchisi tugashini kutadi va keyin "band" javobini oladi.
+@Service
+public class IdempotencyService {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+
+    public static final int MAX_KEY_LENGTH = 64;
+
+    private static final String CLAIM_SQL = "INSERT INTO idempotency_keys (user_id, idem_key) VALUES (?, ?) "
+            + "ON CONFLICT (user_id, idem_key) DO NOTHING";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration retention;
+
+    @Autowired
+    public IdempotencyService(JdbcTemplate jdbcTemplate,
+            @Value("${app.idempotency.retention:P7D}") Duration retention) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.retention = retention;
+    }
+
+    // true - kalit yangi (amal bajarilsin), false - bu kalit bilan amal allaqachon bajarilgan
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean claim(Long userId, String key) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency kaliti 1-" + MAX_KEY_LENGTH + " belgi bo'lishi kerak");
+        }
+        return jdbcTemplate.update(CLAIM_SQL, userId, key) == 1;
+    }
+
+    // Eskirgan kalitlarni tozalash (har kuni 04:00)
+    @Scheduled(cron = "${app.idempotency.purge.cron:0 0 4 * * *}")
+    public void purgeExpired() {
+        int deleted = jdbcTemplate.update("DELETE FROM idempotency_keys WHERE created_at < ?",
+                Timestamp.from(Instant.now().minus(retention)));
+        log.info("Idempotency keys purged: deleted={}", deleted);
+    }
+}
@@ -0,0 +1,80 @@
+package com.jorabek.finance_tracker.service;
+
+import com.jorabek.finance_tracker.repository.DailyCategoryTotalRepository;
+import com.jorabek.finance_tracker.repository.UserLedgerRepository;
+import com.jorabek.finance_tracker.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+
+// Ledgerni va kunlik yig'malarni xom jadvallar (transactions, debts) bilan solishtirib, farqlarni tuzatadi.
+// Foydalanuvchilar id bo'yicha bo'laklab (keyset) olinadi, har bir bo'lak alohida tranzaksiyada.
+@Component
+public class LedgerReconciliationJob {
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerReconciliationJob.class);
+
+    private final UserRepository userRepository;
+    private final UserLedgerRepository ledgerRepository;
+    private final DailyCategoryTotalRepository dailyTotalRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    @Autowired
+    public LedgerReconciliationJob(UserRepository userRepository,
+            UserLedgerRepository ledgerRepository,
+            DailyCategoryTotalRepository dailyTotalRepository,
+            TransactionTemplate transactionTemplate,
+            @Value("${app.ledger.reconcile.chunk-size:500}") int chunkSize) {
+        this.userRepository = userRepository;
+        this.ledgerRepository = ledgerRepository;
+        this.dailyTotalRepository = dailyTotalRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = chunkSize;
+    }
+
+    @Scheduled(cron = "${app.ledger.reconcile.cron:0 30 3 * * *}")
+    public void reconcileAll() {
+        long afterId = 0L;
+        long processed = 0;
+        long repaired = 0;
+        long repairedDays = 0;
+
+        while (true) {
+            List<Long> userIds = userRepository.findIdsAfter(afterId, PageRequest.of(0, chunkSize));
+            if (userIds.isEmpty()) {
+                break;
+            }
+
+            // Yozuvchilar ham avval ledger qatorini qulflaydi, so'ng kunlik yig'mani yangilaydi
+            int[] fixed = transactionTemplate.execute(status -> {
+                ledgerRepository.lockLedgers(userIds);
+                int ledgers = ledgerRepository.reconcile(userIds);
+                int days = dailyTotalRepository.reconcile(userIds) + dailyTotalRepository.deleteOrphans(userIds);
+                // Ledger tuzatilsa versiya reconcile ichida oshadi; faqat kunlik yig'ma tuzatilganda - shu yerda
+                if (days > 0) {
+                    ledgerRepository.touch(userIds, Instant.now());
+                }
+                return new int[] { ledgers, days };
+            });
+
+            processed += userIds.size();
+            if (fixed != null) {
+                repaired += fixed[0];
+                repairedDays += fixed[1];
+            }
+            afterId = userIds.get(userIds.size() - 1);
+        }
+
+        log.info("Ledger reconciliation finished: users={}, repaired={}, repairedDailyTotals={}", processed,
+                repaired, repairedDays);
+    }
+}
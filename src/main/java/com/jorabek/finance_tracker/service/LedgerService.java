@@ -0,0 +1,155 @@
+package com.jorabek.finance_tracker.service;
+
+import com.jorabek.finance_tracker.entity.DailyCategoryTotal;
+import com.jorabek.finance_tracker.entity.Transaction;
+import com.jorabek.finance_tracker.entity.TransactionType;
+import com.jorabek.finance_tracker.entity.UserLedger;
+import com.jorabek.finance_tracker.repository.UserLedgerRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// Foydalanuvchi yig'ma hisobini (UserLedger) va kunlik yig'malarni (daily_category_totals) yuritish.
+// Yozish metodlari chaqiruvchining DB tranzaksiyasiga qo'shiladi (MANDATORY).
+// Tartib muhim: avval ledger qatori (qulf), keyin kunlik yig'ma - tuzatish jobi ham shu qulfni oladi.
+// Har bir yozuv ledger'dagi data_version'ni oshiradi (ETag: DataVersionService).
+@Service
+public class LedgerService {
+
+    // Kunlik yig'maga delta qo'shish (qator bo'lmasa yaratiladi)
+    private static final String UPSERT_DAILY_SQL = "INSERT INTO daily_category_totals "
+            + "(user_id, day, category, type, total_amount, tx_count) VALUES (?, ?, ?, ?, ?, ?) "
+            + "ON CONFLICT (user_id, day, category, type) DO UPDATE SET "
+            + "total_amount = daily_category_totals.total_amount + EXCLUDED.total_amount, "
+            + "tx_count = daily_category_totals.tx_count + EXCLUDED.tx_count";
+
+    // Oxirgi tranzaksiyasi o'chirilgan kun/kategoriya qatorini olib tashlash
+    private static final String DELETE_EMPTY_DAILY_SQL = "DELETE FROM daily_category_totals "
+            + "WHERE user_id = ? AND day = ? AND category = ? AND type = ? AND tx_count = 0";
+
+    // Ko'p foydalanuvchi ledgeriga bir so'rovda delta (takrorlanuvchi tranzaksiyalar jobi)
+    private static final String APPLY_DELTAS_SQL = "UPDATE user_ledgers l SET "
+            + "total_income = l.total_income + v.income, total_expense = l.total_expense + v.expense, "
+            + "income_count = l.income_count + v.income_count, expense_count = l.expense_count + v.expense_count, "
+            + "data_version = l.data_version + 1, updated_at = now() "
+            + "FROM unnest(?::bigint[], ?::bigint[], ?::bigint[], ?::bigint[], ?::bigint[]) "
+            + "AS v(user_id, income, expense, income_count, expense_count) "
+            + "WHERE l.user_id = v.user_id";
+
+    private final UserLedgerRepository ledgerRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public LedgerService(UserLedgerRepository ledgerRepository, JdbcTemplate jdbcTemplate) {
+        this.ledgerRepository = ledgerRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Ledger qatori bo'lmasa xom jadvallardan yaratiladi.
+    // O'zgarishdan OLDIN chaqirilishi kerak, aks holda yangi qator ikki marta hisoblanadi.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void ensureLedger(Long userId) {
+        if (!ledgerRepository.existsById(userId)) {
+            ledgerRepository.initializeFromRawTables(userId);
+        }
+    }
+
+    // ensureLedger ning ko'p foydalanuvchili varianti + ledger qatorlarini id tartibida qulflash.
+    // Bir nechta foydalanuvchiga birdan yozuvchilar (parallel job ishchilari) shu tartibda qulflagani uchun
+    // o'zaro deadlock bo'lmaydi. O'zgarishdan OLDIN chaqiriladi (ensureLedger kabi)
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void ensureAndLockLedgers(Collection<Long> userIds) {
+        ledgerRepository.initializeMissingFromRawTables(userIds);
+        ledgerRepository.lockLedgers(userIds);
+    }
+
+    // sign: +1 qo'shilganda, -1 o'chirilganda
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordTransaction(Long userId, Transaction transaction, int sign) {
+        long amount = sign * transaction.getBaseAmountMinor();
+        if (transaction.getType() == TransactionType.INCOME) {
+            ledgerRepository.applyDelta(userId, amount, 0L, 0L, sign, 0, 0, Instant.now());
+        } else if (transaction.getType() == TransactionType.EXPENSE) {
+            ledgerRepository.applyDelta(userId, 0L, amount, 0L, 0, sign, 0, Instant.now());
+        }
+
+        short type = transaction.getType().getCode();
+        jdbcTemplate.update(UPSERT_DAILY_SQL, userId, transaction.getDate(), transaction.getCategory(), type,
+                amount, sign);
+        if (sign < 0) {
+            jdbcTemplate.update(DELETE_EMPTY_DAILY_SQL, userId, transaction.getDate(), transaction.getCategory(),
+                    type);
+        }
+    }
+
+    // Ko'p tranzaksiya birdaniga qo'shilganda (import) - bitta yangilanish
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordTransactions(Long userId, long income, long expense, long incomeCount,
+            long expenseCount) {
+        ledgerRepository.applyDelta(userId, income, expense, 0L, incomeCount, expenseCount, 0, Instant.now());
+    }
+
+    // Ko'p foydalanuvchi: qiymat = {income, expense, incomeCount, expenseCount}; bitta UPDATE ... FROM unnest.
+    // ensureAndLockLedgers dan KEYIN chaqiriladi
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordTransactionsByUser(Map<Long, long[]> deltas) {
+        Long[] userIds = new Long[deltas.size()];
+        Long[][] columns = new Long[4][deltas.size()];
+        int i = 0;
+        for (Map.Entry<Long, long[]> entry : deltas.entrySet()) {
+            userIds[i] = entry.getKey();
+            for (int c = 0; c < columns.length; c++) {
+                columns[c][i] = entry.getValue()[c];
+            }
+            i++;
+        }
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(APPLY_DELTAS_SQL);
+            statement.setArray(1, connection.createArrayOf("bigint", userIds));
+            for (int c = 0; c < columns.length; c++) {
+                statement.setArray(c + 2, connection.createArrayOf("bigint", columns[c]));
+            }
+            return statement;
+        });
+    }
+
+    // Import: bo'lak oldindan (kun, kategoriya, tur) bo'yicha guruhlangan, qiymat = {summa, soni}.
+    // recordTransactions dan KEYIN chaqiriladi (ledger qulfi); bitta JDBC batch
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordDailyTotals(Map<DailyCategoryTotal.Key, long[]> totals) {
+        List<Object[]> batch = new ArrayList<>(totals.size());
+        for (Map.Entry<DailyCategoryTotal.Key, long[]> entry : totals.entrySet()) {
+            DailyCategoryTotal.Key key = entry.getKey();
+            batch.add(new Object[] { key.getUserId(), key.getDay(), key.getCategory(), key.getType(),
+                    entry.getValue()[0], entry.getValue()[1] });
+        }
+        jdbcTemplate.batchUpdate(UPSERT_DAILY_SQL, batch);
+    }
+
+    // To'lanmagan qarz qo'shildi (+1) yoki yopildi/o'chirildi (-1)
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordUnpaidDebt(Long userId, long amount, int sign) {
+        ledgerRepository.applyDelta(userId, 0L, 0L, sign * amount, 0, 0, sign, Instant.now());
+    }
+
+    // Summalarga ta'sir qilmaydigan yozuv (limit, to'langan qarz) - faqat versiya oshadi
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordChange(Long userId) {
+        ledgerRepository.touch(List.of(userId), Instant.now());
+    }
+
+    // O(1) primary-key o'qish
+    public Optional<UserLedger> findLedger(Long userId) {
+        return ledgerRepository.findById(userId);
+    }
+}
@@ -0,0 +1,13 @@
+package com.jorabek.finance_tracker.service;
+
+import com.jorabek.finance_tracker.entity.CurrencyCode;
+
+// Valyuta kursi hali kiritilmagan (FxRateService.rate). IllegalArgumentException'dan meros:
+// import (qator xatosi) va takrorlanuvchi job (kechiktirish) uni boshqa xatolar bilan birga ushlaydi,
+// controller esa aynan shu holatni foydalanuvchiga "valyuta xatosi" sifatida ko'rsatadi
+public class MissingFxRateException extends IllegalArgumentException {
+
+    public MissingFxRateException(CurrencyCode currency) {
+        super(currency + " uchun valyuta kursi kiritilmagan");
+    }
+}
@@ -0,0 +1,129 @@
+package com.jorabek.finance_tracker.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+
+// Summalarni (tiyinlarda, long) oraliq String yaratmasdan chaqiruvchining buferiga yozadi.
+// Natija avvalgi String.format("%,.2f") / "%.1f mln|mlrd" variantlari bilan bir xil
+// (guruhlash - bo'sh joy, kasr ajratgichi - nuqta, yaxlitlash - HALF_UP).
+public final class MoneyFormatter {
+
+    // Chegaralar tiyinlarda: 1 mln so'm = 100 000 000 tiyin
+    private static final long MLN = 100_000_000L;
+    private static final long MLRD = 100_000_000_000L;
+
+    private static final long[] POWERS_OF_TEN = new long[19];
+
+    static {
+        POWERS_OF_TEN[0] = 1L;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private MoneyFormatter() {
+    }
+
+    // 1 234 567.89 -> "1.2 mln", 12 345.60 -> "12 345.60"
+    public static StringBuilder appendSmart(StringBuilder out, long minorUnits) {
+        try {
+            appendSmart((Appendable) out, minorUnits);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out;
+    }
+
+    // 1 234 567.89 -> "1 234 567.89"
+    public static StringBuilder appendFull(StringBuilder out, long minorUnits) {
+        try {
+            appendFull((Appendable) out, minorUnits);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out;
+    }
+
+    // 1234567.89 (guruhlanmagan; CSV/JSON uchun, Money.toString bilan bir xil)
+    public static StringBuilder appendPlain(StringBuilder out, long minorUnits) {
+        try {
+            appendPlain((Appendable) out, minorUnits);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out;
+    }
+
+    public static void appendSmart(Appendable out, long minorUnits) throws IOException {
+        if (minorUnits == Long.MIN_VALUE) {
+            // Moduli long'ga sig'maydi; avvalgi Math.abs asosidagi kod ham to'liq formatga tushardi
+            appendFull(out, minorUnits);
+            return;
+        }
+        long abs = Math.abs(minorUnits);
+        if (abs >= MLRD) {
+            appendTenths(out, minorUnits < 0, abs, MLRD / 10);
+            out.append(" mlrd");
+        } else if (abs >= MLN) {
+            appendTenths(out, minorUnits < 0, abs, MLN / 10);
+            out.append(" mln");
+        } else {
+            appendFixed(out, minorUnits < 0, abs, true);
+        }
+    }
+
+    public static void appendFull(Appendable out, long minorUnits) throws IOException {
+        if (minorUnits == Long.MIN_VALUE) {
+            // Moduli long'ga sig'maydi - yagona holat, BigDecimal orqali
+            out.append(String.format("%,.2f", BigDecimal.valueOf(minorUnits, 2)).replace(",", " "));
+            return;
+        }
+        appendFixed(out, minorUnits < 0, Math.abs(minorUnits), true);
+    }
+
+    public static void appendPlain(Appendable out, long minorUnits) throws IOException {
+        if (minorUnits == Long.MIN_VALUE) {
+            out.append(BigDecimal.valueOf(minorUnits, 2).toPlainString());
+            return;
+        }
+        appendFixed(out, minorUnits < 0, Math.abs(minorUnits), false);
+    }
+
+    // Ikki xonali kasr: butun qism (ixtiyoriy guruhlash) + "." + tiyin
+    private static void appendFixed(Appendable out, boolean negative, long abs, boolean grouped)
+            throws IOException {
+        if (negative) {
+            out.append('-');
+        }
+        appendDigits(out, abs / 100, grouped);
+        long cents = abs % 100;
+        out.append('.');
+        out.append((char) ('0' + cents / 10));
+        out.append((char) ('0' + cents % 10));
+    }
+
+    // Bir xonali kasr; unit = kasrning bir birligi (tiyinlarda), yarmidan yuqoriga yaxlitlanadi
+    private static void appendTenths(Appendable out, boolean negative, long abs, long unit) throws IOException {
+        long tenths = abs / unit + (abs % unit >= unit / 2 ? 1 : 0);
+        if (negative) {
+            out.append('-');
+        }
+        appendDigits(out, tenths / 10, false);
+        out.append('.');
+        out.append((char) ('0' + tenths % 10));
+    }
+
+    private static void appendDigits(Appendable out, long value, boolean grouped) throws IOException {
+        int digits = 1;
+        while (digits < POWERS_OF_TEN.length && value >= POWERS_OF_TEN[digits]) {
+            digits++;
+        }
+        for (int i = digits - 1; i >= 0; i--) {
+            out.append((char) ('0' + (value / POWERS_OF_TEN[i]) % 10));
+            if (grouped && i > 0 && i % 3 == 0) {
+                out.append(' ');
+            }
+        }
+    }
+}
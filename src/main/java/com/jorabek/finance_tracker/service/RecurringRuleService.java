@@ -0,0 +1,101 @@
+package com.jorabek.finance_tracker.service;
+
+import com.jorabek.finance_tracker.entity.RecurrenceFrequency;
+import com.jorabek.finance_tracker.entity.RecurringRule;
+import com.jorabek.finance_tracker.repository.RecurringRuleRepository;
+import com.jorabek.finance_tracker.security.CurrentUserProvider;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Takrorlanuvchi qoidalar (CRUD). Tranzaksiyalarning o'zi RecurringTransactionJob'da yaratiladi:
+// o'tmishdagi start sanasi bilan qo'shilgan qoida keyingi ishga tushishda "yetib oladi"
+@Timed("finance.service")
+@Service
+public class RecurringRuleService {
+
+    private final RecurringRuleRepository ruleRepository;
+    private final CurrentUserProvider currentUserProvider;
+    private final FxRateService fxRateService;
+
+    @Autowired
+    public RecurringRuleService(RecurringRuleRepository ruleRepository, CurrentUserProvider currentUserProvider,
+            FxRateService fxRateService) {
+        this.ruleRepository = ruleRepository;
+        this.currentUserProvider = currentUserProvider;
+        this.fxRateService = fxRateService;
+    }
+
+    @Transactional(readOnly = true)
+    public List<RecurringRule> getRules() {
+        return ruleRepository.findAllByUserOrderByNextRunDateAscIdAsc(currentUserProvider.getCurrentUser());
+    }
+
+    // Yangi qoida; noto'g'ri qiymatlarda IllegalArgumentException (xabar foydalanuvchiga ko'rsatiladi)
+    @Transactional
+    public RecurringRule saveRule(RecurringRule rule) {
+        if (rule.getDescription() == null || rule.getDescription().isBlank()
+                || rule.getCategory() == null || rule.getCategory().isBlank()) {
+            throw new IllegalArgumentException("Tavsif va kategoriya bo'sh bo'lmasligi kerak");
+        }
+        if (rule.getType() == null || rule.getFrequency() == null) {
+            throw new IllegalArgumentException("Tur va takrorlanish tanlanishi kerak");
+        }
+        if (rule.getAmount().signum() <= 0) {
+            throw new IllegalArgumentException("Summa musbat bo'lishi kerak");
+        }
+        if (rule.getInterval() < 1) {
+            throw new IllegalArgumentException("Interval kamida 1 bo'lishi kerak");
+        }
+        if (rule.getStartDate() == null) {
+            rule.setStartDate(LocalDate.now());
+        }
+        if (rule.getEndDate() != null && rule.getEndDate().isBefore(rule.getStartDate())) {
+            throw new IllegalArgumentException("Tugash sanasi boshlanishdan oldin bo'lmasligi kerak");
+        }
+        // Valyuta kursi yo'q bo'lsa shu yerda rad etiladi, aks holda job qoidani har safar o'tkazib yuboradi
+        com.jorabek.finance_tracker.entity.CurrencyCode baseCurrency = currentUserProvider.getCurrentBaseCurrency();
+        if (rule.getCurrency() == null) {
+            rule.setCurrency(baseCurrency);
+        }
+        if (rule.getCurrency() != baseCurrency) {
+            // Boshqa instansiyada yuklangan kurslar ham ko'rinsin
+            fxRateService.lockCurrentRates();
+        }
+        fxRateService.convert(rule.getAmount(), rule.getCurrency(), baseCurrency, rule.getStartDate());
+
+        CronExpression cron = null;
+        if (rule.getFrequency() == RecurrenceFrequency.CUSTOM) {
+            // Noto'g'ri ifoda - CronExpression.parse IllegalArgumentException beradi
+            cron = CronExpression.parse(rule.getCron() != null ? rule.getCron().trim() : "");
+            rule.setCron(rule.getCron().trim());
+            rule.setInterval(1);
+        } else {
+            rule.setCron(null);
+        }
+        LocalDate first = rule.getFrequency().first(rule.getStartDate(), cron);
+        if (first == null) {
+            throw new IllegalArgumentException("Cron ifodasi hech qaysi sanaga mos kelmaydi: " + rule.getCron());
+        }
+
+        // Formadan kelgan id/holat e'tiborga olinmaydi
+        rule.setId(null);
+        rule.setDescription(rule.getDescription().trim());
+        rule.setCategory(rule.getCategory().trim());
+        rule.setNextRunDate(first);
+        rule.setActive(rule.getEndDate() == null || !first.isAfter(rule.getEndDate()));
+        rule.setUser(currentUserProvider.getCurrentUser());
+        return ruleRepository.save(rule);
+    }
+
+    // Qoidani o'chirish (faqat o'z qoidasini); yaratilgan tranzaksiyalar qoladi
+    @Transactional
+    public void deleteRule(Long id) {
+        ruleRepository.deleteByIdAndUser(id, currentUserProvider.getCurrentUser());
+    }
+}
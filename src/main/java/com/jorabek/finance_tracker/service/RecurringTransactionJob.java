@@ -0,0 +1,396 @@
+package com.jorabek.finance_tracker.service;
+
+import com.jorabek.finance_tracker.entity.CurrencyCode;
+import com.jorabek.finance_tracker.entity.DailyCategoryTotal;
+import com.jorabek.finance_tracker.entity.RecurrenceFrequency;
+import com.jorabek.finance_tracker.entity.TransactionType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+// Takrorlanuvchi qoidalardan (recurring_rules) muddati kelgan tranzaksiyalarni yaratadi.
+// Har bir ishchi tsikl bilan: muddati kelgan qoidalar bo'lagini FOR UPDATE SKIP LOCKED bilan oladi
+// (boshqa ishchi/instansiya olganlari o'tkazib yuboriladi), barcha sanalarni (uzilishdan keyin ham - catch-up)
+// bitta unnest INSERT bilan yozadi, ledger va kunlik yig'malarni yangilaydi, next_run_date ni suradi -
+// hammasi bitta DB tranzaksiyasida. (rule, sana) bo'yicha unique indeks qayta ishga tushishda dublikatga yo'l qo'ymaydi.
+// Har bir sana o'z kursi bilan egasining asosiy valyutasiga o'giriladi (FxRateService, xotiradagi jadval).
+// Kursi hali yo'q qoida retry-delay ga kechiktiriladi (retry_after, V13): navbat boshida qolib ketmaydi.
+@Component
+public class RecurringTransactionJob {
+
+    private static final Logger log = LoggerFactory.getLogger(RecurringTransactionJob.class);
+
+    // Asosiy valyuta JOIN emas, skalyar subquery bilan: FOR UPDATE users qatorlarini qulflamasin
+    private static final String CLAIM_SQL = "SELECT r.id, r.user_id, r.description, r.type, r.category, r.amount, "
+            + "r.currency, (SELECT u.base_currency FROM users u WHERE u.id = r.user_id) AS base_currency, "
+            + "r.frequency, r.interval_count, r.cron, r.start_date, r.end_date, r.next_run_date "
+            + "FROM recurring_rules r WHERE r.active AND r.next_run_date <= ? "
+            + "AND (r.retry_after IS NULL OR r.retry_after <= now()) "
+            + "ORDER BY r.next_run_date, r.id LIMIT ? FOR UPDATE SKIP LOCKED";
+
+    // Faqat haqiqatan qo'shilgan qatorlar qaytadi (ON CONFLICT - allaqachon yaratilgan sana)
+    private static final String INSERT_SQL = "INSERT INTO transactions "
+            + "(user_id, date, description, type, category, amount, currency, base_amount, recurring_rule_id) "
+            + "SELECT v.user_id, v.occurs_on, v.description, v.type, v.category, v.amount, v.currency, "
+            + "v.base_amount, v.rule_id "
+            + "FROM unnest(?::bigint[], ?::date[], ?::text[], ?::smallint[], ?::text[], ?::bigint[], ?::text[], "
+            + "?::bigint[], ?::bigint[]) "
+            + "AS v(user_id, occurs_on, description, type, category, amount, currency, base_amount, rule_id) "
+            + "ON CONFLICT (recurring_rule_id, date) WHERE recurring_rule_id IS NOT NULL DO NOTHING "
+            + "RETURNING user_id, date, category, type, base_amount";
+
+    private static final String ADVANCE_SQL = "UPDATE recurring_rules r SET next_run_date = v.next_run_date, "
+            + "active = v.active, retry_after = NULL FROM unnest(?::bigint[], ?::date[], ?::boolean[]) AS v(id, next_run_date, active) "
+            + "WHERE r.id = v.id";
+
+    private static final String DEFER_SQL = "UPDATE recurring_rules "
+            + "SET retry_after = now() + ? * INTERVAL '1 second' "
+            + "WHERE id = ANY (?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final LedgerService ledgerService;
+    private final AggregateCache aggregateCache;
+    private final FxRateService fxRateService;
+    private final AsyncTaskExecutor executor;
+    private final int workers;
+    private final int batchSize;
+    private final int maxOccurrencesPerRule;
+    private final Duration retryDelay;
+
+    private final Counter rulesProcessed;
+    private final Counter rulesDeferred;
+    private final Counter transactionsCreated;
+
+    @Autowired
+    public RecurringTransactionJob(JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            LedgerService ledgerService,
+            AggregateCache aggregateCache,
+            FxRateService fxRateService,
+            @Qualifier("recurringExecutor") AsyncTaskExecutor executor,
+            MeterRegistry meterRegistry,
+            @Value("${app.recurring.workers:4}") int workers,
+            @Value("${app.recurring.batch-size:500}") int batchSize,
+            @Value("${app.recurring.max-occurrences-per-rule:366}") int maxOccurrencesPerRule,
+            @Value("${app.recurring.retry-delay:PT1H}") Duration retryDelay) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.ledgerService = ledgerService;
+        this.aggregateCache = aggregateCache;
+        this.fxRateService = fxRateService;
+        this.executor = executor;
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.maxOccurrencesPerRule = maxOccurrencesPerRule;
+        this.retryDelay = retryDelay;
+
+        this.rulesProcessed = Counter.builder("finance.jobs.recurring.rules")
+                .description("Recurring rules processed")
+                .register(meterRegistry);
+        this.rulesDeferred = Counter.builder("finance.jobs.recurring.deferred")
+                .description("Recurring rules deferred because an FX rate is missing")
+                .register(meterRegistry);
+        this.transactionsCreated = Counter.builder("finance.jobs.recurring.transactions")
+                .description("Transactions materialized from recurring rules")
+                .register(meterRegistry);
+    }
+
+    // Har soatda (uzilishdan keyin ham): muddati kelgan qoidalar tugaguncha ishlaydi
+    @Scheduled(cron = "${app.recurring.cron:0 5 * * * *}")
+    public void materializeDue() {
+        LocalDate today = LocalDate.now();
+        List<Future<long[]>> tasks = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            tasks.add(executor.submit(() -> drain(today)));
+        }
+
+        long rules = 0;
+        long created = 0;
+        for (Future<long[]> task : tasks) {
+            try {
+                long[] result = task.get();
+                rules += result[0];
+                created += result[1];
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                // Qolgan qoidalarni boshqa ishchilar yoki keyingi ishga tushish oladi
+                log.error("Recurring transaction worker failed", e.getCause());
+            }
+        }
+        if (rules > 0) {
+            log.info("Recurring transactions materialized: date={}, rules={}, transactions={}", today, rules,
+                    created);
+        }
+    }
+
+    // Bitta ishchi: bo'sh bo'lak kelguncha (muddati kelgan, qulflanmagan qoida qolmaguncha)
+    private long[] drain(LocalDate today) {
+        long rules = 0;
+        long created = 0;
+        while (true) {
+            long[] batch = transactionTemplate.execute(status -> materializeBatch(today));
+            if (batch == null || batch[0] == 0) {
+                return new long[] { rules, created };
+            }
+            rules += batch[0];
+            created += batch[1];
+        }
+    }
+
+    // Bitta DB tranzaksiyasi; {surilgan va kechiktirilgan qoidalar soni, yaratilgan tranzaksiyalar}
+    private long[] materializeBatch(LocalDate today) {
+        List<DueRule> rules = jdbcTemplate.query(CLAIM_SQL, (rs, rowNum) -> new DueRule(rs.getLong("id"),
+                rs.getLong("user_id"), rs.getString("description"), rs.getShort("type"), rs.getString("category"),
+                rs.getLong("amount"), CurrencyCode.fromCode(rs.getString("currency")),
+                CurrencyCode.fromCode(rs.getString("base_currency")), rs.getShort("frequency"),
+                rs.getInt("interval_count"), rs.getString("cron"),
+                rs.getObject("start_date", LocalDate.class), rs.getObject("end_date", LocalDate.class),
+                rs.getObject("next_run_date", LocalDate.class)), today, batchSize);
+        if (rules.isEmpty()) {
+            return new long[] { 0, 0 };
+        }
+        // Chet valyutali qoida bo'lsa kurs versiyasi commit'gacha qulflanadi (parallel yuklash keyin qayta baholaydi)
+        for (DueRule rule : rules) {
+            if (rule.currency != rule.baseCurrency) {
+                fxRateService.lockCurrentRates();
+                break;
+            }
+        }
+
+        Occurrences occurrences = new Occurrences();
+        List<Object[]> advances = new ArrayList<>(rules.size());
+        List<Long> deferred = new ArrayList<>();
+        for (DueRule rule : rules) {
+            Object[] advance = collect(rule, today, occurrences);
+            if (advance != null) {
+                advances.add(advance);
+            } else {
+                deferred.add(rule.id);
+            }
+        }
+
+        long created = 0;
+        if (!occurrences.isEmpty()) {
+            // Ledger qatorlari (yo'q bo'lsa yaratiladi) INSERT dan oldin, id tartibida qulflanadi
+            ledgerService.ensureAndLockLedgers(occurrences.userIds());
+
+            Map<Long, long[]> ledgerDeltas = new TreeMap<>();
+            Map<DailyCategoryTotal.Key, long[]> dailyTotals = new HashMap<>();
+            List<Object[]> inserted = jdbcTemplate.query(occurrences::insertStatement, (rs, rowNum) -> new Object[] {
+                    rs.getLong(1), rs.getObject(2, LocalDate.class), rs.getString(3), rs.getShort(4), rs.getLong(5) });
+            for (Object[] row : inserted) {
+                Long userId = (Long) row[0];
+                short type = (Short) row[3];
+                long amount = (Long) row[4];
+                long[] delta = ledgerDeltas.computeIfAbsent(userId, id -> new long[4]);
+                if (type == TransactionType.INCOME.getCode()) {
+                    delta[0] += amount;
+                    delta[2]++;
+                } else {
+                    delta[1] += amount;
+                    delta[3]++;
+                }
+                long[] daily = dailyTotals.computeIfAbsent(
+                        new DailyCategoryTotal.Key(userId, (LocalDate) row[1], (String) row[2], type),
+                        key -> new long[2]);
+                daily[0] += amount;
+                daily[1]++;
+            }
+            if (!inserted.isEmpty()) {
+                ledgerService.recordTransactionsByUser(ledgerDeltas);
+                ledgerService.recordDailyTotals(dailyTotals);
+                for (Long userId : ledgerDeltas.keySet()) {
+                    aggregateCache.evict(userId);
+                }
+            }
+            created = inserted.size();
+        }
+
+        if (!advances.isEmpty()) {
+            advance(advances);
+        }
+        // Kursi yo'q qoidalar keyingi claim'larga tushmaydi: bo'lakdagi hammasi o'tkazib yuborilgan bo'lsa ham
+        // ishchi ortidagi qoidalarga o'tadi
+        if (!deferred.isEmpty()) {
+            defer(deferred);
+        }
+        rulesProcessed.increment(advances.size());
+        rulesDeferred.increment(deferred.size());
+        transactionsCreated.increment(created);
+        return new long[] { advances.size() + deferred.size(), created };
+    }
+
+    // Qoidaning bugungacha (end_date gacha) bo'lgan sanalari; {id, keyingi sana, faolmi} qaytaradi.
+    // Bir o'tishda ko'pi bilan maxOccurrencesPerRule ta - qolgani shu qoida keyingi bo'lakda olinganda.
+    // Kurs yo'q bo'lsa null (qoida surilmaydi, retry-delay ga kechiktiriladi)
+    private Object[] collect(DueRule rule, LocalDate today, Occurrences occurrences) {
+        RecurrenceFrequency frequency = RecurrenceFrequency.fromCode(rule.frequency);
+        CronExpression cron;
+        try {
+            cron = frequency == RecurrenceFrequency.CUSTOM ? CronExpression.parse(rule.cron) : null;
+        } catch (IllegalArgumentException e) {
+            // Saqlashda tekshiriladi; baribir buzilgan bo'lsa qoida o'chiriladi, ishchi to'xtamaydi
+            log.warn("Recurring rule {} disabled: invalid cron '{}'", rule.id, rule.cron);
+            return new Object[] { rule.id, rule.nextRunDate, false };
+        }
+
+        LocalDate date = rule.nextRunDate;
+        List<LocalDate> dates = new ArrayList<>();
+        List<Long> baseAmounts = new ArrayList<>();
+        try {
+            while (date != null && !date.isAfter(today) && (rule.endDate == null || !date.isAfter(rule.endDate))
+                    && dates.size() < maxOccurrencesPerRule) {
+                baseAmounts.add(fxRateService.convert(rule.amount, rule.currency, rule.baseCurrency, date));
+                dates.add(date);
+                date = frequency.next(rule.startDate, date, rule.interval, cron);
+            }
+        } catch (IllegalArgumentException e) {
+            // Valyuta kursi hali kiritilmagan: qoida surilmaydi, retry-delay o'tgach (kurslar yuklangach) qayta olinadi
+            log.warn("Recurring rule {} skipped: {}", rule.id, e.getMessage());
+            return null;
+        }
+        for (int i = 0; i < dates.size(); i++) {
+            occurrences.add(rule, dates.get(i), baseAmounts.get(i));
+        }
+        boolean active = date != null && (rule.endDate == null || !date.isAfter(rule.endDate));
+        return new Object[] { rule.id, date != null ? date : rule.nextRunDate, active };
+    }
+
+    private void advance(List<Object[]> advances) {
+        Long[] ids = new Long[advances.size()];
+        String[] nextDates = new String[advances.size()];
+        Boolean[] active = new Boolean[advances.size()];
+        for (int i = 0; i < ids.length; i++) {
+            Object[] advance = advances.get(i);
+            ids[i] = (Long) advance[0];
+            nextDates[i] = advance[1].toString();
+            active[i] = (Boolean) advance[2];
+        }
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(ADVANCE_SQL);
+            statement.setArray(1, connection.createArrayOf("bigint", ids));
+            statement.setArray(2, connection.createArrayOf("text", nextDates));
+            statement.setArray(3, connection.createArrayOf("boolean", active));
+            return statement;
+        });
+    }
+
+    private void defer(List<Long> ruleIds) {
+        Long[] ids = ruleIds.toArray(new Long[0]);
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(DEFER_SQL);
+            statement.setLong(1, retryDelay.toSeconds());
+            statement.setArray(2, connection.createArrayOf("bigint", ids));
+            return statement;
+        });
+    }
+
+    private static class DueRule {
+        private final long id;
+        private final long userId;
+        private final String description;
+        private final short type;
+        private final String category;
+        private final long amount;
+        private final CurrencyCode currency;
+        private final CurrencyCode baseCurrency;
+        private final short frequency;
+        private final int interval;
+        private final String cron;
+        private final LocalDate startDate;
+        private final LocalDate endDate;
+        private final LocalDate nextRunDate;
+
+        DueRule(long id, long userId, String description, short type, String category, long amount,
+                CurrencyCode currency, CurrencyCode baseCurrency, short frequency, int interval, String cron,
+                LocalDate startDate, LocalDate endDate, LocalDate nextRunDate) {
+            this.id = id;
+            this.userId = userId;
+            this.description = description;
+            this.type = type;
+            this.category = category;
+            this.amount = amount;
+            this.currency = currency;
+            this.baseCurrency = baseCurrency;
+            this.frequency = frequency;
+            this.interval = interval;
+            this.cron = cron;
+            this.startDate = startDate;
+            this.endDate = endDate;
+            this.nextRunDate = nextRunDate;
+        }
+    }
+
+    // unnest INSERT uchun ustunlar (har bir sana - bitta qator)
+    private static class Occurrences {
+        private final List<Long> userIds = new ArrayList<>();
+        private final List<String> dates = new ArrayList<>();
+        private final List<String> descriptions = new ArrayList<>();
+        private final List<Integer> types = new ArrayList<>();
+        private final List<String> categories = new ArrayList<>();
+        private final List<Long> amounts = new ArrayList<>();
+        private final List<String> currencies = new ArrayList<>();
+        private final List<Long> baseAmounts = new ArrayList<>();
+        private final List<Long> ruleIds = new ArrayList<>();
+
+        void add(DueRule rule, LocalDate date, long baseAmount) {
+            userIds.add(rule.userId);
+            dates.add(date.toString());
+            descriptions.add(rule.description);
+            types.add((int) rule.type);
+            categories.add(rule.category);
+            amounts.add(rule.amount);
+            currencies.add(rule.currency.getCode());
+            baseAmounts.add(baseAmount);
+            ruleIds.add(rule.id);
+        }
+
+        boolean isEmpty() {
+            return ruleIds.isEmpty();
+        }
+
+        List<Long> userIds() {
+            return userIds.stream().distinct().sorted().toList();
+        }
+
+        PreparedStatement insertStatement(Connection connection) throws SQLException {
+            PreparedStatement statement = connection.prepareStatement(INSERT_SQL);
+            statement.setArray(1, connection.createArrayOf("bigint", userIds.toArray(new Long[0])));
+            statement.setArray(2, connection.createArrayOf("text", dates.toArray(new String[0])));
+            statement.setArray(3, connection.createArrayOf("text", descriptions.toArray(new String[0])));
+            statement.setArray(4, connection.createArrayOf("int4", types.toArray(new Integer[0])));
+            statement.setArray(5, connection.createArrayOf("text", categories.toArray(new String[0])));
+            statement.setArray(6, connection.createArrayOf("bigint", amounts.toArray(new Long[0])));
+            statement.setArray(7, connection.createArrayOf("text", currencies.toArray(new String[0])));
+            statement.setArray(8, connection.createArrayOf("bigint", baseAmounts.toArray(new Long[0])));
+            statement.setArray(9, connection.createArrayOf("bigint", ruleIds.toArray(new Long[0])));
+            return statement;
+        }
+    }
+}
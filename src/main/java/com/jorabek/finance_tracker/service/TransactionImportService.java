@@ -0,0 +1,283 @@
+package com.jorabek.finance_tracker.service;
+
+import com.jorabek.finance_tracker.dto.ImportResult;
+import com.jorabek.finance_tracker.entity.CurrencyCode;
+import com.jorabek.finance_tracker.entity.DailyCategoryTotal;
+import com.jorabek.finance_tracker.entity.Money;
+import com.jorabek.finance_tracker.entity.TransactionType;
+import com.jorabek.finance_tracker.security.CurrentUserProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Bank ko'chirmalari va boshqa trackerlardan ommaviy CSV import.
+// Fayl qatorma-qator o'qiladi, qatorlar JDBC batch bilan bo'laklab (har biri alohida tranzaksiyada) yoziladi.
+// Hibernate chetlab o'tiladi: generatsiya qilingan id qaytarilmaydi, shuning uchun IDENTITY ustuni
+// batchingga to'sqinlik qilmaydi (pgjdbc reWriteBatchedInserts bilan ko'p qatorli INSERT).
+@Service
+public class TransactionImportService {
+
+    private static final String INSERT_SQL = "INSERT INTO transactions "
+            + "(user_id, date, description, type, category, amount, currency, base_amount) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final DateTimeFormatter DOTTED_DATE = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final LedgerService ledgerService;
+    private final CurrentUserProvider currentUserProvider;
+    private final AggregateCache aggregateCache;
+    private final FxRateService fxRateService;
+    private final int batchSize;
+
+    @Autowired
+    public TransactionImportService(JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            LedgerService ledgerService,
+            CurrentUserProvider currentUserProvider,
+            AggregateCache aggregateCache,
+            FxRateService fxRateService,
+            @Value("${app.import.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.ledgerService = ledgerService;
+        this.currentUserProvider = currentUserProvider;
+        this.aggregateCache = aggregateCache;
+        this.fxRateService = fxRateService;
+        this.batchSize = batchSize;
+    }
+
+    // Qabul qilinadigan format (eksport bilan bir xil): [ID,]Date,Description,Type,Category,Amount[,Currency].
+    // Valyutasiz qator - asosiy valyutada; har qator o'z sanasi kursi bilan o'giriladi (xotiradagi jadval,
+    // bo'lak tranzaksiyasi ichida - FxRateService.lockCurrentRates)
+    public ImportResult importCsv(InputStream input) throws IOException {
+        Long userId = currentUserProvider.getCurrentUserId();
+        CurrencyCode baseCurrency = currentUserProvider.getCurrentBaseCurrency();
+        ImportResult result = new ImportResult();
+        List<ImportRow> chunk = new ArrayList<>(batchSize);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            String line;
+            long lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || (lineNumber == 1 && isHeader(line))) {
+                    continue;
+                }
+
+                try {
+                    chunk.add(parseRow(line, lineNumber, baseCurrency));
+                } catch (IllegalArgumentException e) {
+                    result.addError("Qator " + lineNumber + ": " + e.getMessage());
+                    continue;
+                }
+
+                if (chunk.size() >= batchSize) {
+                    writeChunk(userId, baseCurrency, chunk, result);
+                    chunk.clear();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            writeChunk(userId, baseCurrency, chunk, result);
+        }
+        return result;
+    }
+
+    // Bitta bo'lak = bitta DB tranzaksiyasi: batch INSERT + ledger va kunlik yig'malar yangilanishi.
+    // DB xatosi faqat shu bo'lakni bekor qiladi, import davom etadi.
+    // Summalar shu tranzaksiya ichida o'giriladi: chet valyutali qator bo'lsa kurs versiyasi qulflanadi, parallel
+    // kurs yuklash esa commit'dan keyin qayta baholaydi. Kursi yo'q qator o'tkazib yuboriladi (qator xatosi)
+    private void writeChunk(Long userId, CurrencyCode baseCurrency, List<ImportRow> chunk, ImportResult result) {
+        List<String> rateErrors = new ArrayList<>();
+        try {
+            Integer written = transactionTemplate.execute(status -> {
+                rateErrors.clear();
+                boolean foreign = false;
+                for (ImportRow row : chunk) {
+                    foreign |= row.currency != baseCurrency;
+                }
+                if (foreign) {
+                    fxRateService.lockCurrentRates();
+                }
+                List<PricedRow> rows = new ArrayList<>(chunk.size());
+                for (ImportRow row : chunk) {
+                    try {
+                        rows.add(new PricedRow(row,
+                                fxRateService.convert(row.amount, row.currency, baseCurrency, row.date)));
+                    } catch (IllegalArgumentException e) {
+                        rateErrors.add("Qator " + row.lineNumber + ": " + e.getMessage());
+                    }
+                }
+                if (rows.isEmpty()) {
+                    return 0;
+                }
+
+                ledgerService.ensureLedger(userId);
+                jdbcTemplate.batchUpdate(INSERT_SQL, rows, rows.size(), (ps, priced) -> {
+                    ImportRow row = priced.row;
+                    ps.setLong(1, userId);
+                    ps.setObject(2, row.date);
+                    ps.setString(3, row.description);
+                    ps.setShort(4, row.type.getCode());
+                    ps.setString(5, row.category);
+                    ps.setLong(6, row.amount);
+                    ps.setString(7, row.currency.getCode());
+                    ps.setLong(8, priced.baseAmount);
+                });
+
+                long income = 0L;
+                long expense = 0L;
+                long incomeCount = 0;
+                long expenseCount = 0;
+                Map<DailyCategoryTotal.Key, long[]> dailyTotals = new HashMap<>();
+                for (PricedRow priced : rows) {
+                    ImportRow row = priced.row;
+                    long baseAmount = priced.baseAmount;
+                    long[] daily = dailyTotals.computeIfAbsent(
+                            new DailyCategoryTotal.Key(userId, row.date, row.category, row.type.getCode()),
+                            key -> new long[2]);
+                    daily[0] += baseAmount;
+                    daily[1]++;
+                    if (row.type == TransactionType.INCOME) {
+                        income += baseAmount;
+                        incomeCount++;
+                    } else {
+                        expense += baseAmount;
+                        expenseCount++;
+                    }
+                }
+                ledgerService.recordTransactions(userId, income, expense, incomeCount, expenseCount);
+                ledgerService.recordDailyTotals(dailyTotals);
+                aggregateCache.evict(userId);
+                return rows.size();
+            });
+            result.addImported(written != null ? written : 0);
+            for (String error : rateErrors) {
+                result.addError(error);
+            }
+        } catch (DataAccessException e) {
+            result.addErrors(chunk.size(), "Qatorlar " + chunk.get(0).lineNumber + "-"
+                    + chunk.get(chunk.size() - 1).lineNumber + ": " + e.getMostSpecificCause().getMessage());
+        }
+    }
+
+    private static boolean isHeader(String line) {
+        String lower = line.toLowerCase();
+        return lower.startsWith("id,") || lower.startsWith("date,");
+    }
+
+    private ImportRow parseRow(String line, long lineNumber, CurrencyCode baseCurrency) {
+        List<String> fields = splitCsvLine(line);
+        // 6 ustun: eksport fayli (ID + 5) yoki ID'siz qator + valyuta - oxirgi maydon bo'yicha ajratiladi
+        CurrencyCode currency = baseCurrency;
+        if (fields.size() == 7 || (fields.size() == 6 && isCurrency(fields.get(5)))) {
+            currency = CurrencyCode.fromValue(fields.get(fields.size() - 1));
+            fields = fields.subList(0, fields.size() - 1);
+        }
+        // ID ustuni (eksport fayli) e'tiborga olinmaydi
+        if (fields.size() == 6) {
+            fields = fields.subList(1, 6);
+        }
+        if (fields.size() != 5) {
+            throw new IllegalArgumentException("5, 6 yoki 7 ta ustun kutilgan, " + fields.size() + " ta topildi");
+        }
+
+        String description = fields.get(1).trim();
+        String category = fields.get(3).trim();
+        if (description.isEmpty()) {
+            throw new IllegalArgumentException("tavsif bo'sh");
+        }
+        if (category.isEmpty()) {
+            throw new IllegalArgumentException("kategoriya bo'sh");
+        }
+        LocalDate date = parseDate(fields.get(0).trim());
+        long amount = parseAmount(fields.get(4));
+        return new ImportRow(lineNumber, date, description, TransactionType.fromValue(fields.get(2)), category,
+                amount, currency);
+    }
+
+    private static boolean isCurrency(String value) {
+        try {
+            CurrencyCode.fromValue(value);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static LocalDate parseDate(String value) {
+        try {
+            return value.indexOf('.') > 0 ? LocalDate.parse(value, DOTTED_DATE) : LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("noto'g'ri sana: " + value);
+        }
+    }
+
+    // Tiyinlarda qaytaradi; "1 000 000.50" kabi guruhlangan summalarni ham qabul qilamiz
+    private static long parseAmount(String value) {
+        Money amount = Money.parse(value);
+        if (!amount.isPositive()) {
+            throw new IllegalArgumentException("summa musbat bo'lishi kerak: " + value);
+        }
+        return amount.getMinorUnits();
+    }
+
+    // Oddiy RFC 4180 ajratish: qo'shtirnoqli maydonlar va "" ichidagi qochirilgan qo'shtirnoq
+    private static List<String> splitCsvLine(String line) {
+        List<String> fields = new ArrayList<>(6);
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("yopilmagan qo'shtirnoq");
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+
+    private record ImportRow(long lineNumber, LocalDate date, String description, TransactionType type, String category,
+            long amount, CurrencyCode currency) {
+    }
+
+    private record PricedRow(ImportRow row, long baseAmount) {
+    }
+}
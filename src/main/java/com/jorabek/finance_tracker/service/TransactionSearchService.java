@@ -0,0 +1,175 @@
+package com.jorabek.finance_tracker.service;
+
+import com.jorabek.finance_tracker.dto.TransactionDTO;
+import com.jorabek.finance_tracker.dto.TransactionPage;
+import com.jorabek.finance_tracker.entity.CurrencyCode;
+import com.jorabek.finance_tracker.entity.Money;
+import com.jorabek.finance_tracker.entity.TransactionType;
+import com.jorabek.finance_tracker.security.CurrentUserProvider;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+// Tavsif va kategoriya bo'yicha qidiruv (V10: search_vector / search_text generated ustunlari, GIN indekslar).
+// Har bir so'z prefiks sifatida (to_tsquery 'so''z:*'), butun so'rov esa xatolarga chidamli
+// trigram o'xshashligi (<%) bilan izlanadi; natija sana/summa/tur filtrlari bilan birlashtiriladi.
+// Tartib - ro'yxatdagidek (sana, id) kamayish bo'yicha, keyset kursor bilan.
+@Timed("finance.service")
+@Service
+public class TransactionSearchService {
+
+    // O'zbek lotin yozuvidagi apostrof variantlari; V10 dagi search_normalize bilan bir xil
+    private static final String APOSTROPHES = "'`ʻʼ‘’";
+
+    // Bundan qisqa so'rovda trigramlar kam - faqat prefiks qidiruv
+    private static final int MIN_FUZZY_LENGTH = 3;
+
+    // So'rovdagi so'zlar soni chegarasi (tsquery hajmi)
+    private static final int MAX_TERMS = 8;
+
+    private static final String SELECT_SQL = "SELECT t.id, t.date, t.description, t.type, t.category, t.amount, "
+            + "t.currency, t.base_amount FROM transactions t WHERE t.user_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CurrentUserProvider currentUserProvider;
+
+    @Autowired
+    public TransactionSearchService(JdbcTemplate jdbcTemplate, CurrentUserProvider currentUserProvider) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.currentUserProvider = currentUserProvider;
+    }
+
+    // query bo'sh bo'lsa - faqat filtrlar. Har bir filtr ixtiyoriy (null).
+    // Kursor: oldingi sahifa oxirgi qatorining "sana_id" juftligi (getTransactionPage bilan bir xil)
+    @Transactional(readOnly = true)
+    public TransactionPage search(String query, LocalDate from, LocalDate to, TransactionType type,
+            Money minAmount, Money maxAmount, String cursor) {
+        Long userId = currentUserProvider.getCurrentUserId();
+        StringBuilder sql = new StringBuilder(SELECT_SQL);
+        List<Object> args = new ArrayList<>();
+        args.add(userId);
+
+        String normalized = normalize(query);
+        String prefixQuery = toPrefixQuery(normalized);
+        if (prefixQuery != null) {
+            if (normalized.length() >= MIN_FUZZY_LENGTH) {
+                sql.append(" AND (t.search_vector @@ to_tsquery('simple', ?) OR ? <% t.search_text)");
+                args.add(prefixQuery);
+                args.add(normalized);
+            } else {
+                sql.append(" AND t.search_vector @@ to_tsquery('simple', ?)");
+                args.add(prefixQuery);
+            }
+        }
+        if (from != null) {
+            sql.append(" AND t.date >= ?");
+            args.add(from);
+        }
+        if (to != null) {
+            sql.append(" AND t.date <= ?");
+            args.add(to);
+        }
+        if (type != null) {
+            sql.append(" AND t.type = ?");
+            args.add(type.getCode());
+        }
+        // Summa filtrlari asosiy valyutada (ro'yxatdagi summa saralashi bilan bir xil)
+        if (minAmount != null) {
+            sql.append(" AND t.base_amount >= ?");
+            args.add(minAmount.getMinorUnits());
+        }
+        if (maxAmount != null) {
+            sql.append(" AND t.base_amount <= ?");
+            args.add(maxAmount.getMinorUnits());
+        }
+        Object[] position = parseCursor(cursor);
+        if (position != null) {
+            sql.append(" AND (t.date, t.id) < (?, ?)");
+            args.add(position[0]);
+            args.add(position[1]);
+        }
+        // Bitta ortiqcha qator: keyingi sahifa bor-yo'qligini bilish uchun
+        sql.append(" ORDER BY t.date DESC, t.id DESC LIMIT ").append(TransactionService.PAGE_SIZE + 1);
+
+        List<TransactionDTO> rows = jdbcTemplate.query(sql.toString(),
+                (rs, rowNum) -> new TransactionDTO(rs.getLong(1), rs.getObject(2, LocalDate.class), rs.getString(3),
+                        TransactionType.fromCode(rs.getShort(4)), rs.getString(5), rs.getLong(6),
+                        CurrencyCode.fromCode(rs.getString(7)), rs.getLong(8)),
+                args.toArray());
+
+        String nextCursor = null;
+        if (rows.size() > TransactionService.PAGE_SIZE) {
+            rows = rows.subList(0, TransactionService.PAGE_SIZE);
+            TransactionDTO last = rows.get(TransactionService.PAGE_SIZE - 1);
+            nextCursor = last.getDate() + "_" + last.getId();
+        }
+        return new TransactionPage(rows, "date", "desc", nextCursor);
+    }
+
+    // Kichik harf, apostroflar olib tashlanadi, harf/raqam bo'lmagan belgilar - bo'sh joy
+    static String normalize(String query) {
+        if (query == null) {
+            return "";
+        }
+        StringBuilder out = new StringBuilder(query.length());
+        boolean space = true;
+        for (int i = 0; i < query.length(); i++) {
+            char c = query.charAt(i);
+            if (APOSTROPHES.indexOf(c) >= 0) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                out.append(Character.toLowerCase(c));
+                space = false;
+            } else if (!space) {
+                out.append(' ');
+                space = true;
+            }
+        }
+        int length = out.length();
+        if (length > 0 && out.charAt(length - 1) == ' ') {
+            out.setLength(length - 1);
+        }
+        return out.toString();
+    }
+
+    // "oziq bozor" -> "oziq:* & bozor:*"; so'zlar faqat harf/raqam, shuning uchun tsquery sintaksisi buzilmaydi
+    static String toPrefixQuery(String normalized) {
+        if (normalized.isEmpty()) {
+            return null;
+        }
+        String[] terms = normalized.split(" ");
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < terms.length && i < MAX_TERMS; i++) {
+            if (i > 0) {
+                out.append(" & ");
+            }
+            out.append(terms[i]).append(":*");
+        }
+        return out.toString();
+    }
+
+    // "sana_id" -> {LocalDate, Long}; noto'g'ri kursor - birinchi sahifa
+    private static Object[] parseCursor(String cursor) {
+        if (cursor == null) {
+            return null;
+        }
+        int separator = cursor.lastIndexOf('_');
+        if (separator <= 0 || separator == cursor.length() - 1) {
+            return null;
+        }
+        try {
+            return new Object[] { LocalDate.parse(cursor.substring(0, separator)),
+                    Long.valueOf(cursor.substring(separator + 1)) };
+        } catch (NumberFormatException | DateTimeParseException e) {
+            return null;
+        }
+    }
+}
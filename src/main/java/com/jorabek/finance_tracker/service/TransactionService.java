@@ -1,46 +1,101 @@
 package com.jorabek.finance_tracker.service;
 
+import com.jorabek.finance_tracker.dto.TransactionDTO;
 import com.jorabek.finance_tracker.entity.CategoryLimit;
+import com.jorabek.finance_tracker.entity.Money;
 import com.jorabek.finance_tracker.entity.Transaction;
 import com.jorabek.finance_tracker.repository.CategoryLimitRepository;
+import com.jorabek.finance_tracker.repository.DailyCategoryTotalRepository;
 import com.jorabek.finance_tracker.repository.TransactionRepository;
+import com.jorabek.finance_tracker.security.CurrentUserProvider;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
+// Har bir public metod: finance.service taymeri (teglar: class, method, exception)
+@Timed("finance.service")
 @Service
 public class TransactionService {
 
+    // Dashboard jadvalidagi bitta sahifa hajmi
+    public static final int PAGE_SIZE = 50;
+
+    // Keyset sahifalash faqat composite index mavjud kalitlar bo'yicha: (user_id, <kalit>, id)
+    private static final Set<String> PAGEABLE_SORT_KEYS = Set.of("date", "amount");
+
+    // CSV eksportda har necha qatordan keyin javob oqimi flush qilinadi
+    private static final int CSV_FLUSH_INTERVAL = 1000;
+
+    // Vaqt qatori: API parametri -> qadam (date_trunc maydoni SERIES_TRUNC_FIELDS da)
+    private static final java.util.Map<String, java.time.temporal.ChronoUnit> SERIES_GRANULARITIES = java.util.Map.of(
+            "day", java.time.temporal.ChronoUnit.DAYS,
+            "week", java.time.temporal.ChronoUnit.WEEKS,
+            "month", java.time.temporal.ChronoUnit.MONTHS);
+    private static final java.util.Map<java.time.temporal.ChronoUnit, String> SERIES_TRUNC_FIELDS = java.util.Map.of(
+            java.time.temporal.ChronoUnit.DAYS, "day",
+            java.time.temporal.ChronoUnit.WEEKS, "week",
+            java.time.temporal.ChronoUnit.MONTHS, "month");
+    private static final int MAX_SERIES_POINTS = 1000;
+
+    // Grafik yorliqlari (formatterlar thread-safe, bir marta yaratiladi)
+    static final java.time.format.DateTimeFormatter DAY_LABEL = java.time.format.DateTimeFormatter.ofPattern("dd.MM");
+    static final java.time.format.DateTimeFormatter MONTH_LABEL = java.time.format.DateTimeFormatter
+            .ofPattern("MM.yyyy");
+
+    // Birinchi sahifa uchun kursor chegaralari (barcha qatorlardan oldin/keyin)
+    private static final java.time.LocalDate MIN_DATE = java.time.LocalDate.of(1, 1, 1);
+    private static final java.time.LocalDate MAX_DATE = java.time.LocalDate.of(9999, 12, 31);
+
     private final TransactionRepository transactionRepository;
     private final CategoryLimitRepository categoryLimitRepository;
-    private final com.jorabek.finance_tracker.repository.UserRepository userRepository;
+    private final DailyCategoryTotalRepository dailyTotalRepository;
+    private final CurrentUserProvider currentUserProvider;
+    private final LedgerService ledgerService;
+    private final AggregateCache aggregateCache;
+    private final FxRateService fxRateService;
 
     @Autowired
     public TransactionService(TransactionRepository transactionRepository,
             CategoryLimitRepository categoryLimitRepository,
-            com.jorabek.finance_tracker.repository.UserRepository userRepository) {
+            DailyCategoryTotalRepository dailyTotalRepository,
+            CurrentUserProvider currentUserProvider,
+            LedgerService ledgerService,
+            AggregateCache aggregateCache,
+            FxRateService fxRateService) {
         this.transactionRepository = transactionRepository;
         this.categoryLimitRepository = categoryLimitRepository;
-        this.userRepository = userRepository;
+        this.dailyTotalRepository = dailyTotalRepository;
+        this.currentUserProvider = currentUserProvider;
+        this.ledgerService = ledgerService;
+        this.aggregateCache = aggregateCache;
+        this.fxRateService = fxRateService;
     }
 
+    // users jadvaliga so'rov yubormaydi: principal'dagi id bo'yicha proxy
     private com.jorabek.finance_tracker.entity.User getCurrentUser() {
-        String username = org.springframework.security.core.context.SecurityContextHolder.getContext()
-                .getAuthentication().getName();
-        return userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found: " + username));
+        return currentUserProvider.getCurrentUser();
     }
 
     // Barcha tranzaksiyalarni olish (User va Sorting bilan)
     public List<Transaction> getAllTransactions(String sortBy, String direction) {
         com.jorabek.finance_tracker.entity.User user = getCurrentUser();
-        if (sortBy == null || sortBy.isEmpty()) {
+        // Foydalanuvchi kiritgan ustun nomi to'g'ridan-to'g'ri Sort ga berilmaydi
+        if (sortBy == null || !PAGEABLE_SORT_KEYS.contains(sortBy)) {
             return transactionRepository.findAllByUserOrderByDateDesc(user);
         }
 
-        org.springframework.data.domain.Sort sort = org.springframework.data.domain.Sort.by(sortBy);
+        // Summa - asosiy valyutadagi qiymat bo'yicha (keyset sahifalash bilan bir xil)
+        String property = "amount".equals(sortBy) ? "baseAmount" : sortBy;
+        org.springframework.data.domain.Sort sort = org.springframework.data.domain.Sort.by(property, "id");
         if ("asc".equalsIgnoreCase(direction)) {
             sort = sort.ascending();
         } else {
@@ -50,6 +105,65 @@ public class TransactionService {
         return transactionRepository.findAllByUser(user, sort);
     }
 
+    // Keyset sahifa: kursor = oldingi sahifa oxirgi qatorining (kalit, id) juftligi
+    @Transactional(readOnly = true)
+    public com.jorabek.finance_tracker.dto.TransactionPage getTransactionPage(String sortBy, String direction,
+            String cursor) {
+        return getTransactionPage(getCurrentUser(), sortBy, direction, cursor);
+    }
+
+    com.jorabek.finance_tracker.dto.TransactionPage getTransactionPage(com.jorabek.finance_tracker.entity.User user,
+            String sortBy, String direction, String cursor) {
+        String sortKey = sortBy != null && PAGEABLE_SORT_KEYS.contains(sortBy) ? sortBy : "date";
+        boolean ascending = "asc".equalsIgnoreCase(direction);
+        String[] position = splitCursor(cursor);
+        // Bitta ortiqcha qator: keyingi sahifa bor-yo'qligini bilish uchun
+        org.springframework.data.domain.Pageable limit = org.springframework.data.domain.PageRequest.of(0,
+                PAGE_SIZE + 1);
+
+        List<TransactionDTO> rows;
+        try {
+            Long id = position != null ? Long.valueOf(position[1]) : (ascending ? Long.MIN_VALUE : Long.MAX_VALUE);
+            if ("amount".equals(sortKey)) {
+                long amount = position != null ? Long.parseLong(position[0])
+                        : (ascending ? Long.MIN_VALUE : Long.MAX_VALUE);
+                rows = ascending
+                        ? transactionRepository.findPageByAmountAsc(user, amount, id, limit)
+                        : transactionRepository.findPageByAmountDesc(user, amount, id, limit);
+            } else {
+                java.time.LocalDate date = position != null ? java.time.LocalDate.parse(position[0])
+                        : (ascending ? MIN_DATE : MAX_DATE);
+                rows = ascending
+                        ? transactionRepository.findPageByDateAsc(user, date, id, limit)
+                        : transactionRepository.findPageByDateDesc(user, date, id, limit);
+            }
+        } catch (NumberFormatException | java.time.format.DateTimeParseException e) {
+            // Noto'g'ri (yoki boshqa saralashga tegishli) kursor - birinchi sahifa
+            return getTransactionPage(user, sortKey, direction, null);
+        }
+
+        String nextCursor = null;
+        if (rows.size() > PAGE_SIZE) {
+            rows = rows.subList(0, PAGE_SIZE);
+            TransactionDTO last = rows.get(PAGE_SIZE - 1);
+            // Summa bo'yicha saralash asosiy valyutadagi qiymat bilan (valyutalar aralash bo'lsa ham to'g'ri tartib)
+            Object key = "amount".equals(sortKey) ? last.getBaseAmountMinor() : last.getDate();
+            nextCursor = key + "_" + last.getId();
+        }
+        return new com.jorabek.finance_tracker.dto.TransactionPage(rows, sortKey, ascending ? "asc" : "desc",
+                nextCursor);
+    }
+
+    // "kalit_id" -> {kalit, id}
+    private static String[] splitCursor(String cursor) {
+        if (cursor == null)
+            return null;
+        int separator = cursor.lastIndexOf('_');
+        if (separator <= 0 || separator == cursor.length() - 1)
+            return null;
+        return new String[] { cursor.substring(0, separator), cursor.substring(separator + 1) };
+    }
+
     // Overload for internal use (keeps default behavior)
     public List<Transaction> getAllTransactions() {
         return getAllTransactions("date", "desc");
@@ -61,33 +175,78 @@ public class TransactionService {
         return transactionRepository.findById(id);
     }
 
-    // Yangi tranzaksiya qo'shish
+    // Yangi tranzaksiya qo'shish (ledger shu DB tranzaksiyasida yangilanadi).
+    // Summa tranzaksiya sanasi kursi bilan asosiy valyutaga o'giriladi (xotiradagi kurs jadvali, so'rovsiz);
+    // kursi yo'q valyuta - IllegalArgumentException
+    @Transactional
     public Transaction saveTransaction(Transaction transaction) {
-        transaction.setUser(getCurrentUser());
-        return transactionRepository.save(transaction);
+        Long userId = currentUserProvider.getCurrentUserId();
+        com.jorabek.finance_tracker.entity.User user = getCurrentUser();
+        com.jorabek.finance_tracker.entity.CurrencyCode baseCurrency = currentUserProvider.getCurrentBaseCurrency();
+        if (transaction.getCurrency() == null) {
+            transaction.setCurrency(baseCurrency);
+        }
+        java.time.LocalDate rateDate = transaction.getDate() != null ? transaction.getDate()
+                : java.time.LocalDate.now();
+        if (transaction.getCurrency() != baseCurrency) {
+            fxRateService.lockCurrentRates();
+        }
+        transaction.setBaseAmount(fxRateService.convert(transaction.getAmount(), transaction.getCurrency(),
+                baseCurrency, rateDate));
+        ledgerService.ensureLedger(userId);
+
+        // Har doim yangi qator: formadan kelgan id mavjud qatorni qayta yozmasligi kerak
+        transaction.setId(null);
+        transaction.setUser(user);
+        Transaction saved = transactionRepository.save(transaction);
+
+        ledgerService.recordTransaction(userId, saved, 1);
+        aggregateCache.evict(userId);
+        return saved;
     }
 
-    // Tranzaksiyani o'chirish
+    // Tranzaksiyani o'chirish (faqat o'z tranzaksiyasini)
+    @Transactional
     public void deleteTransaction(Long id) {
-        // Should ideally check ownership
-        transactionRepository.deleteById(id);
+        Long userId = currentUserProvider.getCurrentUserId();
+        com.jorabek.finance_tracker.entity.User user = getCurrentUser();
+        Optional<Transaction> existing = transactionRepository.findByIdAndUser(id, user);
+        if (existing.isEmpty())
+            return;
+
+        ledgerService.ensureLedger(userId);
+        // Parallel o'chirishda faqat haqiqatan o'chirgan so'rov ledgerni kamaytiradi
+        if (transactionRepository.deleteByIdAndUser(id, user) == 1) {
+            ledgerService.recordTransaction(userId, existing.get(), -1);
+        }
+        aggregateCache.evict(userId);
     }
 
-    // Umumiy daromadni hisoblash
-    public Double getTotalIncome() {
-        Double total = transactionRepository.calculateTotalIncomeByUser(getCurrentUser());
-        return total != null ? total : 0.0;
+    // Umumiy daromadni hisoblash (ledgerdan, O(1))
+    public Money getTotalIncome() {
+        return ledgerService.findLedger(currentUserProvider.getCurrentUserId())
+                .map(com.jorabek.finance_tracker.entity.UserLedger::getTotalIncome)
+                .orElseGet(() -> {
+                    Long total = transactionRepository.calculateTotalIncomeByUser(getCurrentUser());
+                    return Money.ofMinor(total != null ? total : 0L);
+                });
     }
 
-    // Umumiy xarajatni hisoblash
-    public Double getTotalExpense() {
-        Double total = transactionRepository.calculateTotalExpenseByUser(getCurrentUser());
-        return total != null ? total : 0.0;
+    // Umumiy xarajatni hisoblash (ledgerdan, O(1))
+    public Money getTotalExpense() {
+        return ledgerService.findLedger(currentUserProvider.getCurrentUserId())
+                .map(com.jorabek.finance_tracker.entity.UserLedger::getTotalExpense)
+                .orElseGet(() -> {
+                    Long total = transactionRepository.calculateTotalExpenseByUser(getCurrentUser());
+                    return Money.ofMinor(total != null ? total : 0L);
+                });
     }
 
-    // Umumiy balansni hisoblash (Daromad - Xarajat)
-    public Double getBalance() {
-        return getTotalIncome() - getTotalExpense();
+    // Umumiy balansni hisoblash (Daromad - Xarajat), bitta ledger o'qishi
+    public Money getBalance() {
+        return ledgerService.findLedger(currentUserProvider.getCurrentUserId())
+                .map(com.jorabek.finance_tracker.entity.UserLedger::getBalance)
+                .orElseGet(() -> getTotalIncome().minus(getTotalExpense()));
     }
 
     // Daromad tranzaksiyalarini olish
@@ -104,79 +263,124 @@ public class TransactionService {
 
     // 1. SMART FORMATTING
     // 1,000,000 -> "1 mln"
-    public String formatSmart(Double amount) {
+    // 1000 liklar bo'sh joy bilan ajratiladi (10 000.00); format satri har chaqiruvda tahlil qilinmaydi
+    public String formatSmart(Money amount) {
         if (amount == null)
             return "0.00";
-
-        double abs = Math.abs(amount);
-
-        if (abs >= 1_000_000_000) {
-            return String.format("%.1f mlrd", amount / 1_000_000_000);
-        } else if (abs >= 1_000_000) {
-            return String.format("%.1f mln", amount / 1_000_000);
-        } else {
-            // 1000 liklarni ajratish (10 000)
-            return String.format("%,.2f", amount).replace(",", " ");
-        }
+        return MoneyFormatter.appendSmart(new StringBuilder(24), amount.getMinorUnits()).toString();
     }
 
     // 2. CHART DATA
+    // Hammasi kunlik yig'madan (daily_category_totals) o'qiladi: narx oraliqdagi kun x kategoriya
+    // soniga bog'liq, tranzaksiyalar soniga emas
+
+    // {Kategoriya, summa (so'mda, BigDecimal)} - butun tarix
     public List<Object[]> getExpenseByCategoryData() {
-        return transactionRepository.getExpenseByCategoryByUser(getCurrentUser());
+        return getExpenseByCategoryData(MIN_DATE, MAX_DATE);
+    }
+
+    // {Kategoriya, summa (so'mda, BigDecimal)} - [from, to] oralig'i
+    public List<Object[]> getExpenseByCategoryData(java.time.LocalDate from, java.time.LocalDate to) {
+        List<Object[]> rows = dailyTotalRepository.sumExpenseByCategory(currentUserProvider.getCurrentUserId(),
+                from, to);
+        for (Object[] row : rows) {
+            row[1] = java.math.BigDecimal.valueOf(((Number) row[1]).longValue(), Money.SCALE);
+        }
+        return rows;
     }
 
     public List<Object[]> getLast7DaysData() {
-        com.jorabek.finance_tracker.entity.User user = getCurrentUser();
         java.time.LocalDate today = java.time.LocalDate.now();
-        java.time.LocalDate startDate = today.minusDays(6);
+        return getDailyData(today.minusDays(6), today);
+    }
 
-        // DB dan ma'lumotni olamiz
-        List<Object[]> dbData = transactionRepository.getLast7DaysStatsByUser(user, startDate);
+    // Kunlik grafik (30 kun va h.k.): {"dd.MM", daromad, xarajat}, bo'sh kunlar 0 bilan
+    public List<Object[]> getDailyData(java.time.LocalDate from, java.time.LocalDate to) {
+        return toChartRows(getSeries("day", from, to), DAY_LABEL);
+    }
 
-        // Map ga o'tkazamiz oson ishlash uchun: Date -> {Income, Expense}
-        java.util.Map<String, double[]> dataMap = new java.util.HashMap<>();
-        for (Object[] row : dbData) {
-            // row[0] is usually sql.Date or String depending on DB, safely toString()
-            String dateStr = row[0].toString();
-            double income = row[1] != null ? ((Number) row[1]).doubleValue() : 0.0;
-            double expense = row[2] != null ? ((Number) row[2]).doubleValue() : 0.0;
-            dataMap.put(dateStr, new double[] { income, expense });
-        }
+    // Oylik grafik (12 oy, yilma-yil taqqoslash uchun ikki oraliq): {"MM.yyyy", daromad, xarajat}
+    public List<Object[]> getMonthlyData(java.time.YearMonth from, java.time.YearMonth to) {
+        return toChartRows(getSeries("month", from.atDay(1), to.atEndOfMonth()), MONTH_LABEL);
+    }
 
-        // 7 kunlik to'liq ro'yxatni shakllantiramiz
-        List<Object[]> result = new java.util.ArrayList<>();
-        // Simple "dd.MM" format for the chart label (e.g. "27.01")
-        java.time.format.DateTimeFormatter labelDtf = java.time.format.DateTimeFormatter.ofPattern("dd.MM");
-        // DB key format (must match what DB returns, assuming YYYY-MM-DD standard)
-        java.time.format.DateTimeFormatter dbKeyDtf = java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    // Vaqt qatori: guruhlash va bo'sh oraliqlarni to'ldirish DB tomonida (bitta so'rov).
+    // Noma'lum granularity - "day"; nuqtalar soni MAX_SERIES_POINTS bilan cheklanadi (oxirgilari qoladi)
+    public List<com.jorabek.finance_tracker.dto.SeriesPoint> getSeries(String granularity, java.time.LocalDate from,
+            java.time.LocalDate to) {
+        return getSeries(currentUserProvider.getCurrentUserId(), granularity, from, to);
+    }
 
-        for (int i = 0; i < 7; i++) {
-            java.time.LocalDate date = startDate.plusDays(i);
-            String dbKey = date.format(dbKeyDtf);
-            String labelKey = date.format(labelDtf);
+    List<com.jorabek.finance_tracker.dto.SeriesPoint> getSeries(Long userId, String granularity,
+            java.time.LocalDate from, java.time.LocalDate to) {
+        java.time.temporal.ChronoUnit unit = SERIES_GRANULARITIES.getOrDefault(granularity,
+                java.time.temporal.ChronoUnit.DAYS);
+        if (from.isAfter(to)) {
+            java.time.LocalDate swap = from;
+            from = to;
+            to = swap;
+        }
+        if (unit.between(from, to) >= MAX_SERIES_POINTS) {
+            from = to.minus(MAX_SERIES_POINTS - 1, unit);
+        }
 
-            double[] values = dataMap.getOrDefault(dbKey, new double[] { 0.0, 0.0 });
-            // Return: Label String, Income, Expense
-            result.add(new Object[] { labelKey, values[0], values[1] });
+        List<Object[]> rows = dailyTotalRepository.sumSeries(userId, SERIES_TRUNC_FIELDS.get(unit), from, to);
+        List<com.jorabek.finance_tracker.dto.SeriesPoint> points = new java.util.ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            points.add(new com.jorabek.finance_tracker.dto.SeriesPoint(toLocalDate(row[0]),
+                    ((Number) row[1]).longValue(), ((Number) row[2]).longValue()));
         }
+        return points;
+    }
 
+    // Grafik qatorlari: {yorliq, daromad, xarajat (so'mda, BigDecimal)}
+    List<Object[]> toChartRows(List<com.jorabek.finance_tracker.dto.SeriesPoint> points,
+            java.time.format.DateTimeFormatter labelFormat) {
+        List<Object[]> result = new java.util.ArrayList<>(points.size());
+        for (com.jorabek.finance_tracker.dto.SeriesPoint point : points) {
+            result.add(new Object[] { labelFormat.format(point.getBucket()), point.getIncome().toDecimal(),
+                    point.getExpense().toDecimal() });
+        }
         return result;
     }
 
+    // JDBC drayver DATE ustunini java.sql.Date yoki LocalDate sifatida qaytarishi mumkin
+    private static java.time.LocalDate toLocalDate(Object value) {
+        if (value instanceof java.sql.Date sqlDate) {
+            return sqlDate.toLocalDate();
+        }
+        return (java.time.LocalDate) value;
+    }
+
     // 3. BUDGET LIMITS
+    // Limit sanasiz: bugungi kurs bilan o'giriladi, yangi kurslar yuklanganda qayta baholanadi (FxRateService)
+    @Transactional
     public CategoryLimit saveCategoryLimit(CategoryLimit limit) {
         // Trim category name
         if (limit.getCategory() != null) {
             limit.setCategory(limit.getCategory().trim());
         }
+        com.jorabek.finance_tracker.entity.CurrencyCode baseCurrency = currentUserProvider.getCurrentBaseCurrency();
+        if (limit.getCurrency() == null) {
+            limit.setCurrency(baseCurrency);
+        }
+        if (limit.getCurrency() != baseCurrency) {
+            fxRateService.lockCurrentRates();
+        }
+        limit.setBaseLimitAmount(fxRateService.convert(limit.getLimitAmount(), limit.getCurrency(), baseCurrency,
+                java.time.LocalDate.now()));
 
         com.jorabek.finance_tracker.entity.User user = getCurrentUser();
         limit.setUser(user);
+        ledgerService.recordChange(user.getId());
+        aggregateCache.evict(user.getId());
 
         Optional<CategoryLimit> existing = categoryLimitRepository.findByCategoryAndUser(limit.getCategory(), user);
         if (existing.isPresent()) {
             CategoryLimit l = existing.get();
             l.setLimitAmount(limit.getLimitAmount());
+            l.setCurrency(limit.getCurrency());
+            l.setBaseLimitAmount(limit.getBaseLimitAmount());
             return categoryLimitRepository.save(l);
         }
         return categoryLimitRepository.save(limit);
@@ -189,65 +393,113 @@ public class TransactionService {
     // Kategoriya bo'yicha limit va ishlatilgan summani olish
     // {Limit, Spent, Percentage}
     public double[] getCategoryBudgetStatus(String category) {
-        Optional<CategoryLimit> limitOpt = categoryLimitRepository.findByCategoryAndUser(category, getCurrentUser());
-        if (limitOpt.isEmpty())
+        // Limit va sarflangan summa bitta GROUP BY so'rovida hisoblanadi
+        Optional<com.jorabek.finance_tracker.dto.BudgetStatusDTO> status = categoryLimitRepository
+                .findBudgetStatusByUserAndCategory(getCurrentUser(), category);
+        if (status.isEmpty())
             return null;
 
-        double limit = limitOpt.get().getLimitAmount();
-
-        // Bu kategoriya bo'yicha jami xarajat (user isolated via getAllTransactions)
-        double spent = getAllTransactions().stream()
-                .filter(t -> t.getType().equals("Expense") && t.getCategory().equalsIgnoreCase(category))
-                .mapToDouble(Transaction::getAmount)
-                .sum();
-
-        return new double[] { limit, spent, (spent / limit) * 100 };
+        com.jorabek.finance_tracker.dto.BudgetStatusDTO s = status.get();
+        return new double[] { s.getLimitAmount().toDecimal().doubleValue(),
+                s.getSpentAmount().toDecimal().doubleValue(), s.getPercentage() };
     }
 
     // 4. DATA EXPORT (CSV)
     // 1,000,000 -> "1 000 000.00"
-    public String formatFull(Double amount) {
+    public String formatFull(Money amount) {
         if (amount == null)
             return "0.00";
-        return String.format("%,.2f", amount).replace(",", " ");
+        return MoneyFormatter.appendFull(new StringBuilder(32), amount.getMinorUnits()).toString();
     }
 
+    // Limitni o'chirish (faqat o'z limitini)
+    @Transactional
     public void deleteCategoryLimit(Long id) {
-        categoryLimitRepository.deleteById(id);
+        Long userId = currentUserProvider.getCurrentUserId();
+        if (categoryLimitRepository.deleteByIdAndUser(id, getCurrentUser()) == 1) {
+            ledgerService.recordChange(userId);
+            aggregateCache.evict(userId);
+        }
     }
 
+    @Transactional(readOnly = true)
     public List<com.jorabek.finance_tracker.dto.BudgetStatusDTO> getBudgetStatuses() {
-        List<com.jorabek.finance_tracker.dto.BudgetStatusDTO> statuses = new java.util.ArrayList<>();
-        List<CategoryLimit> limits = categoryLimitRepository.findAllByUser(getCurrentUser());
-
-        for (CategoryLimit l : limits) {
-            String limitCategory = l.getCategory().trim();
-            // getAllTransactions is already filtered by User
-            double spent = getAllTransactions().stream()
-                    .filter(t -> t.getType().equals("Expense") &&
-                            t.getCategory() != null &&
-                            t.getCategory().trim().equalsIgnoreCase(limitCategory))
-                    .mapToDouble(Transaction::getAmount)
-                    .sum();
-            statuses.add(
-                    new com.jorabek.finance_tracker.dto.BudgetStatusDTO(l.getId(), l.getCategory(), l.getLimitAmount(),
-                            spent));
-        }
-        return statuses;
-    }
-
-    public String generateCsvExport() {
-        StringBuilder csv = new StringBuilder();
-        csv.append("ID,Date,Description,Type,Category,Amount\n");
-
-        for (Transaction t : getAllTransactions()) {
-            csv.append(t.getId()).append(",");
-            csv.append(t.getDate()).append(",");
-            csv.append("\"").append(t.getDescription().replace("\"", "\"\"")).append("\",");
-            csv.append(t.getType()).append(",");
-            csv.append(t.getCategory()).append(",");
-            csv.append(t.getAmount()).append("\n");
-        }
-        return csv.toString();
+        // Barcha limitlar uchun sarflangan summa DB tomonida (SUM ... GROUP BY) hisoblanadi
+        return categoryLimitRepository.findBudgetStatusesByUser(getCurrentUser());
+    }
+
+    // CSV eksport: qatorlar kursor orqali o'qiladi va darhol writer'ga yoziladi,
+    // shuning uchun xotira sarfi tarix hajmiga bog'liq emas
+    @Transactional(readOnly = true)
+    public void writeCsvExport(Writer writer) throws IOException {
+        writer.write("ID,Date,Description,Type,Category,Amount,Currency\n");
+        // Sarlavhani darhol yuboramiz (time-to-first-byte)
+        writer.flush();
+
+        // Qator bitta qayta ishlatiladigan buferda yig'iladi: har qator uchun oraliq String yo'q
+        StringBuilder line = new StringBuilder(256);
+        char[] chars = new char[256];
+        int rows = 0;
+        try (Stream<TransactionDTO> stream = transactionRepository.streamAllByUser(getCurrentUser())) {
+            Iterator<TransactionDTO> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                TransactionDTO t = iterator.next();
+                line.setLength(0);
+                line.append(t.getId().longValue()).append(',');
+                appendIsoDate(line, t.getDate());
+                // Matnli maydonlar doim qo'shtirnoqda: vergul/qo'shtirnoqli kategoriya ham importda qayta o'qiladi
+                line.append(",\"");
+                appendEscaped(line, t.getDescription());
+                line.append("\",\"").append(t.getType().getLabel()).append("\",\"");
+                appendEscaped(line, t.getCategory());
+                line.append("\",");
+                MoneyFormatter.appendPlain(line, t.getAmountMinor());
+                line.append(',').append(t.getCurrency().getCode()).append('\n');
+
+                if (line.length() > chars.length) {
+                    chars = new char[Math.max(line.length(), chars.length * 2)];
+                }
+                line.getChars(0, line.length(), chars, 0);
+                writer.write(chars, 0, line.length());
+
+                if (++rows % CSV_FLUSH_INTERVAL == 0) {
+                    writer.flush();
+                }
+            }
+        }
+        writer.flush();
+    }
+
+    // LocalDate.toString() bilan bir xil "yyyy-MM-dd" (0..9999 yillar uchun)
+    private static void appendIsoDate(StringBuilder out, java.time.LocalDate date) {
+        int year = date.getYear();
+        if (year < 0 || year > 9999) {
+            out.append(date);
+            return;
+        }
+        appendPadded(out, year, 4);
+        out.append('-');
+        appendPadded(out, date.getMonthValue(), 2);
+        out.append('-');
+        appendPadded(out, date.getDayOfMonth(), 2);
+    }
+
+    private static void appendPadded(StringBuilder out, int value, int width) {
+        for (int divisor = width == 4 ? 1000 : 10; divisor > 0; divisor /= 10) {
+            out.append((char) ('0' + (value / divisor) % 10));
+        }
+    }
+
+    // CSV: qo'shtirnoq ikkilantiriladi; qator ko'chirish bo'sh joyga almashtiriladi (import qatorma-qator o'qiydi)
+    private static void appendEscaped(StringBuilder out, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                out.append('"');
+            } else if (c == '\n' || c == '\r') {
+                c = ' ';
+            }
+            out.append(c);
+        }
     }
 }
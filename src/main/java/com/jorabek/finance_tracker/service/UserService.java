@@ -1,13 +1,18 @@
 package com.jorabek.finance_tracker.service;
 
+import com.jorabek.finance_tracker.entity.CurrencyCode;
 import com.jorabek.finance_tracker.entity.User;
 import com.jorabek.finance_tracker.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 @Service
 public class UserService {
 
+    private static final Logger log = LoggerFactory.getLogger(UserService.class);
+
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
 
@@ -17,21 +22,23 @@ public class UserService {
     }
 
     public void registerUser(User user) {
-        System.out.println("Processing registration for user: " + user.getUsername());
+        log.atDebug().addKeyValue("username", user.getUsername()).log("Processing registration");
 
         // NoOpPasswordEncoder is used in SecurityConfig, so encode() returns the plain
         // password.
         String rawPassword = user.getPassword();
         String encodedPassword = passwordEncoder.encode(rawPassword);
 
-        System.out.println("Raw password: " + rawPassword);
-        System.out.println("Encoded password (should be same if NoOp): " + encodedPassword);
-
         user.setPassword(encodedPassword);
         user.setRole("ROLE_USER");
+        // Asosiy valyuta faqat ro'yxatdan o'tishda tanlanadi (keyin o'zgartirilmaydi)
+        if (user.getBaseCurrency() == null) {
+            user.setBaseCurrency(CurrencyCode.UZS);
+        }
         userRepository.save(user);
 
-        System.out.println("User successfully saved: " + user.getUsername());
+        log.atInfo().addKeyValue("username", user.getUsername()).addKeyValue("userId", user.getId())
+                .log("User registered");
     }
 
     public boolean isUsernameTaken(String username) {
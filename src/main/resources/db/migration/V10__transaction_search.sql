@@ -0,0 +1,32 @@
+-- Full-text + fuzzy search over transaction descriptions and categories (TransactionSearchService).
+-- Both search columns are STORED generated columns, so every INSERT/UPDATE (form, CSV import,
+-- recurring job, debt payment) maintains them without application code or triggers.
+-- Adding them rewrites the transactions table once.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+-- Lets the GIN indexes lead with user_id, so a search never touches other users' postings
+CREATE EXTENSION IF NOT EXISTS btree_gin;
+
+-- Uzbek Latin spells o'/g' and the glottal stop with several apostrophe variants
+-- (' ` U+02BB U+02BC U+2018 U+2019). They are dropped, so "to'landi", "toʻlandi" and "tolandi"
+-- all normalise to the same token. TransactionSearchService applies the same rule to queries.
+CREATE FUNCTION search_normalize(value TEXT) RETURNS TEXT
+    LANGUAGE sql IMMUTABLE STRICT PARALLEL SAFE
+AS $$ SELECT lower(translate(value, '''`ʻʼ‘’', '')) $$;
+
+-- 'simple' configuration: no stemming or stop words (there is no Uzbek dictionary),
+-- prefix matching is done with to_tsquery(... 'word:*')
+ALTER TABLE transactions
+    ADD COLUMN search_text TEXT GENERATED ALWAYS AS
+        (search_normalize(coalesce(description, '') || ' ' || coalesce(category, ''))) STORED,
+    ADD COLUMN search_vector TSVECTOR GENERATED ALWAYS AS
+        (to_tsvector('simple'::regconfig,
+                     search_normalize(coalesce(description, '') || ' ' || coalesce(category, '')))) STORED;
+
+-- Prefix / whole-word matches: search_vector @@ to_tsquery('simple', 'oziq:* & bozor:*')
+CREATE INDEX idx_transactions_user_search_vector
+    ON transactions USING GIN (user_id, search_vector);
+
+-- Typo-tolerant matches: 'komunal' <% search_text (word_similarity over trigrams)
+CREATE INDEX idx_transactions_user_search_trgm
+    ON transactions USING GIN (user_id, search_text gin_trgm_ops);
@@ -0,0 +1,86 @@
+-- Multi-currency amounts (UZS, USD, EUR; all with 2 decimal places, stored as minor units).
+-- Every money row keeps the amount as entered (amount + currency) and its value in the owner's
+-- base currency (base_amount / base_limit_amount), converted at write time by FxRateService.
+-- Everything that aggregates (user_ledgers, daily_category_totals, budgets, charts, amount sort)
+-- reads the base column, so the dashboard still sums a single column.
+-- Existing rows are UZS and every existing user's base currency is UZS, so base = amount.
+
+-- Exchange rates: 1 unit of currency = rate UZS (UZS itself is implicit, rate 1).
+-- A date without a row uses the latest earlier rate; dates before the first rate use the first one.
+CREATE TABLE fx_rates (
+    currency   VARCHAR(3)     NOT NULL,
+    rate_date  DATE           NOT NULL,
+    rate       NUMERIC(20, 8) NOT NULL,
+    updated_at TIMESTAMPTZ    NOT NULL DEFAULT now(),
+    PRIMARY KEY (currency, rate_date),
+    CONSTRAINT ck_fx_rates_currency CHECK (currency IN ('USD', 'EUR')),
+    CONSTRAINT ck_fx_rates_rate CHECK (rate > 0)
+);
+
+-- Same lookup rule as FxRateService's in-memory table (used when re-pricing after a rate upload).
+-- NULL when the currency has no rates at all.
+CREATE FUNCTION fx_rate(code VARCHAR, on_date DATE) RETURNS NUMERIC
+    LANGUAGE sql STABLE PARALLEL SAFE
+AS $$
+    SELECT CASE WHEN code = 'UZS' THEN 1::NUMERIC ELSE COALESCE(
+        (SELECT r.rate FROM fx_rates r WHERE r.currency = code AND r.rate_date <= on_date
+         ORDER BY r.rate_date DESC LIMIT 1),
+        (SELECT r.rate FROM fx_rates r WHERE r.currency = code ORDER BY r.rate_date LIMIT 1)) END
+$$;
+
+-- Minor units of from_code -> minor units of to_code on a date, rounded half up (amounts are positive)
+CREATE FUNCTION fx_convert(amount BIGINT, from_code VARCHAR, to_code VARCHAR, on_date DATE) RETURNS BIGINT
+    LANGUAGE sql STABLE PARALLEL SAFE
+AS $$
+    SELECT CASE WHEN from_code = to_code THEN amount
+                ELSE round(amount * fx_rate(from_code, on_date) / fx_rate(to_code, on_date))::BIGINT END
+$$;
+
+ALTER TABLE users
+    ADD COLUMN base_currency VARCHAR(3) NOT NULL DEFAULT 'UZS',
+    ADD CONSTRAINT ck_users_base_currency CHECK (base_currency IN ('UZS', 'USD', 'EUR'));
+
+ALTER TABLE transactions
+    ADD COLUMN currency VARCHAR(3) NOT NULL DEFAULT 'UZS',
+    ADD COLUMN base_amount BIGINT,
+    ADD CONSTRAINT ck_transactions_currency CHECK (currency IN ('UZS', 'USD', 'EUR'));
+UPDATE transactions SET base_amount = amount;
+ALTER TABLE transactions ALTER COLUMN base_amount SET NOT NULL;
+
+ALTER TABLE debts
+    ADD COLUMN currency VARCHAR(3) NOT NULL DEFAULT 'UZS',
+    ADD COLUMN base_amount BIGINT,
+    ADD CONSTRAINT ck_debts_currency CHECK (currency IN ('UZS', 'USD', 'EUR'));
+UPDATE debts SET base_amount = amount;
+ALTER TABLE debts ALTER COLUMN base_amount SET NOT NULL;
+
+-- Limits have no date: converted with the rate of the day they are saved (and re-priced on uploads)
+ALTER TABLE category_limits
+    ADD COLUMN currency VARCHAR(3) NOT NULL DEFAULT 'UZS',
+    ADD COLUMN base_limit_amount BIGINT,
+    ADD CONSTRAINT ck_category_limits_currency CHECK (currency IN ('UZS', 'USD', 'EUR'));
+UPDATE category_limits SET base_limit_amount = limit_amount;
+ALTER TABLE category_limits ALTER COLUMN base_limit_amount SET NOT NULL;
+
+-- Occurrences are converted on their own date by RecurringTransactionJob
+ALTER TABLE recurring_rules
+    ADD COLUMN currency VARCHAR(3) NOT NULL DEFAULT 'UZS',
+    ADD CONSTRAINT ck_recurring_rules_currency CHECK (currency IN ('UZS', 'USD', 'EUR'));
+
+-- Indexes that served sums/sorts over amount now cover base_amount (V2)
+DROP INDEX IF EXISTS idx_transactions_user_amount_id;
+CREATE INDEX idx_transactions_user_base_amount_id
+    ON transactions (user_id, base_amount, id);
+
+DROP INDEX IF EXISTS idx_transactions_user_type_category;
+CREATE INDEX idx_transactions_user_type_category
+    ON transactions (user_id, type, category) INCLUDE (base_amount);
+
+DROP INDEX IF EXISTS idx_transactions_user_type_category_norm;
+CREATE INDEX idx_transactions_user_type_category_norm
+    ON transactions (user_id, type, LOWER(TRIM(category))) INCLUDE (base_amount);
+
+DROP INDEX IF EXISTS idx_debts_user_status;
+CREATE INDEX idx_debts_user_status
+    ON debts (user_id, status) INCLUDE (base_amount);
+
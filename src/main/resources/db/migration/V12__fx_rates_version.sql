@@ -0,0 +1,13 @@
+-- Version of the fx_rates table, bumped once by every rate upload that changed a rate.
+-- Writers that convert a foreign-currency amount read it FOR SHARE inside their own transaction
+-- and reload their in-memory rate table when it moved (FxRateService.lockCurrentRates). The bump waits
+-- for those share locks, so every row written with the previous rates is committed before the bump,
+-- and the re-pricing that follows the bump sees (and corrects) it. Rows written after the bump use the
+-- new rates on every instance.
+CREATE TABLE fx_rates_state (
+    id      SMALLINT PRIMARY KEY,
+    version BIGINT   NOT NULL,
+    CONSTRAINT ck_fx_rates_state_single_row CHECK (id = 1)
+);
+
+INSERT INTO fx_rates_state (id, version) VALUES (1, 0);
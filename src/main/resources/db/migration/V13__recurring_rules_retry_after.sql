@@ -0,0 +1,11 @@
+-- Rules the job cannot materialize yet (no FX rate for their currency) are deferred instead of being
+-- left first in the claim order, where they filled every claimed batch and starved the rules behind them.
+-- retry_after is set when a rule is skipped and cleared when it advances; the claim ignores deferred rules.
+ALTER TABLE recurring_rules
+    ADD COLUMN retry_after TIMESTAMPTZ;
+
+-- Due-rule claim now also reads retry_after; keeping it in the index filters deferred rules
+-- without visiting their heap rows.
+DROP INDEX IF EXISTS idx_recurring_rules_due;
+CREATE INDEX idx_recurring_rules_due
+    ON recurring_rules (next_run_date, id) INCLUDE (retry_after) WHERE active;
@@ -0,0 +1,21 @@
+-- DebtReminderJob reads only debts that still need a reminder instead of every unpaid debt up to the horizon.
+-- reminder_kind is the strongest reminder already recorded for the debt (NULL = none, 1 = due soon,
+-- 2 = overdue); the job sets it in the same statement that writes debt_reminders. A debt leaves the
+-- partial index below once it is paid or has its overdue reminder, so a daily run reads the debts that
+-- entered the horizon or became overdue since the last run, plus any unpaid debt still without a reminder
+-- (for example, one created with a past return date).
+ALTER TABLE debts
+    ADD COLUMN reminder_kind SMALLINT;
+
+UPDATE debts d SET reminder_kind = r.kind
+FROM (SELECT debt_id, max(kind) AS kind FROM debt_reminders GROUP BY debt_id) r
+WHERE d.id = r.debt_id;
+
+CREATE INDEX idx_debts_reminder_pending
+    ON debts (return_date, id) WHERE status = 1 AND reminder_kind IS DISTINCT FROM 2;
+
+-- When the job last finished a full run on any instance; kept across run dates (the lag gauge reads it)
+ALTER TABLE job_checkpoints
+    ADD COLUMN last_completed_at TIMESTAMPTZ;
+
+UPDATE job_checkpoints SET last_completed_at = updated_at WHERE completed;
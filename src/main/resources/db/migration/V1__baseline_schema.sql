@@ -0,0 +1,47 @@
+-- Baseline schema (previously generated by spring.jpa.hibernate.ddl-auto=update).
+-- IF NOT EXISTS keeps this migration safe on databases that were created by Hibernate.
+
+CREATE TABLE IF NOT EXISTS users (
+    id       BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username VARCHAR(255) NOT NULL UNIQUE,
+    password VARCHAR(255) NOT NULL,
+    role     VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS transactions (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    amount      DOUBLE PRECISION NOT NULL,
+    category    VARCHAR(255)     NOT NULL,
+    date        DATE             NOT NULL,
+    description VARCHAR(255)     NOT NULL,
+    type        VARCHAR(255)     NOT NULL,
+    user_id     BIGINT           NOT NULL REFERENCES users (id)
+);
+
+CREATE TABLE IF NOT EXISTS debts (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    amount      DOUBLE PRECISION NOT NULL,
+    lender_name VARCHAR(255)     NOT NULL,
+    loan_date   DATE             NOT NULL,
+    return_date DATE             NOT NULL,
+    status      VARCHAR(255)     NOT NULL,
+    user_id     BIGINT           NOT NULL REFERENCES users (id)
+);
+
+CREATE TABLE IF NOT EXISTS category_limits (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    category     VARCHAR(255)     NOT NULL,
+    limit_amount DOUBLE PRECISION NOT NULL,
+    user_id      BIGINT           NOT NULL REFERENCES users (id),
+    CONSTRAINT uk_category_limits_user_category UNIQUE (user_id, category)
+);
+
+CREATE TABLE IF NOT EXISTS user_ledgers (
+    user_id           BIGINT PRIMARY KEY REFERENCES users (id),
+    total_income      DOUBLE PRECISION NOT NULL DEFAULT 0,
+    total_expense     DOUBLE PRECISION NOT NULL DEFAULT 0,
+    unpaid_debt_total DOUBLE PRECISION NOT NULL DEFAULT 0,
+    income_count      BIGINT           NOT NULL DEFAULT 0,
+    expense_count     BIGINT           NOT NULL DEFAULT 0,
+    unpaid_debt_count BIGINT           NOT NULL DEFAULT 0
+);
@@ -0,0 +1,26 @@
+-- Composite indexes for the repository queries. Every query filters on user_id first.
+
+-- Keyset pagination by date (findPageByDate*), last-7-days stats, CSV export stream.
+-- A plain b-tree is scanned backwards for DESC, so one index serves both directions.
+CREATE INDEX IF NOT EXISTS idx_transactions_user_date_id
+    ON transactions (user_id, date, id);
+
+-- Keyset pagination by amount (findPageByAmount*)
+CREATE INDEX IF NOT EXISTS idx_transactions_user_amount_id
+    ON transactions (user_id, amount, id);
+
+-- Income/expense totals and expense-by-category; INCLUDE allows index-only SUM(amount)
+CREATE INDEX IF NOT EXISTS idx_transactions_user_type_category
+    ON transactions (user_id, type, category) INCLUDE (amount);
+
+-- Budget statuses join on the normalised category (LOWER(TRIM(category)))
+CREATE INDEX IF NOT EXISTS idx_transactions_user_type_category_norm
+    ON transactions (user_id, type, LOWER(TRIM(category))) INCLUDE (amount);
+
+-- Unpaid/paid debt lists and totals
+CREATE INDEX IF NOT EXISTS idx_debts_user_status
+    ON debts (user_id, status) INCLUDE (amount);
+
+-- Debt list ordered by loan date (findAllByUserOrderByLoanDateDesc)
+CREATE INDEX IF NOT EXISTS idx_debts_user_loan_date
+    ON debts (user_id, loan_date DESC);
@@ -0,0 +1,47 @@
+-- Transaction.type and Debt.status become SMALLINT codes (TransactionType, DebtStatus enums).
+-- type: 1 = Income, 2 = Expense; status: 1 = Unpaid, 2 = Paid.
+-- Existing values are matched case-insensitively, so rows posted as "expense"/"income"
+-- (previously invisible to every 'Expense'/'Income' filter) are now counted.
+-- Any other value stops the migration (listed in the error) instead of being guessed:
+-- fix or delete those rows, then re-run. Neither CASE has an ELSE, so an unexpected
+-- value that slips past the check becomes NULL and still fails on NOT NULL.
+-- Indexes on these columns are rebuilt by ALTER COLUMN ... TYPE.
+
+DO $$
+DECLARE
+    unknown_types    TEXT;
+    unknown_statuses TEXT;
+BEGIN
+    SELECT string_agg(DISTINCT quote_literal(type), ', ') INTO unknown_types
+    FROM transactions
+    WHERE LOWER(TRIM(type)) NOT IN ('income', 'expense');
+
+    SELECT string_agg(DISTINCT quote_literal(status), ', ') INTO unknown_statuses
+    FROM debts
+    WHERE LOWER(TRIM(status)) NOT IN ('unpaid', 'paid');
+
+    IF unknown_types IS NOT NULL OR unknown_statuses IS NOT NULL THEN
+        RAISE EXCEPTION 'Unknown enum values: transactions.type = [%], debts.status = [%]',
+            COALESCE(unknown_types, ''), COALESCE(unknown_statuses, '');
+    END IF;
+END
+$$;
+
+ALTER TABLE transactions
+    ALTER COLUMN type TYPE SMALLINT
+    USING CASE LOWER(TRIM(type)) WHEN 'income' THEN 1 WHEN 'expense' THEN 2 END;
+
+ALTER TABLE transactions
+    ADD CONSTRAINT ck_transactions_type CHECK (type IN (1, 2));
+
+ALTER TABLE debts
+    ALTER COLUMN status TYPE SMALLINT
+    USING CASE LOWER(TRIM(status)) WHEN 'unpaid' THEN 1 WHEN 'paid' THEN 2 END;
+
+ALTER TABLE debts
+    ADD CONSTRAINT ck_debts_status CHECK (status IN (1, 2));
+
+-- The ledgers were built with the old case-sensitive matching. Drop them; they are
+-- rebuilt from the raw tables on the next write or by the nightly reconciliation,
+-- and reads fall back to the raw tables until then.
+DELETE FROM user_ledgers;
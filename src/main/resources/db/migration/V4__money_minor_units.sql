@@ -0,0 +1,20 @@
+-- Amounts are stored as exact integer minor units (1 so'm = 100) instead of DOUBLE PRECISION.
+-- double -> numeric keeps the shortest decimal representation (0.1 stays 0.1), and numeric
+-- ROUND rounds half away from zero, matching Money.of (HALF_UP).
+-- Indexes on these columns are rebuilt by ALTER COLUMN ... TYPE.
+
+ALTER TABLE transactions
+    ALTER COLUMN amount TYPE BIGINT USING ROUND(amount::NUMERIC * 100)::BIGINT;
+
+ALTER TABLE debts
+    ALTER COLUMN amount TYPE BIGINT USING ROUND(amount::NUMERIC * 100)::BIGINT;
+
+ALTER TABLE category_limits
+    ALTER COLUMN limit_amount TYPE BIGINT USING ROUND(limit_amount::NUMERIC * 100)::BIGINT;
+
+-- Ledger totals carried floating-point drift; any residue after rounding is repaired
+-- exactly by the nightly reconciliation, which now compares without a tolerance.
+ALTER TABLE user_ledgers
+    ALTER COLUMN total_income TYPE BIGINT USING ROUND(total_income::NUMERIC * 100)::BIGINT,
+    ALTER COLUMN total_expense TYPE BIGINT USING ROUND(total_expense::NUMERIC * 100)::BIGINT,
+    ALTER COLUMN unpaid_debt_total TYPE BIGINT USING ROUND(unpaid_debt_total::NUMERIC * 100)::BIGINT;
@@ -0,0 +1,23 @@
+-- Daily rollup of transactions: (user, day, category, type) -> sum, count.
+-- Maintained incrementally by LedgerService in the same DB transaction as every
+-- transaction write/delete, and repaired by the nightly ledger reconciliation.
+-- Charts and category breakdowns read from here, so their cost depends on the number
+-- of days and categories in the range, not on the number of transactions.
+-- type: 1 = Income, 2 = Expense (see TransactionType); total_amount in minor units.
+
+CREATE TABLE daily_category_totals (
+    user_id      BIGINT       NOT NULL REFERENCES users (id),
+    day          DATE         NOT NULL,
+    category     VARCHAR(255) NOT NULL,
+    type         SMALLINT     NOT NULL,
+    total_amount BIGINT       NOT NULL,
+    tx_count     BIGINT       NOT NULL,
+    CONSTRAINT pk_daily_category_totals PRIMARY KEY (user_id, day, category, type),
+    CONSTRAINT ck_daily_category_totals_type CHECK (type IN (1, 2))
+);
+
+-- Backfill from the existing history
+INSERT INTO daily_category_totals (user_id, day, category, type, total_amount, tx_count)
+SELECT t.user_id, t.date, t.category, t.type, SUM(t.amount), COUNT(*)
+FROM transactions t
+GROUP BY t.user_id, t.date, t.category, t.type;
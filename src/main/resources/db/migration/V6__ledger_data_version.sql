@@ -0,0 +1,11 @@
+-- Per-user data version for conditional GETs (ETag / Last-Modified).
+-- Bumped in the same DB transaction as every transaction, debt or limit write
+-- (ledger delta or explicit touch) and by the nightly reconciliation when it repairs data.
+-- Monotonic per user; the dashboard, JSON API and CSV export answer If-None-Match
+-- from this row alone, before any aggregation query runs.
+
+ALTER TABLE user_ledgers
+    ADD COLUMN data_version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE user_ledgers
+    ADD COLUMN updated_at TIMESTAMPTZ NOT NULL DEFAULT now();
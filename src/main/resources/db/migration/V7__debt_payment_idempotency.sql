@@ -0,0 +1,17 @@
+-- Debt payment: optimistic locking on debts and client idempotency keys.
+-- Paying a debt is a conditional UPDATE (status 1 = Unpaid -> 2 = Paid) that also bumps
+-- the version, so only one of any number of concurrent requests creates the expense.
+-- idempotency_keys records keys of completed requests in the same DB transaction;
+-- a retried request with the same key is a no-op. Keys are purged after the retention period.
+
+ALTER TABLE debts
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+CREATE TABLE idempotency_keys (
+    user_id    BIGINT      NOT NULL REFERENCES users (id),
+    idem_key   VARCHAR(64) NOT NULL,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+    CONSTRAINT pk_idempotency_keys PRIMARY KEY (user_id, idem_key)
+);
+
+CREATE INDEX idx_idempotency_keys_created_at ON idempotency_keys (created_at);
@@ -0,0 +1,31 @@
+-- Overdue / due-soon debt reminders, written by DebtReminderJob.
+-- The job scans unpaid debts by (return_date, id) keyset across all users; the index
+-- below serves that scan directly, so a run reads only debts inside its date horizon.
+-- kind: 1 = due soon, 2 = overdue. One event per (debt, kind); re-scans are no-ops.
+
+CREATE INDEX IF NOT EXISTS idx_debts_status_return_date_id
+    ON debts (status, return_date, id);
+
+CREATE TABLE debt_reminders (
+    debt_id    BIGINT      NOT NULL REFERENCES debts (id) ON DELETE CASCADE,
+    kind       SMALLINT    NOT NULL,
+    user_id    BIGINT      NOT NULL REFERENCES users (id),
+    due_date   DATE        NOT NULL,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+    CONSTRAINT pk_debt_reminders PRIMARY KEY (debt_id, kind),
+    CONSTRAINT ck_debt_reminders_kind CHECK (kind IN (1, 2))
+);
+
+-- Per-user reminder feed, newest first
+CREATE INDEX idx_debt_reminders_user_created
+    ON debt_reminders (user_id, created_at DESC);
+
+-- Resumable progress of background jobs: one row per job.
+-- position is the job's own keyset cursor (opaque text); completed marks a finished run_date.
+CREATE TABLE job_checkpoints (
+    job_name   VARCHAR(64) PRIMARY KEY,
+    run_date   DATE        NOT NULL,
+    position   TEXT,
+    completed  BOOLEAN     NOT NULL DEFAULT FALSE,
+    updated_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
@@ -0,0 +1,42 @@
+-- Recurring transaction rules (rent, salary, subscriptions), materialized by RecurringTransactionJob.
+-- frequency: 1 = Daily, 2 = Weekly, 3 = Monthly (every interval_count units from start_date),
+--            4 = Custom (cron: Spring 6-field expression, only the date fields matter).
+-- next_run_date is the earliest occurrence not materialized yet; the job claims due rules with
+-- FOR UPDATE SKIP LOCKED, so any number of instances/workers split the work without overlap.
+-- type: 1 = Income, 2 = Expense (see TransactionType); amount in minor units.
+
+CREATE TABLE recurring_rules (
+    id             BIGSERIAL PRIMARY KEY,
+    user_id        BIGINT       NOT NULL REFERENCES users (id),
+    description    VARCHAR(255) NOT NULL,
+    type           SMALLINT     NOT NULL,
+    category       VARCHAR(255) NOT NULL,
+    amount         BIGINT       NOT NULL,
+    frequency      SMALLINT     NOT NULL,
+    interval_count INTEGER      NOT NULL DEFAULT 1,
+    cron           VARCHAR(100),
+    start_date     DATE         NOT NULL,
+    end_date       DATE,
+    next_run_date  DATE         NOT NULL,
+    active         BOOLEAN      NOT NULL DEFAULT TRUE,
+    CONSTRAINT ck_recurring_rules_type CHECK (type IN (1, 2)),
+    CONSTRAINT ck_recurring_rules_frequency CHECK (frequency IN (1, 2, 3, 4)),
+    CONSTRAINT ck_recurring_rules_interval CHECK (interval_count >= 1),
+    CONSTRAINT ck_recurring_rules_cron CHECK (frequency <> 4 OR cron IS NOT NULL)
+);
+
+-- Due-rule claim (active AND next_run_date <= today ORDER BY next_run_date, id)
+CREATE INDEX idx_recurring_rules_due
+    ON recurring_rules (next_run_date, id) WHERE active;
+
+-- Per-user rule list
+CREATE INDEX idx_recurring_rules_user
+    ON recurring_rules (user_id);
+
+-- Materialized occurrences point back to their rule; deleting a rule keeps its history.
+-- The unique index makes materialization idempotent per (rule, occurrence date).
+ALTER TABLE transactions
+    ADD COLUMN recurring_rule_id BIGINT REFERENCES recurring_rules (id) ON DELETE SET NULL;
+
+CREATE UNIQUE INDEX uq_transactions_rule_occurrence
+    ON transactions (recurring_rule_id, date) WHERE recurring_rule_id IS NOT NULL;
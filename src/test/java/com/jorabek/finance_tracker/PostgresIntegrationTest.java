@@ -0,0 +1,189 @@
+package com.jorabek.finance_tracker;
+
+import com.jorabek.finance_tracker.config.SqlStatementCounter;
+import com.jorabek.finance_tracker.entity.CurrencyCode;
+import com.jorabek.finance_tracker.security.AuthenticatedUser;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.extension.ConditionEvaluationResult;
+import org.junit.jupiter.api.extension.ExecutionCondition;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Haqiqiy PostgreSQL ustidagi integratsion testlar asosi: sxema Flyway migratsiyalaridan (ON CONFLICT,
+// GIN/pg_trgm, fx_convert - H2 da yo'q). Baza: TEST_DATABASE_URL (masalan
+// jdbc:postgresql://localhost:5432/finance_test?user=postgres) yoki Testcontainers (postgres:16-alpine);
+// ikkalasi ham bo'lmasa (Docker yo'q) testlar o'tkazib yuboriladi.
+// Voris klasslar bitta Spring kontekstini bo'lishadi, shuning uchun har bir test o'z foydalanuvchisini yaratadi
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@ExtendWith(PostgresIntegrationTest.DatabaseAvailable.class)
+public abstract class PostgresIntegrationTest {
+
+    private static final String DATABASE_URL = System.getenv("TEST_DATABASE_URL");
+
+    private static PostgreSQLContainer<?> container;
+
+    // Hisob ochiq (SqlStatementCounter.begin) bo'lgan paytdagi SQL (matn + parametrlar), hisob obyekti bo'yicha
+    private static final Map<SqlStatementCounter.Stats, List<RecordedQuery>> SQL_BY_STATS = new ConcurrentHashMap<>();
+    private static final QueryExecutionListener SQL_RECORDER = new QueryExecutionListener() {
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            SqlStatementCounter.Stats stats = SqlStatementCounter.current();
+            if (stats != null) {
+                List<RecordedQuery> sql = SQL_BY_STATS.computeIfAbsent(stats,
+                        key -> Collections.synchronizedList(new ArrayList<>()));
+                for (QueryInfo queryInfo : queryInfoList) {
+                    List<List<ParameterSetOperation>> parameters = queryInfo.getParametersList();
+                    sql.add(new RecordedQuery(queryInfo.getQuery(),
+                            parameters.isEmpty() ? new Object[0] : parameterValues(parameters.get(0))));
+                }
+            }
+        }
+    };
+
+    @Autowired
+    protected MockMvc mockMvc;
+
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    // MetricsConfig o'ragan proxy'ga (bir marta) yozib oluvchi listener qo'shiladi
+    @BeforeEach
+    void recordSql() {
+        ProxyDataSource proxy = (ProxyDataSource) dataSource;
+        if (!proxy.getProxyConfig().getQueryListener().getListeners().contains(SQL_RECORDER)) {
+            proxy.addListener(SQL_RECORDER);
+        }
+    }
+
+    @AfterEach
+    void clearRecordedSql() {
+        SQL_BY_STATS.clear();
+    }
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        if (DATABASE_URL != null) {
+            registry.add("spring.datasource.url", () -> DATABASE_URL);
+            registry.add("spring.datasource.username", () -> env("TEST_DATABASE_USERNAME", "postgres"));
+            registry.add("spring.datasource.password", () -> env("TEST_DATABASE_PASSWORD", ""));
+            return;
+        }
+        PostgreSQLContainer<?> postgres = container();
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    // Bitta konteyner butun test JVM'i uchun (Ryuk uni jarayon tugagach o'chiradi)
+    private static synchronized PostgreSQLContainer<?> container() {
+        if (container == null) {
+            container = new PostgreSQLContainer<>("postgres:16-alpine")
+                    .withUrlParam("reWriteBatchedInserts", "true");
+            container.start();
+        }
+        return container;
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value != null ? value : defaultValue;
+    }
+
+    // Yangi foydalanuvchi (noyob username) - sessiyadagi principal bilan bir xil ko'rinishda
+    protected AuthenticatedUser createUser(CurrencyCode baseCurrency) {
+        String username = "test-" + UUID.randomUUID();
+        Long id = jdbcTemplate.queryForObject(
+                "INSERT INTO users (username, password, role, base_currency) VALUES (?, ?, 'ROLE_USER', ?) RETURNING id",
+                Long.class, username, "secret", baseCurrency.name());
+        return new AuthenticatedUser(id, username, "secret", baseCurrency,
+                Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER")));
+    }
+
+    protected AuthenticatedUser createUser() {
+        return createUser(CurrencyCode.UZS);
+    }
+
+    // Shu hisob davomida bajarilgan SQL (batch - har bir so'rov matni bir marta)
+    protected List<String> sqlOf(SqlStatementCounter.Stats stats) {
+        return queriesOf(stats).stream().map(RecordedQuery::sql).toList();
+    }
+
+    // SQL va birinchi parametrlar to'plami (batch bo'lmagan so'rov uchun - o'zi), masalan EXPLAIN uchun
+    protected List<RecordedQuery> queriesOf(SqlStatementCounter.Stats stats) {
+        List<RecordedQuery> sql = SQL_BY_STATS.get(stats);
+        if (sql == null) {
+            return List.of();
+        }
+        synchronized (sql) {
+            return List.copyOf(sql);
+        }
+    }
+
+    // setXxx(index, value) chaqiruvlari -> index tartibidagi qiymatlar (setNull - null)
+    private static Object[] parameterValues(List<ParameterSetOperation> operations) {
+        Object[] values = new Object[0];
+        for (ParameterSetOperation operation : operations) {
+            Object[] args = operation.getArgs();
+            if (!(args[0] instanceof Integer index)) {
+                continue;
+            }
+            if (index > values.length) {
+                values = Arrays.copyOf(values, index);
+            }
+            values[index - 1] = operation.getMethod().getName().equals("setNull") ? null : args[1];
+        }
+        return values;
+    }
+
+    protected record RecordedQuery(String sql, Object[] parameters) {
+    }
+
+    static class DatabaseAvailable implements ExecutionCondition {
+
+        @Override
+        public ConditionEvaluationResult evaluateExecutionCondition(ExtensionContext context) {
+            if (DATABASE_URL != null) {
+                return ConditionEvaluationResult.enabled("TEST_DATABASE_URL is set");
+            }
+            if (DockerClientFactory.instance().isDockerAvailable()) {
+                return ConditionEvaluationResult.enabled("Docker is available for Testcontainers");
+            }
+            return ConditionEvaluationResult.disabled("No TEST_DATABASE_URL and no Docker - PostgreSQL tests skipped");
+        }
+    }
+}
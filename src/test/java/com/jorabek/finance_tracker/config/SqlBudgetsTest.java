@@ -0,0 +1,203 @@
+package com.jorabek.finance_tracker.config;
+
+import com.jorabek.finance_tracker.PostgresIntegrationTest;
+import com.jorabek.finance_tracker.controller.AuthController;
+import com.jorabek.finance_tracker.security.AuthenticatedUser;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+// Har bir route haqiqiy so'rov bilan chaqiriladi va SQL hisobi (SqlStatementCounter, test profilida qatorlar ham)
+// SqlBudgets chegarasi bilan solishtiriladi. Profil enforce=true: chegaradan oshgan so'rov o'zi ham yiqiladi
+class SqlBudgetsTest extends PostgresIntegrationTest {
+
+    @Autowired
+    @Qualifier("requestMappingHandlerMapping")
+    private RequestMappingHandlerMapping handlerMapping;
+
+    // Yangi route qo'shilsa, uning chegarasi ham jadvalga yozilishi shart
+    @Test
+    void everyRouteHasABudget() {
+        List<String> missing = new ArrayList<>();
+        for (Map.Entry<RequestMappingInfo, HandlerMethod> entry : handlerMapping.getHandlerMethods().entrySet()) {
+            Class<?> controller = entry.getValue().getBeanType();
+            if (!controller.getPackageName().startsWith("com.jorabek.finance_tracker")
+                    || controller == AuthController.class) {
+                continue;
+            }
+            for (String pattern : entry.getKey().getPatternValues()) {
+                for (RequestMethod method : entry.getKey().getMethodsCondition().getMethods()) {
+                    if (SqlBudgets.forRoute(method.name(), pattern) == null) {
+                        missing.add(method + " " + pattern);
+                    }
+                }
+            }
+        }
+        assertTrue(missing.isEmpty(), "Routes without SqlBudgets entry: " + missing);
+    }
+
+    @Test
+    void writeRoutesStayWithinBudget() throws Exception {
+        AuthenticatedUser principal = createUser();
+        String today = LocalDate.now().toString();
+
+        // Birinchi yozuv ledgerni ham yaratadi (eng qimmat yo'l)
+        for (int i = 0; i < 3; i++) {
+            perform(principal, post("/add")
+                    .param("description", "Tushlik " + i).param("amount", "45 000")
+                    .param("type", "Expense").param("category", "Oziq-ovqat").param("date", today));
+        }
+        Long transactionId = latestId("transactions", principal);
+        perform(principal, post("/delete/{id}", transactionId));
+
+        perform(principal, post("/debts/add")
+                .param("lenderName", "Ali").param("amount", "100 000")
+                .param("loanDate", today).param("returnDate", today));
+        Long debtId = latestId("debts", principal);
+        perform(principal, post("/debts/pay/{id}", debtId).param("idempotencyKey", "pay-" + debtId));
+        // Takroriy so'rov (xuddi shu kalit) - kalit topiladi, boshqa yozuv yo'q
+        perform(principal, post("/debts/pay/{id}", debtId).param("idempotencyKey", "pay-" + debtId));
+        perform(principal, post("/debts/delete/{id}", debtId));
+
+        perform(principal, post("/limits/add")
+                .param("category", "Oziq-ovqat").param("limitAmount", "500000"));
+        // Mavjud limitni yangilash
+        perform(principal, post("/limits/add")
+                .param("category", "Oziq-ovqat").param("limitAmount", "600000"));
+        perform(principal, post("/limits/delete/{id}", latestId("category_limits", principal)));
+
+        perform(principal, post("/recurring/add")
+                .param("description", "Ijara").param("amount", "2000000").param("type", "Expense")
+                .param("category", "Uy").param("frequency", "Monthly").param("interval", "1")
+                .param("startDate", today));
+        perform(principal, post("/recurring/delete/{id}", latestId("recurring_rules", principal)));
+    }
+
+    @Test
+    void readRoutesStayWithinBudget() throws Exception {
+        AuthenticatedUser principal = createUser();
+        String today = LocalDate.now().toString();
+        for (int i = 0; i < 60; i++) {
+            perform(principal, post("/add")
+                    .param("description", "Xarid " + i).param("amount", String.valueOf(1000 + i))
+                    .param("type", i % 5 == 0 ? "Income" : "Expense")
+                    .param("category", "Kategoriya " + (i % 4))
+                    .param("date", LocalDate.now().minusDays(i % 20).toString()));
+        }
+        perform(principal, post("/debts/add")
+                .param("lenderName", "Vali").param("amount", "50 000")
+                .param("loanDate", today).param("returnDate", today));
+        perform(principal, post("/limits/add")
+                .param("category", "Kategoriya 1").param("limitAmount", "10000"));
+
+        // Kesh sovuq (birinchi) va iliq (ikkinchi) holatda
+        perform(principal, get("/"));
+        perform(principal, get("/"));
+        perform(principal, get("/").param("sortBy", "amount").param("direction", "asc"));
+        perform(principal, get("/export/csv"));
+        perform(principal, get("/recurring"));
+
+        MvcResult page = perform(principal, get("/api/transactions"));
+        assertTrue(page.getResponse().getContentAsString().contains("nextCursor"));
+        perform(principal, get("/api/transactions/search").param("q", "xarid"));
+        perform(principal, get("/api/debts"));
+        perform(principal, get("/api/summary"));
+        perform(principal, get("/api/budgets"));
+        perform(principal, get("/api/series"));
+        perform(principal, get("/api/series").param("granularity", "month"));
+    }
+
+    // Import chegarasi hajmga bog'liq (UNBOUNDED), lekin bitta bo'lak ichida statementlar soni
+    // qatorlar soniga bog'liq bo'lmasligi kerak (JDBC batch)
+    @Test
+    void importIssuesTheSameStatementsForAnyRowCountWithinOneBatch() throws Exception {
+        SqlStatementCounter.Stats small = importRows(createUser(), 10);
+        SqlStatementCounter.Stats large = importRows(createUser(), 500);
+        assertEquals(small.getStatements(), large.getStatements(),
+                "statements: 10 rows=" + small.getStatements() + ", 500 rows=" + large.getStatements());
+    }
+
+    @Test
+    void adminRoutesStayWithinBudget() throws Exception {
+        AuthenticatedUser admin = createUser();
+        AuthenticatedUser principal = new AuthenticatedUser(admin.getId(), admin.getUsername(), "secret",
+                admin.getBaseCurrency(), Collections.singletonList(new SimpleGrantedAuthority("ROLE_ADMIN")));
+        perform(principal, get("/admin/fx-rates"));
+        MockMultipartFile file = new MockMultipartFile("file", "rates.csv", "text/csv",
+                "date,currency,rate\n2020-01-01,USD,8000\n".getBytes(StandardCharsets.UTF_8));
+        perform(principal, multipart("/admin/fx-rates").file(file));
+    }
+
+    private SqlStatementCounter.Stats importRows(AuthenticatedUser principal, int rows) throws Exception {
+        StringBuilder csv = new StringBuilder("Date,Description,Type,Category,Amount\n");
+        for (int i = 0; i < rows; i++) {
+            csv.append(LocalDate.now().minusDays(i % 30)).append(",Import ").append(i)
+                    .append(",Expense,Kategoriya ").append(i % 7).append(',').append(100 + i).append('\n');
+        }
+        MockMultipartFile file = new MockMultipartFile("file", "import.csv", "text/csv",
+                csv.toString().getBytes(StandardCharsets.UTF_8));
+        MvcResult result = perform(principal, multipart("/import/csv").file(file));
+        return stats(result);
+    }
+
+    private MvcResult perform(AuthenticatedUser principal, MockHttpServletRequestBuilder request) throws Exception {
+        MvcResult result = mockMvc.perform(request.with(user(principal)).with(csrf())).andReturn();
+        MockHttpServletRequest servletRequest = result.getRequest();
+        String route = (String) servletRequest.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String name = servletRequest.getMethod() + " " + route;
+
+        assertTrue(result.getResponse().getStatus() < 400, name + " -> " + result.getResponse().getStatus());
+        assertNull(result.getFlashMap().get("currencyError"), name);
+
+        int[] budget = SqlBudgets.forRoute(servletRequest.getMethod(), route);
+        assertNotNull(budget, "no SqlBudgets entry for " + name);
+        SqlStatementCounter.Stats stats = stats(result);
+        if (budget[0] != SqlBudgets.UNBOUNDED) {
+            assertTrue(stats.getStatements() <= budget[0],
+                    name + ": " + stats.getStatements() + " statements, budget " + budget[0]);
+        }
+        if (budget[1] != SqlBudgets.UNBOUNDED) {
+            assertTrue(stats.getRows() <= budget[1], name + ": " + stats.getRows() + " rows, budget " + budget[1]);
+        }
+        return result;
+    }
+
+    private static SqlStatementCounter.Stats stats(MvcResult result) {
+        SqlStatementCounter.Stats stats = (SqlStatementCounter.Stats) result.getRequest()
+                .getAttribute(SqlMetricsInterceptor.STATS_ATTRIBUTE);
+        assertNotNull(stats, "request was not counted");
+        return stats;
+    }
+
+    private Long latestId(String table, AuthenticatedUser principal) {
+        return jdbcTemplate.queryForObject("SELECT max(id) FROM " + table + " WHERE user_id = ?", Long.class,
+                principal.getId());
+    }
+}
@@ -0,0 +1,103 @@
+package com.jorabek.finance_tracker.repository;
+
+import com.jorabek.finance_tracker.PostgresIntegrationTest;
+import com.jorabek.finance_tracker.config.SqlMetricsInterceptor;
+import com.jorabek.finance_tracker.config.SqlStatementCounter;
+import com.jorabek.finance_tracker.security.AuthenticatedUser;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+
+// Dashboard va ro'yxat route'lari bajargan har bir SQL haqiqiy (seed qilingan, ANALYZE qilingan) PostgreSQL'da
+// EXPLAIN qilinadi: transactions hech qachon to'liq skanerlanmaydi, uni o'qiydigan so'rovlar indeks ishlatadi
+class TransactionQueryPlanTest extends PostgresIntegrationTest {
+
+    // Boshqa foydalanuvchilar: jadval katta, test foydalanuvchisi - uning kichik qismi
+    private static final int OTHER_USERS = 100;
+    private static final int ROWS_PER_OTHER_USER = 1000;
+    private static final int OWN_ROWS = 3000;
+
+    private static final Pattern READS_TRANSACTIONS = Pattern.compile("(?is)\\bfrom\\s+transactions\\b");
+
+    @Test
+    void dashboardAndListQueriesUseIndexesOnTransactions() throws Exception {
+        AuthenticatedUser principal = createUser();
+        seed(principal);
+
+        List<String> failures = new ArrayList<>();
+        for (MockHttpServletRequestBuilder request : List.of(
+                get("/"),
+                get("/").param("sortBy", "amount").param("direction", "asc"),
+                get("/api/transactions"),
+                get("/api/transactions").param("sortBy", "amount"),
+                get("/api/transactions/search").param("q", "xarid"),
+                get("/api/summary"),
+                get("/api/budgets"),
+                get("/api/series"),
+                get("/api/series").param("granularity", "month"),
+                get("/export/csv"))) {
+            MvcResult result = mockMvc.perform(request.with(user(principal)).with(csrf())).andReturn();
+            assertTrue(result.getResponse().getStatus() < 400, result.getRequest().getRequestURI());
+            SqlStatementCounter.Stats stats = (SqlStatementCounter.Stats) result.getRequest()
+                    .getAttribute(SqlMetricsInterceptor.STATS_ATTRIBUTE);
+            assertNotNull(stats, "request was not counted");
+            assertFalse(queriesOf(stats).isEmpty());
+
+            for (RecordedQuery query : queriesOf(stats)) {
+                String plan = explain(query);
+                boolean readsTransactions = READS_TRANSACTIONS.matcher(query.sql()).find();
+                if (plan.contains("Seq Scan on transactions")
+                        || (readsTransactions && !plan.contains("Index"))) {
+                    failures.add(result.getRequest().getRequestURI() + "?" + result.getRequest().getQueryString()
+                            + "\n" + query.sql() + "\n" + plan);
+                }
+            }
+        }
+        assertTrue(failures.isEmpty(), String.join("\n\n", failures));
+    }
+
+    private String explain(RecordedQuery query) {
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + query.sql(), String.class,
+                query.parameters()));
+    }
+
+    // Test foydalanuvchisi - import orqali (ledger va kunlik yig'malar bilan); boshqalar - to'g'ridan-to'g'ri SQL
+    private void seed(AuthenticatedUser principal) throws Exception {
+        for (int i = 0; i < OTHER_USERS; i++) {
+            createUser();
+        }
+        jdbcTemplate.update("INSERT INTO transactions (user_id, date, description, type, category, amount, "
+                + "currency, base_amount) "
+                + "SELECT u.id, CURRENT_DATE - (g % 365), 'Xarid ' || g, 1 + g % 2, 'Kategoriya ' || (g % 12), "
+                + "1000 + g, 'UZS', 1000 + g "
+                + "FROM (SELECT id FROM users WHERE id <> ? ORDER BY id DESC LIMIT ?) u "
+                + "CROSS JOIN generate_series(1, ?) g", principal.getId(), OTHER_USERS, ROWS_PER_OTHER_USER);
+
+        StringBuilder csv = new StringBuilder("Date,Description,Type,Category,Amount\n");
+        for (int i = 0; i < OWN_ROWS; i++) {
+            csv.append(LocalDate.now().minusDays(i % 365)).append(i % 10 == 0 ? ",Xarid " : ",To'lov ").append(i)
+                    .append(i % 4 == 0 ? ",Income," : ",Expense,").append("Kategoriya ").append(i % 12)
+                    .append(',').append(1000 + i).append('\n');
+        }
+        mockMvc.perform(multipart("/import/csv")
+                .file(new MockMultipartFile("file", "seed.csv", "text/csv",
+                        csv.toString().getBytes(StandardCharsets.UTF_8)))
+                .with(user(principal)).with(csrf()));
+        jdbcTemplate.execute("ANALYZE");
+    }
+}
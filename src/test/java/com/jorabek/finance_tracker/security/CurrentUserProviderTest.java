@@ -0,0 +1,76 @@
+package com.jorabek.finance_tracker.security;
+
+import com.jorabek.finance_tracker.PostgresIntegrationTest;
+import com.jorabek.finance_tracker.config.SqlMetricsInterceptor;
+import com.jorabek.finance_tracker.config.SqlStatementCounter;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+
+// Login'dan keyin foydalanuvchi (id, asosiy valyuta) sessiyadagi principal'dan olinadi:
+// autentifikatsiyalangan so'rovlar users jadvalini o'qimaydi
+class CurrentUserProviderTest extends PostgresIntegrationTest {
+
+    private static final Pattern USERS_SELECT = Pattern.compile("(?is)^\\s*select\\b.*\\bfrom\\s+users\\b");
+
+    @Test
+    void authenticatedRequestsDoNotSelectUsers() throws Exception {
+        AuthenticatedUser principal = createUser();
+        MvcResult login = mockMvc.perform(post("/login")
+                .param("username", principal.getUsername()).param("password", "secret").with(csrf()))
+                .andExpect(redirectedUrl("/"))
+                .andReturn();
+        MockHttpSession session = (MockHttpSession) login.getRequest().getSession(false);
+        assertNotNull(session);
+
+        String today = LocalDate.now().toString();
+        assertNoUsersSelect(post("/add").session(session).with(csrf())
+                .param("description", "Non").param("amount", "8000").param("type", "Expense")
+                .param("category", "Oziq-ovqat").param("date", today));
+        assertNoUsersSelect(post("/limits/add").session(session).with(csrf())
+                .param("category", "Oziq-ovqat").param("limitAmount", "100000"));
+        assertNoUsersSelect(get("/").session(session));
+        assertNoUsersSelect(get("/recurring").session(session));
+        assertNoUsersSelect(get("/api/summary").session(session));
+    }
+
+    // Deploydan oldingi sessiya (principal'da valyuta yo'q): users bir marta o'qiladi, keyin L2 keshdan
+    @Test
+    void legacyPrincipalReadsUsersOnceThenFromSecondLevelCache() throws Exception {
+        AuthenticatedUser current = createUser();
+        AuthenticatedUser legacy = new AuthenticatedUser(current.getId(), current.getUsername(), "secret",
+                current.getAuthorities());
+        assertEquals(1, usersSelects(mockMvc.perform(get("/recurring").with(user(legacy))).andReturn()).size());
+        assertEquals(0, usersSelects(mockMvc.perform(get("/recurring").with(user(legacy))).andReturn()).size());
+    }
+
+    private void assertNoUsersSelect(MockHttpServletRequestBuilder request) throws Exception {
+        MvcResult result = mockMvc.perform(request).andReturn();
+        assertTrue(result.getResponse().getStatus() < 400,
+                request + " -> " + result.getResponse().getStatus());
+        assertEquals(List.of(), usersSelects(result), result.getRequest().getRequestURI());
+    }
+
+    private List<String> usersSelects(MvcResult result) {
+        SqlStatementCounter.Stats stats = (SqlStatementCounter.Stats) result.getRequest()
+                .getAttribute(SqlMetricsInterceptor.STATS_ATTRIBUTE);
+        assertNotNull(stats, "request was not counted");
+        // Yozib olingan matnlar hisob bilan mos (hech bir statement tushib qolmagan)
+        assertEquals(stats.getStatements(), sqlOf(stats).size());
+        return sqlOf(stats).stream().filter(sql -> USERS_SELECT.matcher(sql).find()).toList();
+    }
+}
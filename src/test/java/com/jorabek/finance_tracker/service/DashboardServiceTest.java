@@ -0,0 +1,123 @@
+package com.jorabek.finance_tracker.service;
+
+import com.jorabek.finance_tracker.PostgresIntegrationTest;
+import com.jorabek.finance_tracker.config.SqlStatementCounter;
+import com.jorabek.finance_tracker.dto.DashboardSnapshot;
+import com.jorabek.finance_tracker.dto.DataVersion;
+import com.jorabek.finance_tracker.security.AuthenticatedUser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Dashboard snapshot'i ma'lumot hajmidan qat'i nazar bir xil sondagi SQL bilan yuklanadi (N+1 yo'q)
+class DashboardServiceTest extends PostgresIntegrationTest {
+
+    // Kesh miss: aggregatlar CTE + 7 kunlik qator + tranzaksiyalar sahifasi + qarzlar
+    private static final int COLD_STATEMENTS = 4;
+    // Aggregatlar keshdan
+    private static final int WARM_STATEMENTS = 2;
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private DataVersionService dataVersionService;
+
+    @AfterEach
+    void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void snapshotRunsAFixedNumberOfStatementsRegardlessOfDataVolume() throws Exception {
+        for (int rows : new int[] { 1, 30, 3000 }) {
+            AuthenticatedUser principal = createUser();
+            seed(principal, rows);
+            authenticate(principal);
+
+            SqlStatementCounter.Stats cold = loadSnapshot(rows).stats();
+            assertEquals(COLD_STATEMENTS, cold.getStatements(), rows + " rows, cold: " + sqlOf(cold));
+            SqlStatementCounter.Stats warm = loadSnapshot(rows).stats();
+            assertEquals(WARM_STATEMENTS, warm.getStatements(), rows + " rows, warm: " + sqlOf(warm));
+        }
+    }
+
+    // Boshqa instansiyadagi yozuv bu instansiyaning keshini tozalamaydi, lekin data_version'ni oshiradi:
+    // keyingi snapshot keshdagi qiymatni ishlatmaydi
+    @Test
+    void cachedAggregatesAreNotServedAfterAnotherInstanceWrites() throws Exception {
+        AuthenticatedUser principal = createUser();
+        seed(principal, 30);
+        authenticate(principal);
+        Loaded before = loadSnapshot(30);
+        assertEquals(WARM_STATEMENTS, loadSnapshot(30).stats().getStatements());
+
+        jdbcTemplate.update("UPDATE user_ledgers SET total_income = total_income + 12345, "
+                + "data_version = data_version + 1 WHERE user_id = ?", principal.getId());
+
+        Loaded after = loadSnapshot(30);
+        assertEquals(COLD_STATEMENTS, after.stats().getStatements(), "stale cache entry was served");
+        assertEquals(before.snapshot().getTotalIncome().getMinorUnits() + 12345,
+                after.snapshot().getTotalIncome().getMinorUnits());
+    }
+
+    private Loaded loadSnapshot(int expectedTransactions) {
+        DataVersion version = dataVersionService.current();
+        SqlStatementCounter.begin();
+        DashboardSnapshot snapshot;
+        SqlStatementCounter.Stats stats;
+        try {
+            snapshot = dashboardService.loadSnapshot("date", "desc", null, version);
+        } finally {
+            stats = SqlStatementCounter.end();
+        }
+        assertEquals(Math.min(expectedTransactions, TransactionService.PAGE_SIZE),
+                snapshot.getTransactions().getItems().size());
+        return new Loaded(snapshot, stats);
+    }
+
+    private static void authenticate(AuthenticatedUser principal) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    // Tranzaksiyalar (import orqali, ledger va kunlik yig'malar bilan), bir nechta qarz va limit
+    private void seed(AuthenticatedUser principal, int rows) throws Exception {
+        StringBuilder csv = new StringBuilder("Date,Description,Type,Category,Amount\n");
+        for (int i = 0; i < rows; i++) {
+            csv.append(LocalDate.now().minusDays(i % 40)).append(",Yozuv ").append(i)
+                    .append(i % 4 == 0 ? ",Income," : ",Expense,").append("Kategoriya ").append(i % 9)
+                    .append(',').append(1000 + i).append('\n');
+        }
+        mockMvc.perform(multipart("/import/csv")
+                .file(new MockMultipartFile("file", "seed.csv", "text/csv",
+                        csv.toString().getBytes(StandardCharsets.UTF_8)))
+                .with(user(principal)).with(csrf()))
+                .andExpect(status().is3xxRedirection());
+        for (int i = 0; i < Math.min(rows, 5); i++) {
+            String today = LocalDate.now().toString();
+            mockMvc.perform(post("/debts/add").param("lenderName", "Qarz " + i).param("amount", "10000")
+                    .param("loanDate", today).param("returnDate", today).with(user(principal)).with(csrf()))
+                    .andExpect(status().is3xxRedirection());
+            mockMvc.perform(post("/limits/add").param("category", "Kategoriya " + i).param("limitAmount", "5000")
+                    .with(user(principal)).with(csrf()))
+                    .andExpect(status().is3xxRedirection());
+        }
+    }
+
+    private record Loaded(DashboardSnapshot snapshot, SqlStatementCounter.Stats stats) {
+    }
+}
@@ -0,0 +1,117 @@
+package com.jorabek.finance_tracker.service;
+
+import com.jorabek.finance_tracker.PostgresIntegrationTest;
+import com.jorabek.finance_tracker.security.AuthenticatedUser;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Eslatmalar faqat hali eslatilmagan qarzlar uchun o'qiladi, bir vaqtda bitta instansiya skan qiladi,
+// lag gauge'i esa checkpoint qatoridan tiklanadi
+class DebtReminderJobTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private DebtReminderJob debtReminderJob;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private DataSource dataSource;
+
+    // Har test - yangi kunlik ishga tushish
+    @BeforeEach
+    void resetCheckpoint() {
+        jdbcTemplate.update("UPDATE job_checkpoints SET run_date = run_date - 1, completed = FALSE, position = NULL "
+                + "WHERE job_name = ?", DebtReminderJob.JOB_NAME);
+    }
+
+    @Test
+    void dailyRunReadsOnlyDebtsThatStillNeedAReminder() {
+        AuthenticatedUser principal = createUser();
+        LocalDate today = LocalDate.now();
+        Long overdue = insertDebt(principal, today.minusDays(10), 1);
+        Long dueSoon = insertDebt(principal, today.plusDays(1), 1);
+        Long later = insertDebt(principal, today.plusDays(30), 1);
+        Long paid = insertDebt(principal, today.minusDays(10), 2);
+
+        debtReminderJob.scan();
+
+        assertEquals(List.of(2), reminderKinds(overdue));
+        assertEquals(List.of(1), reminderKinds(dueSoon));
+        assertEquals(List.of(), reminderKinds(later));
+        assertEquals(List.of(), reminderKinds(paid));
+
+        // Keyingi kun: eslatilganlar qayta o'qilmaydi, faqat yangi (o'tgan sanali) qarz
+        resetCheckpoint();
+        Long created = insertDebt(principal, today.minusDays(400), 1);
+        double scannedBefore = scanned();
+        debtReminderJob.scan();
+
+        assertEquals(1.0, scanned() - scannedBefore);
+        assertEquals(List.of(2), reminderKinds(created));
+    }
+
+    @Test
+    void scanIsSkippedWhileAnotherInstanceHoldsTheLock() throws Exception {
+        AuthenticatedUser principal = createUser();
+        Long debtId = insertDebt(principal, LocalDate.now().minusDays(1), 1);
+
+        try (Connection other = dataSource.getConnection()) {
+            advisoryLock(other, "SELECT pg_advisory_lock(hashtext(?))");
+            try {
+                debtReminderJob.scan();
+                assertEquals(List.of(), reminderKinds(debtId));
+            } finally {
+                advisoryLock(other, "SELECT pg_advisory_unlock(hashtext(?))");
+            }
+        }
+
+        debtReminderJob.scan();
+        assertEquals(List.of(2), reminderKinds(debtId));
+    }
+
+    @Test
+    void lagGaugeStartsFromTheCheckpointRow() {
+        debtReminderJob.scan();
+        jdbcTemplate.update("UPDATE job_checkpoints SET last_completed_at = now() - INTERVAL '1 hour' "
+                + "WHERE job_name = ?", DebtReminderJob.JOB_NAME);
+
+        debtReminderJob.loadLastCompleted();
+
+        double lag = meterRegistry.get("finance.jobs.debt.reminders.lag").gauge().value();
+        assertTrue(lag >= 3600 && lag < 3700, "lag=" + lag);
+    }
+
+    private Long insertDebt(AuthenticatedUser principal, LocalDate returnDate, int status) {
+        return jdbcTemplate.queryForObject("INSERT INTO debts (amount, lender_name, loan_date, return_date, status, "
+                + "user_id, currency, base_amount) VALUES (10000, 'Aziz', ?, ?, ?, ?, 'UZS', 10000) RETURNING id",
+                Long.class, returnDate.minusDays(30), returnDate, status, principal.getId());
+    }
+
+    private List<Integer> reminderKinds(Long debtId) {
+        return jdbcTemplate.queryForList("SELECT kind FROM debt_reminders WHERE debt_id = ? ORDER BY kind",
+                Integer.class, debtId);
+    }
+
+    private double scanned() {
+        return meterRegistry.get("finance.jobs.debt.reminders.scanned").counter().count();
+    }
+
+    private static void advisoryLock(Connection connection, String sql) throws Exception {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, DebtReminderJob.JOB_NAME);
+            statement.executeQuery().close();
+        }
+    }
+}
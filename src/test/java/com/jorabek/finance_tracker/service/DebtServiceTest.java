@@ -0,0 +1,162 @@
+package com.jorabek.finance_tracker.service;
+
+import com.jorabek.finance_tracker.PostgresIntegrationTest;
+import com.jorabek.finance_tracker.entity.DebtStatus;
+import com.jorabek.finance_tracker.security.AuthenticatedUser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.flash;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Bitta qarzni bir vaqtda ko'p marta to'lash (ikki marta bosish, qayta urinishlar, bir nechta vkladka):
+// faqat bitta PAID o'tishi, bitta xarajat qatori, ledger esa aynan bitta to'lovga o'zgaradi.
+// Endpoint darajasida: takroriy Idempotency-Key va noto'g'ri kalit
+class DebtServiceTest extends PostgresIntegrationTest {
+
+    private static final int CALLS = 1000;
+    private static final int THREADS = 64;
+    private static final long DEBT_MINOR = 25_000_000L;
+
+    @Autowired
+    private DebtService debtService;
+
+    // sharedKey: hamma chaqiruv bitta idempotency kaliti bilan (qayta urinish), aks holda har biri o'z kaliti bilan
+    @ParameterizedTest
+    @ValueSource(booleans = { true, false })
+    void concurrentPaymentsPayTheDebtExactlyOnce(boolean sharedKey) throws Exception {
+        AuthenticatedUser principal = createUser();
+        String today = LocalDate.now().toString();
+        mockMvc.perform(post("/debts/add").param("lenderName", "Bank").param("amount", "250 000")
+                .param("loanDate", today).param("returnDate", today).with(user(principal)).with(csrf()))
+                .andExpect(status().is3xxRedirection());
+        Long debtId = jdbcTemplate.queryForObject("SELECT id FROM debts WHERE user_id = ?", Long.class,
+                principal.getId());
+        Map<String, Object> before = ledger(principal);
+        assertEquals(DEBT_MINOR, before.get("unpaid_debt_total"));
+
+        List<Throwable> failures = payConcurrently(principal, debtId, sharedKey);
+
+        assertTrue(failures.isEmpty(), "payDebt failed: " + failures);
+        assertEquals((int) DebtStatus.PAID.getCode(), jdbcTemplate.queryForObject(
+                "SELECT status FROM debts WHERE id = ?", Integer.class, debtId));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transactions WHERE user_id = ? "
+                + "AND category = 'Qarz to''lovi' AND base_amount = ?", Integer.class, principal.getId(), DEBT_MINOR));
+
+        // Qarz xarajatga o'tdi: umumiy summa (xarajat + to'lanmagan qarz) o'zgarmaydi
+        Map<String, Object> after = ledger(principal);
+        assertEquals((Long) before.get("total_expense") + (Long) before.get("unpaid_debt_total"),
+                (Long) after.get("total_expense") + (Long) after.get("unpaid_debt_total"));
+        assertEquals(0L, after.get("unpaid_debt_total"));
+        assertEquals(0L, after.get("unpaid_debt_count"));
+        assertEquals((Long) before.get("expense_count") + 1, after.get("expense_count"));
+        // Ledger xom jadvallar bilan mos
+        assertEquals(jdbcTemplate.queryForObject("SELECT COALESCE(SUM(base_amount), 0) FROM transactions "
+                + "WHERE user_id = ? AND type = 2", Long.class, principal.getId()), after.get("total_expense"));
+    }
+
+    // Endpoint orqali: Idempotency-Key sarlavhasi bilan qayta yuborilgan so'rov hech narsa qilmaydi
+    // (kalit foydalanuvchi bo'yicha - boshqa qarzga ham qo'llanmaydi), noto'g'ri kalit esa 400
+    @Test
+    void replayedIdempotencyKeyHeaderIsIgnored() throws Exception {
+        AuthenticatedUser principal = createUser();
+        Long first = addDebt(principal, "Bank");
+        Long second = addDebt(principal, "Aziz");
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/debts/pay/{id}", first).header("Idempotency-Key", "replay-1")
+                    .with(user(principal)).with(csrf()))
+                    .andExpect(status().is3xxRedirection())
+                    .andExpect(flash().attributeCount(0));
+        }
+        mockMvc.perform(post("/debts/pay/{id}", second).header("Idempotency-Key", "replay-1")
+                .with(user(principal)).with(csrf()))
+                .andExpect(status().is3xxRedirection());
+
+        assertEquals((int) DebtStatus.PAID.getCode(), debtStatus(first));
+        assertEquals((int) DebtStatus.UNPAID.getCode(), debtStatus(second));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transactions WHERE user_id = ? "
+                + "AND category = 'Qarz to''lovi'", Integer.class, principal.getId()));
+
+        mockMvc.perform(post("/debts/pay/{id}", second).header("Idempotency-Key", "k".repeat(65))
+                .with(user(principal)).with(csrf()))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/debts/pay/{id}", second).header("Idempotency-Key", " ")
+                .with(user(principal)).with(csrf()))
+                .andExpect(status().isBadRequest());
+        assertEquals((int) DebtStatus.UNPAID.getCode(), debtStatus(second));
+    }
+
+    private Long addDebt(AuthenticatedUser principal, String lenderName) throws Exception {
+        String today = LocalDate.now().toString();
+        mockMvc.perform(post("/debts/add").param("lenderName", lenderName).param("amount", "250 000")
+                .param("loanDate", today).param("returnDate", today).with(user(principal)).with(csrf()))
+                .andExpect(status().is3xxRedirection());
+        return jdbcTemplate.queryForObject("SELECT id FROM debts WHERE user_id = ? AND lender_name = ?", Long.class,
+                principal.getId(), lenderName);
+    }
+
+    private Integer debtStatus(Long debtId) {
+        return jdbcTemplate.queryForObject("SELECT status FROM debts WHERE id = ?", Integer.class, debtId);
+    }
+
+    private List<Throwable> payConcurrently(AuthenticatedUser principal, Long debtId, boolean sharedKey)
+            throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> calls = new ArrayList<>(CALLS);
+        try {
+            for (int i = 0; i < CALLS; i++) {
+                String key = sharedKey ? "pay-" + debtId : "pay-" + debtId + "-" + i;
+                calls.add(executor.submit(() -> {
+                    SecurityContextHolder.getContext().setAuthentication(
+                            new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+                    try {
+                        start.await();
+                        debtService.payDebt(debtId, key);
+                    } finally {
+                        SecurityContextHolder.clearContext();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+
+            List<Throwable> failures = new ArrayList<>();
+            for (Future<?> call : calls) {
+                try {
+                    call.get(2, TimeUnit.MINUTES);
+                } catch (Exception e) {
+                    failures.add(e.getCause() != null ? e.getCause() : e);
+                }
+            }
+            return failures;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Map<String, Object> ledger(AuthenticatedUser principal) {
+        return jdbcTemplate.queryForMap("SELECT total_expense, unpaid_debt_total, expense_count, unpaid_debt_count "
+                + "FROM user_ledgers WHERE user_id = ?", principal.getId());
+    }
+}
@@ -0,0 +1,76 @@
+package com.jorabek.finance_tracker.service;
+
+import com.jorabek.finance_tracker.PostgresIntegrationTest;
+import com.jorabek.finance_tracker.entity.DebtStatus;
+import com.jorabek.finance_tracker.security.AuthenticatedUser;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+// Boshqa instansiyada yuklangan kurslar (bu yerda: to'g'ridan-to'g'ri SQL + versiya oshirish) keyingi
+// chet valyutadagi yozuvda darhol ishlatiladi - davriy qayta o'qishni kutmasdan.
+// EUR kurslarini testlar o'zi o'rnatadi yoki o'chiradi (hech bir test avvalgi EUR kursiga tayanmaydi)
+class FxRateServiceTest extends PostgresIntegrationTest {
+
+    @Test
+    void foreignCurrencyWritesUseRatesLoadedByAnotherInstance() throws Exception {
+        AuthenticatedUser principal = createUser();
+        long rate = ThreadLocalRandom.current().nextLong(10_000, 20_000);
+        loadEurRateElsewhere(rate);
+
+        MvcResult result = mockMvc.perform(post("/add").param("description", "Kitob").param("amount", "10")
+                .param("currency", "EUR").param("type", "Expense").param("category", "Ta'lim")
+                .param("date", LocalDate.now().toString()).with(user(principal)).with(csrf())).andReturn();
+
+        assertNull(result.getFlashMap().get("currencyError"));
+        assertEquals(1000L * rate, jdbcTemplate.queryForObject(
+                "SELECT base_amount FROM transactions WHERE user_id = ?", Long.class, principal.getId()));
+    }
+
+    // Kurs yo'q bo'lsa to'lov 500 emas, forma xatosi; qarz holati va idempotency kaliti o'zgarmaydi
+    @Test
+    void payingADebtWithoutRateIsRejectedAndRolledBack() throws Exception {
+        AuthenticatedUser principal = createUser();
+        loadEurRateElsewhere(15_000);
+        String today = LocalDate.now().toString();
+        mockMvc.perform(post("/debts/add").param("lenderName", "Sardor").param("amount", "100")
+                .param("currency", "EUR").param("loanDate", today).param("returnDate", today)
+                .with(user(principal)).with(csrf()));
+        Long debtId = jdbcTemplate.queryForObject("SELECT id FROM debts WHERE user_id = ?", Long.class,
+                principal.getId());
+
+        jdbcTemplate.update("DELETE FROM fx_rates WHERE currency = 'EUR'");
+        bumpRatesVersion();
+
+        MvcResult result = mockMvc.perform(post("/debts/pay/{id}", debtId).param("idempotencyKey", "pay-" + debtId)
+                .with(user(principal)).with(csrf())).andReturn();
+
+        assertEquals(302, result.getResponse().getStatus());
+        assertNotNull(result.getFlashMap().get("currencyError"));
+        assertEquals((int) DebtStatus.UNPAID.getCode(), jdbcTemplate.queryForObject(
+                "SELECT status FROM debts WHERE id = ?", Integer.class, debtId));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM idempotency_keys WHERE user_id = ?",
+                Integer.class, principal.getId()));
+    }
+
+    private void loadEurRateElsewhere(long rate) {
+        jdbcTemplate.update("INSERT INTO fx_rates (currency, rate_date, rate) VALUES ('EUR', ?, ?) "
+                + "ON CONFLICT (currency, rate_date) DO UPDATE SET rate = EXCLUDED.rate", LocalDate.now(), rate);
+        // Bugundan keyingi eski kurslar bugungi kursni yashirmasin
+        jdbcTemplate.update("DELETE FROM fx_rates WHERE currency = 'EUR' AND rate_date > ?", LocalDate.now());
+        bumpRatesVersion();
+    }
+
+    private void bumpRatesVersion() {
+        jdbcTemplate.update("UPDATE fx_rates_state SET version = version + 1 WHERE id = 1");
+    }
+}
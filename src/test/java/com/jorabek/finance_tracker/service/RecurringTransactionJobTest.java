@@ -0,0 +1,57 @@
+package com.jorabek.finance_tracker.service;
+
+import com.jorabek.finance_tracker.PostgresIntegrationTest;
+import com.jorabek.finance_tracker.security.AuthenticatedUser;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Kursi yo'q qoidalar (test profilida batch-size=2) navbat boshida qolib, ortidagi qoidalarni to'sib qo'ymaydi
+class RecurringTransactionJobTest extends PostgresIntegrationTest {
+
+    // Barcha ishchilarning birinchi bo'laklaridan ko'p
+    private static final int RULES_WITHOUT_RATE = 10;
+
+    @Autowired
+    private RecurringTransactionJob recurringTransactionJob;
+
+    @Test
+    void rulesWithoutRateAreDeferredAndDoNotStarveOthers() {
+        AuthenticatedUser principal = createUser();
+        LocalDate today = LocalDate.now();
+        jdbcTemplate.update("DELETE FROM fx_rates WHERE currency = 'EUR'");
+        jdbcTemplate.update("UPDATE fx_rates_state SET version = version + 1 WHERE id = 1");
+        try {
+            // Eski sana - claim tartibida birinchi
+            for (int i = 0; i < RULES_WITHOUT_RATE; i++) {
+                insertRule(principal, "EUR", today.minusDays(30));
+            }
+            Long ruleId = insertRule(principal, "UZS", today);
+
+            recurringTransactionJob.materializeDue();
+
+            assertEquals(1, jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM transactions WHERE recurring_rule_id = ? AND date = ?", Integer.class,
+                    ruleId, today));
+            assertEquals(RULES_WITHOUT_RATE, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM recurring_rules "
+                    + "WHERE user_id = ? AND currency = 'EUR' AND next_run_date = ? AND retry_after > now()",
+                    Integer.class, principal.getId(), today.minusDays(30)));
+            assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transactions "
+                    + "WHERE user_id = ? AND currency = 'EUR'", Integer.class, principal.getId()));
+        } finally {
+            // Keyingi ishga tushishlarga (qayta ishlatiladigan baza) ta'sir qilmasin
+            jdbcTemplate.update("UPDATE recurring_rules SET active = FALSE WHERE user_id = ?", principal.getId());
+        }
+    }
+
+    // Kunlik qoida, bugungacha muddati kelgan
+    private Long insertRule(AuthenticatedUser principal, String currency, LocalDate nextRunDate) {
+        return jdbcTemplate.queryForObject("INSERT INTO recurring_rules (user_id, description, type, category, "
+                + "amount, frequency, interval_count, start_date, next_run_date, currency) "
+                + "VALUES (?, 'Obuna', 2, 'Xizmatlar', 5000, 1, 1, ?, ?, ?) RETURNING id", Long.class,
+                principal.getId(), nextRunDate, nextRunDate, currency);
+    }
+}
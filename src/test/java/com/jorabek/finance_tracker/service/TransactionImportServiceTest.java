@@ -0,0 +1,58 @@
+package com.jorabek.finance_tracker.service;
+
+import com.jorabek.finance_tracker.PostgresIntegrationTest;
+import com.jorabek.finance_tracker.security.AuthenticatedUser;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Eksport fayli o'zgarishsiz qayta import qilinadi: vergul va qo'shtirnoqli tavsif/kategoriya ham
+class TransactionImportServiceTest extends PostgresIntegrationTest {
+
+    private static final String ROWS_SQL = "SELECT date, description, type, category, amount, currency "
+            + "FROM transactions WHERE user_id = ? ORDER BY description";
+
+    @Test
+    void exportedFileImportsBackUnchanged() throws Exception {
+        AuthenticatedUser source = createUser();
+        String today = LocalDate.now().toString();
+        addTransaction(source, "Tushlik, \"Rayhon\" kafesi", "Oziq-ovqat, kafe", "45 000.50", "Expense", today);
+        addTransaction(source, "Oylik", "Ish \"asosiy\"", "8 000 000", "Income", today);
+        addTransaction(source, "Oddiy", "Transport", "12000", "Expense", LocalDate.now().minusDays(3).toString());
+
+        byte[] exported = mockMvc.perform(get("/export/csv").with(user(source)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+
+        AuthenticatedUser target = createUser();
+        mockMvc.perform(multipart("/import/csv")
+                .file(new MockMultipartFile("file", "transactions.csv", "text/csv", exported))
+                .with(user(target)).with(csrf()))
+                .andExpect(status().is3xxRedirection());
+
+        List<Map<String, Object>> expected = jdbcTemplate.queryForList(ROWS_SQL, source.getId());
+        assertEquals(3, expected.size(), new String(exported, StandardCharsets.UTF_8));
+        assertEquals(expected, jdbcTemplate.queryForList(ROWS_SQL, target.getId()),
+                new String(exported, StandardCharsets.UTF_8));
+    }
+
+    private void addTransaction(AuthenticatedUser principal, String description, String category, String amount,
+            String type, String date) throws Exception {
+        mockMvc.perform(post("/add").param("description", description).param("category", category)
+                .param("amount", amount).param("type", type).param("date", date)
+                .with(user(principal)).with(csrf()))
+                .andExpect(status().is3xxRedirection());
+    }
+}
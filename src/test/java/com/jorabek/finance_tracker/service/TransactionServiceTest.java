@@ -0,0 +1,44 @@
+package com.jorabek.finance_tracker.service;
+
+import com.jorabek.finance_tracker.PostgresIntegrationTest;
+import com.jorabek.finance_tracker.security.AuthenticatedUser;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Limitni faqat egasi o'chira oladi, o'chirish esa faqat POST (CSRF token bilan)
+class TransactionServiceTest extends PostgresIntegrationTest {
+
+    @Test
+    void limitIsDeletedOnlyByItsOwnerAndOnlyByPost() throws Exception {
+        AuthenticatedUser owner = createUser();
+        mockMvc.perform(post("/limits/add").param("category", "Oziq-ovqat").param("limitAmount", "500000")
+                .with(user(owner)).with(csrf()))
+                .andExpect(status().is3xxRedirection());
+        Long limitId = jdbcTemplate.queryForObject("SELECT id FROM category_limits WHERE user_id = ?", Long.class,
+                owner.getId());
+
+        // Havola orqali (GET) o'chirib bo'lmaydi
+        mockMvc.perform(get("/limits/delete/{id}", limitId).with(user(owner)))
+                .andExpect(status().isMethodNotAllowed());
+        // Boshqa foydalanuvchi id'ni bilsa ham o'chira olmaydi
+        AuthenticatedUser other = createUser();
+        mockMvc.perform(post("/limits/delete/{id}", limitId).with(user(other)).with(csrf()))
+                .andExpect(status().is3xxRedirection());
+        assertEquals(1, countLimits(limitId));
+
+        mockMvc.perform(post("/limits/delete/{id}", limitId).with(user(owner)).with(csrf()))
+                .andExpect(status().is3xxRedirection());
+        assertEquals(0, countLimits(limitId));
+    }
+
+    private int countLimits(Long limitId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM category_limits WHERE id = ?", Integer.class,
+                limitId);
+    }
+}